@@ -0,0 +1,291 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * <p>Asynchronous validation on top of a {@link UrlValidator}, for
+ * callers that must not block on CPU-bound work, such as request handlers
+ * running on virtual threads.</p>
+ *
+ * <p>Validation is CPU-bound, so it runs on a fixed pool of platform
+ * threads, one per processor by default. Only I/O-bound work, such as
+ * reading a data URL from a channel, runs on the I/O executor. That
+ * executor starts a virtual thread per task when the runtime has them
+ * (Java 21 and later) and a daemon platform thread otherwise. Neither
+ * path holds a monitor while blocking, so a virtual thread waiting on a
+ * returned future, or reading a channel, never pins its carrier.</p>
+ *
+ * <pre>
+ *   AsyncUrlValidator validator = new AsyncUrlValidator(UrlValidator.getInstance());
+ *   validator.validate("http://foo.bar.com/").thenAccept(verdict -&gt; ...);
+ *   List&lt;Verdict&gt; verdicts = validator.validateAll(urls).join();
+ *   validator.close();
+ * </pre>
+ */
+public final class AsyncUrlValidator implements AutoCloseable {
+
+    /**
+     * Number of URLs of a batch validated by one task.
+     */
+    static final int BATCH_CHUNK = 256;
+
+    private final UrlValidator validator;
+
+    private final ExecutorService cpuExecutor;
+
+    private final ExecutorService ioExecutor;
+
+    private final boolean ownsCpuExecutor;
+
+    /**
+     * Create an asynchronous validator with a pool of one platform thread
+     * per processor.
+     * @param validator the validator to run
+     */
+    public AsyncUrlValidator(UrlValidator validator) {
+        this(validator, Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+                new DaemonThreadFactory("url-validator-")), true);
+    }
+
+    /**
+     * Create an asynchronous validator running validation on the given
+     * executor, which should be a bounded pool of platform threads. The
+     * executor is not shut down by {@link #close()}.
+     * @param validator the validator to run
+     * @param cpuExecutor where to run validation
+     */
+    public AsyncUrlValidator(UrlValidator validator, ExecutorService cpuExecutor) {
+        this(validator, cpuExecutor, false);
+    }
+
+    private AsyncUrlValidator(UrlValidator validator, ExecutorService cpuExecutor, boolean ownsCpuExecutor) {
+        if (validator == null || cpuExecutor == null) {
+            throw new IllegalArgumentException("Validator and executor are required");
+        }
+        this.validator = validator;
+        this.cpuExecutor = cpuExecutor;
+        this.ownsCpuExecutor = ownsCpuExecutor;
+        this.ioExecutor = newIoExecutor();
+    }
+
+    /**
+     * Returns an executor starting a virtual thread per task if the
+     * runtime has virtual threads, otherwise a daemon platform thread.
+     */
+    private static ExecutorService newIoExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool(new DaemonThreadFactory("url-validator-io-"));
+        }
+    }
+
+    /**
+     * Tests whether I/O-bound work runs on virtual threads.
+     * @return true if the runtime has virtual threads
+     */
+    public static boolean isVirtualThreadsAvailable() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the validator run by this asynchronous validator.
+     * @return the validator
+     */
+    public UrlValidator getValidator() {
+        return validator;
+    }
+
+    /**
+     * Validates a URL on the validation pool.
+     * @param value the URL, may be <code>null</code>
+     * @return the future verdict
+     */
+    public CompletableFuture<Verdict> validate(final CharSequence value) {
+        final CompletableFuture<Verdict> result = new CompletableFuture<Verdict>();
+        final Future<?> task = cpuExecutor.submit(new Runnable() {
+            public void run() {
+                if (result.isDone()) {
+                    return;
+                }
+                try {
+                    result.complete(validator.validate(value));
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                } catch (Error e) {
+                    result.completeExceptionally(e);
+                    throw e;
+                }
+            }
+        });
+        cancelOnCancel(result, task);
+        return result;
+    }
+
+    /**
+     * <p>Validates URLs as one unit of work: the URLs are split into tasks
+     * on the validation pool, and the returned future completes once all
+     * of them have.</p>
+     *
+     * <p>If a task fails, the tasks still running or queued are cancelled
+     * and the future completes with the failure. Cancelling the future
+     * cancels the tasks too.</p>
+     *
+     * @param values the URLs, none of which are copied
+     * @return the future verdicts, in the order of the URLs
+     */
+    public CompletableFuture<List<Verdict>> validateAll(final List<? extends CharSequence> values) {
+        final Verdict[] verdicts = new Verdict[values.size()];
+        final CompletableFuture<List<Verdict>> result = new CompletableFuture<List<Verdict>>();
+        if (verdicts.length == 0) {
+            result.complete(Arrays.asList(verdicts));
+            return result;
+        }
+
+        int chunks = (verdicts.length + BATCH_CHUNK - 1) / BATCH_CHUNK;
+        final AtomicInteger remaining = new AtomicInteger(chunks);
+        final List<Future<?>> tasks = new ArrayList<Future<?>>(chunks);
+        for (int from = 0; from < verdicts.length; from += BATCH_CHUNK) {
+            final int start = from;
+            final int end = Math.min(from + BATCH_CHUNK, verdicts.length);
+            Future<?> task = cpuExecutor.submit(new Runnable() {
+                public void run() {
+                    if (result.isDone()) {
+                        return;
+                    }
+                    try {
+                        UrlComponents url = new UrlComponents();
+                        for (int i = start; i < end; i++) {
+                            verdicts[i] = validator.validate(values.get(i), url);
+                        }
+                    } catch (RuntimeException e) {
+                        result.completeExceptionally(e);
+                        return;
+                    } catch (Error e) {
+                        result.completeExceptionally(e);
+                        throw e;
+                    }
+                    if (remaining.decrementAndGet() == 0) {
+                        result.complete(Arrays.asList(verdicts));
+                    }
+                }
+            });
+            synchronized (tasks) {
+                tasks.add(task);
+            }
+        }
+
+        result.whenComplete(new BiConsumer<List<Verdict>, Throwable>() {
+            public void accept(List<Verdict> verdicts, Throwable failure) {
+                if (failure != null) {
+                    synchronized (tasks) {
+                        for (Future<?> task : tasks) {
+                            task.cancel(false);
+                        }
+                    }
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Validates a data URL read from a channel, on the I/O executor.
+     * @param channel the channel to read the URL from, up to its end
+     * @return the future result of {@link DataUrlValidator#isValid(ReadableByteChannel)}
+     */
+    public CompletableFuture<Boolean> validateData(final ReadableByteChannel channel) {
+        final CompletableFuture<Boolean> result = new CompletableFuture<Boolean>();
+        final Future<?> task = ioExecutor.submit(new Runnable() {
+            public void run() {
+                try {
+                    result.complete(Boolean.valueOf(DataUrlValidator.getInstance().isValid(channel)));
+                } catch (IOException e) {
+                    result.completeExceptionally(e);
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        });
+        cancelOnCancel(result, task);
+        return result;
+    }
+
+    private static void cancelOnCancel(CompletableFuture<?> result, final Future<?> task) {
+        result.whenComplete(new BiConsumer<Object, Throwable>() {
+            public void accept(Object value, Throwable failure) {
+                if (failure instanceof CancellationException) {
+                    task.cancel(true);
+                }
+            }
+        });
+    }
+
+    /**
+     * Stops accepting work. Work already submitted still completes. The
+     * validation pool is only shut down if this object created it.
+     */
+    public void close() {
+        if (ownsCpuExecutor) {
+            cpuExecutor.shutdown();
+        }
+        ioExecutor.shutdown();
+    }
+
+    /**
+     * Names threads and marks them daemon, so an unclosed validator does
+     * not keep the JVM alive.
+     */
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        DaemonThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        public Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
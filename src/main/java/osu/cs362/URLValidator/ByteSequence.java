@@ -0,0 +1,88 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>A <code>CharSequence</code> view of a range of bytes in a buffer,
+ * each byte taken as one ISO-8859-1 character.</p>
+ *
+ * <p>Lets a URL be validated where it was read, without decoding it into
+ * a <code>String</code> first. Bytes above 0x7F read as non-ASCII
+ * characters, so a UTF-8 encoded URL is rejected just as its decoded form
+ * would be. The view does not copy the bytes: it must not be used after
+ * the buffer is overwritten, and {@link #toString()} is the way to keep
+ * its content.</p>
+ */
+final class ByteSequence implements CharSequence {
+
+    private ByteBuffer buffer;
+
+    private int offset;
+
+    private int length;
+
+    ByteSequence() {
+    }
+
+    ByteSequence(ByteBuffer buffer, int offset, int length) {
+        set(buffer, offset, length);
+    }
+
+    /**
+     * Points the view at another range.
+     * @param buffer the bytes, read with absolute gets
+     * @param offset the index of the first byte
+     * @param length the number of bytes
+     * @return this view
+     */
+    ByteSequence set(ByteBuffer buffer, int offset, int length) {
+        this.buffer = buffer;
+        this.offset = offset;
+        this.length = length;
+        return this;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public char charAt(int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + ", length " + length);
+        }
+        return (char) (buffer.get(offset + index) & 0xFF);
+    }
+
+    public CharSequence subSequence(int start, int end) {
+        if (start < 0 || end > length || start > end) {
+            throw new IndexOutOfBoundsException("start " + start + ", end " + end + ", length " + length);
+        }
+        return new ByteSequence(buffer, offset + start, end - start);
+    }
+
+    public String toString() {
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = (char) (buffer.get(offset + i) & 0xFF);
+        }
+        return new String(chars);
+    }
+}
@@ -0,0 +1,216 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import java.io.Serializable;
+
+/**
+ * <p>An immutable set of ASCII characters used by the {@link ScanKernel}s.</p>
+ *
+ * <p>Membership is held as a 128 bit map for the scalar kernel. The wide
+ * (SWAR and vector) kernels instead test a whole word against the
+ * bounding range <code>[min, max]</code> of the class and against the few
+ * non-members ("holes") inside that range. Classes with more than
+ * {@link #MAX_HOLES} holes are always checked one character at a time.</p>
+ *
+ * <pre>
+ *   CharClass digits = CharClass.range('0', '9');
+ *   CharClass pchar = CharClass.of("!$&amp;'()*+,;=:@-._~").union(CharClass.ALNUM);
+ * </pre>
+ */
+public final class CharClass implements Serializable {
+
+    private static final long serialVersionUID = 4087312690375426417L;
+
+    /**
+     * Largest number of holes inside <code>[min, max]</code> the wide
+     * kernels will test for.
+     */
+    static final int MAX_HOLES = 16;
+
+    /** All 128 ASCII characters. */
+    public static final CharClass ASCII = range('\u0000', '\u007F');
+
+    /** ASCII letters. */
+    public static final CharClass ALPHA = range('a', 'z').union(range('A', 'Z'));
+
+    /** ASCII decimal digits. */
+    public static final CharClass DIGIT = range('0', '9');
+
+    /** ASCII letters and digits. */
+    public static final CharClass ALNUM = ALPHA.union(DIGIT);
+
+    /** Hexadecimal digits, either case. */
+    public static final CharClass HEXDIG = DIGIT.union(range('a', 'f')).union(range('A', 'F'));
+
+    private final long low;
+
+    private final long high;
+
+    /** Smallest member, or -1 for the empty class. */
+    final int min;
+
+    /** Largest member, or -1 for the empty class. */
+    final int max;
+
+    /** Non-members between min and max, or null if there are too many. */
+    final char[] holes;
+
+    private CharClass(long low, long high) {
+        this.low = low;
+        this.high = high;
+        int first = -1;
+        int last = -1;
+        for (int c = 0; c < 128; c++) {
+            if (contains(c)) {
+                if (first < 0) {
+                    first = c;
+                }
+                last = c;
+            }
+        }
+        this.min = first;
+        this.max = last;
+
+        int count = 0;
+        for (int c = first + 1; c < last; c++) {
+            if (!contains(c)) {
+                count++;
+            }
+        }
+        if (first < 0 || count > MAX_HOLES) {
+            this.holes = null;
+        } else {
+            this.holes = new char[count];
+            int i = 0;
+            for (int c = first + 1; c < last; c++) {
+                if (!contains(c)) {
+                    this.holes[i++] = (char) c;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the class holding exactly the given characters.
+     * @param chars the members, all of which must be ASCII
+     * @return the character class
+     */
+    public static CharClass of(String chars) {
+        long low = 0;
+        long high = 0;
+        for (int i = 0; i < chars.length(); i++) {
+            char c = chars.charAt(i);
+            checkAscii(c);
+            if (c < 64) {
+                low |= 1L << c;
+            } else {
+                high |= 1L << (c - 64);
+            }
+        }
+        return new CharClass(low, high);
+    }
+
+    /**
+     * Returns the class holding the inclusive range of characters.
+     * @param from the first member
+     * @param to the last member
+     * @return the character class
+     */
+    public static CharClass range(char from, char to) {
+        checkAscii(from);
+        checkAscii(to);
+        long low = 0;
+        long high = 0;
+        for (int c = from; c <= to; c++) {
+            if (c < 64) {
+                low |= 1L << c;
+            } else {
+                high |= 1L << (c - 64);
+            }
+        }
+        return new CharClass(low, high);
+    }
+
+    /**
+     * Returns the class holding the members of this class and the other.
+     * @param other the class to add
+     * @return the combined class
+     */
+    public CharClass union(CharClass other) {
+        return new CharClass(low | other.low, high | other.high);
+    }
+
+    /**
+     * Returns this class without the given characters.
+     * @param chars the characters to remove
+     * @return the reduced class
+     */
+    public CharClass without(String chars) {
+        CharClass removed = of(chars);
+        return new CharClass(low & ~removed.low, high & ~removed.high);
+    }
+
+    /**
+     * Tests whether the character is a member of this class.
+     * Non-ASCII characters are never members.
+     * @param c the character to test
+     * @return true if the character is a member
+     */
+    public boolean contains(int c) {
+        if (c < 64) {
+            return c >= 0 && (low & (1L << c)) != 0;
+        }
+        return c < 128 && (high & (1L << (c - 64))) != 0;
+    }
+
+    /**
+     * Tests whether the wide kernels can check this class a word at a time.
+     * @return true if the holes of this class are known
+     */
+    boolean isWide() {
+        return holes != null;
+    }
+
+    private static void checkAscii(char c) {
+        if (c > 127) {
+            throw new IllegalArgumentException("Character class member is not ASCII: " + (int) c);
+        }
+    }
+
+    /**
+     * Provide a String representation of this character class.
+     * @return A String representation of this character class
+     */
+    public String toString() {
+        StringBuffer buffer = new StringBuffer();
+        buffer.append("CharClass{");
+        for (int c = 0; c < 128; c++) {
+            if (contains(c)) {
+                if (c < 32 || c == 127) {
+                    buffer.append("\\x").append(Integer.toHexString(c));
+                } else {
+                    buffer.append((char) c);
+                }
+            }
+        }
+        buffer.append("}");
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,547 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Writes the few class files {@link ValidatorCompiler} needs.</p>
+ *
+ * <p>Classes are written in version 49 (Java 5) format, which does not
+ * require <code>StackMapTable</code> frames, so branches need nothing more
+ * than labels. Only the instructions the compiler emits are supported,
+ * and the operand stack depth and locals of each method are given by the
+ * caller rather than computed.</p>
+ */
+final class ClassFileWriter {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private static final int VERSION = 49;
+
+    static final int ACC_PUBLIC = 0x0001;
+    static final int ACC_PRIVATE = 0x0002;
+    static final int ACC_STATIC = 0x0008;
+    static final int ACC_FINAL = 0x0010;
+    static final int ACC_SUPER = 0x0020;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_STRING = 8;
+    private static final int CONSTANT_FIELDREF = 9;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    static final int ACONST_NULL = 0x01;
+    static final int ICONST_0 = 0x03;
+    static final int BIPUSH = 0x10;
+    static final int SIPUSH = 0x11;
+    static final int LDC_W = 0x13;
+    static final int ILOAD = 0x15;
+    static final int ALOAD = 0x19;
+    static final int AALOAD = 0x32;
+    static final int ISTORE = 0x36;
+    static final int ASTORE = 0x3A;
+    static final int IOR = 0x80;
+    static final int IFEQ = 0x99;
+    static final int IFLT = 0x9B;
+    static final int IF_ICMPNE = 0xA0;
+    static final int IF_ACMPEQ = 0xA5;
+    static final int GOTO = 0xA7;
+    static final int TABLESWITCH = 0xAA;
+    static final int ARETURN = 0xB0;
+    static final int RETURN = 0xB1;
+    static final int GETSTATIC = 0xB2;
+    static final int PUTSTATIC = 0xB3;
+    static final int GETFIELD = 0xB4;
+    static final int PUTFIELD = 0xB5;
+    static final int INVOKESPECIAL = 0xB7;
+    static final int INVOKESTATIC = 0xB8;
+    static final int INVOKEINTERFACE = 0xB9;
+    static final int CHECKCAST = 0xC0;
+
+    private final ByteArrayOutputStream pool = new ByteArrayOutputStream();
+
+    private final DataOutputStream poolOut = new DataOutputStream(pool);
+
+    private final Map<String, Integer> poolIndexes = new HashMap<String, Integer>();
+
+    private int poolCount = 1;
+
+    private final int access;
+
+    private final int thisClass;
+
+    private final int superClass;
+
+    private final int[] interfaces;
+
+    private final List<byte[]> fields = new ArrayList<byte[]>();
+
+    private final List<byte[]> methods = new ArrayList<byte[]>();
+
+    /**
+     * Starts a class.
+     * @param access the access flags of the class
+     * @param name the internal name of the class
+     * @param superName the internal name of the superclass
+     * @param interfaceNames the internal names of the interfaces
+     */
+    ClassFileWriter(int access, String name, String superName, String... interfaceNames) {
+        this.access = access | ACC_SUPER;
+        this.thisClass = classConstant(name);
+        this.superClass = classConstant(superName);
+        this.interfaces = new int[interfaceNames.length];
+        for (int i = 0; i < interfaceNames.length; i++) {
+            interfaces[i] = classConstant(interfaceNames[i]);
+        }
+    }
+
+    /**
+     * Adds a field.
+     * @param access the access flags of the field
+     * @param name the name of the field
+     * @param descriptor the type descriptor of the field
+     */
+    void field(int access, String name, String descriptor) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeShort(access);
+            out.writeShort(utf8Constant(name));
+            out.writeShort(utf8Constant(descriptor));
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        fields.add(bytes.toByteArray());
+    }
+
+    /**
+     * Starts a method, which is added by {@link Code#end()}.
+     * @param access the access flags of the method
+     * @param name the name of the method
+     * @param descriptor the method descriptor
+     * @param maxStack the deepest the operand stack gets
+     * @param maxLocals the number of local variable slots, arguments included
+     * @return the code of the method
+     */
+    Code method(int access, String name, String descriptor, int maxStack, int maxLocals) {
+        return new Code(access, name, descriptor, maxStack, maxLocals);
+    }
+
+    /**
+     * Returns the class file.
+     * @return the bytes of the class file
+     */
+    byte[] toByteArray() {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            out.writeInt(MAGIC);
+            out.writeShort(0);
+            out.writeShort(VERSION);
+            out.writeShort(poolCount);
+            pool.writeTo(out);
+            out.writeShort(access);
+            out.writeShort(thisClass);
+            out.writeShort(superClass);
+            out.writeShort(interfaces.length);
+            for (int i = 0; i < interfaces.length; i++) {
+                out.writeShort(interfaces[i]);
+            }
+            out.writeShort(fields.size());
+            for (byte[] field : fields) {
+                out.write(field);
+            }
+            out.writeShort(methods.size());
+            for (byte[] method : methods) {
+                out.write(method);
+            }
+            out.writeShort(0);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private int constant(String key, int tag, int a, int b, String utf8, boolean twoIndexes) {
+        Integer index = poolIndexes.get(key);
+        if (index != null) {
+            return index.intValue();
+        }
+        try {
+            poolOut.writeByte(tag);
+            if (utf8 != null) {
+                poolOut.writeUTF(utf8);
+            } else if (tag == CONSTANT_INTEGER) {
+                poolOut.writeInt(a);
+            } else {
+                poolOut.writeShort(a);
+                if (twoIndexes) {
+                    poolOut.writeShort(b);
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        if (poolCount == 0xFFFF) {
+            throw new IllegalStateException("Constant pool overflow");
+        }
+        poolIndexes.put(key, Integer.valueOf(poolCount));
+        return poolCount++;
+    }
+
+    int utf8Constant(String value) {
+        return constant("U" + value, CONSTANT_UTF8, 0, 0, value, false);
+    }
+
+    int classConstant(String internalName) {
+        return constant("C" + internalName, CONSTANT_CLASS, utf8Constant(internalName), 0, null, false);
+    }
+
+    int stringConstant(String value) {
+        return constant("S" + value, CONSTANT_STRING, utf8Constant(value), 0, null, false);
+    }
+
+    int intConstant(int value) {
+        return constant("I" + value, CONSTANT_INTEGER, value, 0, null, false);
+    }
+
+    private int nameAndType(String name, String descriptor) {
+        return constant("N" + name + " " + descriptor, CONSTANT_NAME_AND_TYPE,
+                utf8Constant(name), utf8Constant(descriptor), null, true);
+    }
+
+    private int memberConstant(int tag, String owner, String name, String descriptor) {
+        return constant(tag + owner + "." + name + " " + descriptor, tag,
+                classConstant(owner), nameAndType(name, descriptor), null, true);
+    }
+
+    /**
+     * A position in the code of a method, bound before or after the
+     * branches to it are emitted.
+     */
+    static final class Label {
+
+        private int position = -1;
+
+        /** Pairs of (instruction offset, offset of the 2 or 4 byte branch). */
+        private final List<int[]> references = new ArrayList<int[]>();
+    }
+
+    /**
+     * The code of one method.
+     */
+    final class Code {
+
+        private final int access;
+
+        private final String name;
+
+        private final String descriptor;
+
+        private final int maxStack;
+
+        private final int maxLocals;
+
+        private final ByteArrayOutputStream code = new ByteArrayOutputStream();
+
+        /** Branch offsets to patch, held until the code is complete. */
+        private final List<Label> labels = new ArrayList<Label>();
+
+        private Code(int access, String name, String descriptor, int maxStack, int maxLocals) {
+            this.access = access;
+            this.name = name;
+            this.descriptor = descriptor;
+            this.maxStack = maxStack;
+            this.maxLocals = maxLocals;
+        }
+
+        private void u1(int value) {
+            code.write(value);
+        }
+
+        private void u2(int value) {
+            code.write(value >>> 8);
+            code.write(value);
+        }
+
+        private void u4(int value) {
+            u2(value >>> 16);
+            u2(value);
+        }
+
+        /**
+         * Emits an instruction without operands.
+         * @param opcode the opcode
+         * @return this code
+         */
+        Code op(int opcode) {
+            u1(opcode);
+            return this;
+        }
+
+        /**
+         * Emits a load or store of a local variable.
+         * @param opcode ILOAD, ALOAD, ISTORE or ASTORE
+         * @param slot the local variable
+         * @return this code
+         */
+        Code local(int opcode, int slot) {
+            u1(opcode);
+            u1(slot);
+            return this;
+        }
+
+        /**
+         * Pushes an int constant with the shortest instruction.
+         * @param value the constant
+         * @return this code
+         */
+        Code push(int value) {
+            if (value >= -1 && value <= 5) {
+                u1(ICONST_0 + value);
+            } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                u1(BIPUSH);
+                u1(value);
+            } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                u1(SIPUSH);
+                u2(value);
+            } else {
+                u1(LDC_W);
+                u2(intConstant(value));
+            }
+            return this;
+        }
+
+        /**
+         * Pushes a boolean constant.
+         * @param value the constant
+         * @return this code
+         */
+        Code push(boolean value) {
+            return push(value ? 1 : 0);
+        }
+
+        /**
+         * Pushes a String constant.
+         * @param value the constant
+         * @return this code
+         */
+        Code pushString(String value) {
+            u1(LDC_W);
+            u2(stringConstant(value));
+            return this;
+        }
+
+        /**
+         * Pushes a Class constant.
+         * @param internalName the internal name or array descriptor of the class
+         * @return this code
+         */
+        Code pushClass(String internalName) {
+            u1(LDC_W);
+            u2(classConstant(internalName));
+            return this;
+        }
+
+        /**
+         * Emits an instruction taking a class, such as CHECKCAST.
+         * @param opcode the opcode
+         * @param internalName the internal name of the class
+         * @return this code
+         */
+        Code type(int opcode, String internalName) {
+            u1(opcode);
+            u2(classConstant(internalName));
+            return this;
+        }
+
+        /**
+         * Emits a field access.
+         * @param opcode GETSTATIC, PUTSTATIC, GETFIELD or PUTFIELD
+         * @param owner the internal name of the class of the field
+         * @param name the name of the field
+         * @param descriptor the type descriptor of the field
+         * @return this code
+         */
+        Code field(int opcode, String owner, String name, String descriptor) {
+            u1(opcode);
+            u2(memberConstant(CONSTANT_FIELDREF, owner, name, descriptor));
+            return this;
+        }
+
+        /**
+         * Emits a method call.
+         * @param opcode INVOKESPECIAL, INVOKESTATIC or INVOKEINTERFACE
+         * @param owner the internal name of the class or interface of the method
+         * @param name the name of the method
+         * @param descriptor the method descriptor
+         * @return this code
+         */
+        Code invoke(int opcode, String owner, String name, String descriptor) {
+            u1(opcode);
+            if (opcode == INVOKEINTERFACE) {
+                u2(memberConstant(CONSTANT_INTERFACE_METHODREF, owner, name, descriptor));
+                u1(argumentSlots(descriptor) + 1);
+                u1(0);
+            } else {
+                u2(memberConstant(CONSTANT_METHODREF, owner, name, descriptor));
+            }
+            return this;
+        }
+
+        /**
+         * Emits a branch.
+         * @param opcode a conditional branch or GOTO
+         * @param target where to branch to
+         * @return this code
+         */
+        Code jump(int opcode, Label target) {
+            int position = code.size();
+            u1(opcode);
+            reference(target, position);
+            u2(0);
+            return this;
+        }
+
+        /**
+         * Emits a TABLESWITCH over <code>[low, low + targets.length)</code>.
+         * @param low the value of the first target
+         * @param defaultTarget where to go for other values
+         * @param targets where to go for each value
+         * @return this code
+         */
+        Code tableSwitch(int low, Label defaultTarget, Label... targets) {
+            int position = code.size();
+            u1(TABLESWITCH);
+            while (code.size() % 4 != 0) {
+                u1(0);
+            }
+            reference(defaultTarget, position);
+            u4(0);
+            u4(low);
+            u4(low + targets.length - 1);
+            for (int i = 0; i < targets.length; i++) {
+                reference(targets[i], position);
+                u4(0);
+            }
+            return this;
+        }
+
+        /**
+         * Binds the label to the next instruction.
+         * @param label the label
+         * @return this code
+         */
+        Code bind(Label label) {
+            if (label.position >= 0) {
+                throw new IllegalStateException("Label bound twice");
+            }
+            label.position = code.size();
+            return this;
+        }
+
+        private void reference(Label target, int instruction) {
+            if (!labels.contains(target)) {
+                labels.add(target);
+            }
+            target.references.add(new int[] {instruction, code.size()});
+        }
+
+        /**
+         * Completes the method and adds it to the class.
+         */
+        void end() {
+            byte[] bytes = code.toByteArray();
+            for (Label label : labels) {
+                if (label.position < 0) {
+                    throw new IllegalStateException("Label never bound");
+                }
+                for (int[] reference : label.references) {
+                    int offset = label.position - reference[0];
+                    int at = reference[1];
+                    if (bytes[reference[0]] == (byte) TABLESWITCH) {
+                        bytes[at++] = (byte) (offset >>> 24);
+                        bytes[at++] = (byte) (offset >>> 16);
+                    } else if (offset < Short.MIN_VALUE || offset > Short.MAX_VALUE) {
+                        throw new IllegalStateException("Branch offset too large: " + offset);
+                    }
+                    bytes[at++] = (byte) (offset >>> 8);
+                    bytes[at] = (byte) offset;
+                }
+            }
+
+            ByteArrayOutputStream method = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(method);
+            try {
+                out.writeShort(access);
+                out.writeShort(utf8Constant(name));
+                out.writeShort(utf8Constant(descriptor));
+                out.writeShort(1);
+                out.writeShort(utf8Constant("Code"));
+                out.writeInt(12 + bytes.length);
+                out.writeShort(maxStack);
+                out.writeShort(maxLocals);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+                out.writeShort(0);
+                out.writeShort(0);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+            methods.add(method.toByteArray());
+        }
+    }
+
+    /**
+     * Counts the argument slots of a method descriptor; longs and doubles
+     * take two.
+     */
+    static int argumentSlots(String descriptor) {
+        int slots = 0;
+        int i = 1;
+        while (descriptor.charAt(i) != ')') {
+            char c = descriptor.charAt(i);
+            if (c == 'J' || c == 'D') {
+                slots += 2;
+                i++;
+                continue;
+            }
+            while (descriptor.charAt(i) == '[') {
+                i++;
+            }
+            if (descriptor.charAt(i) == 'L') {
+                i = descriptor.indexOf(';', i);
+            }
+            slots++;
+            i++;
+        }
+        return slots;
+    }
+}
@@ -0,0 +1,38 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+/**
+ * A validator generated by {@link ValidatorCompiler} for one
+ * {@link ValidationPlan}.
+ */
+interface CompiledValidator {
+
+    /**
+     * Validates a URL as {@link UrlValidator#validate(CharSequence, UrlComponents)}
+     * of the validator the plan belongs to does.
+     * @param validator the validator the plan belongs to, passed on to
+     * scheme handlers
+     * @param value the URL, may be <code>null</code>
+     * @param url receives the components of the value
+     * @return {@link Verdict#VALID} or the reason the url is invalid
+     */
+    Verdict validate(UrlValidator validator, CharSequence value, UrlComponents url);
+}
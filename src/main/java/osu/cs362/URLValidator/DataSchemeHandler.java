@@ -0,0 +1,47 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/**
+ * {@link SchemeHandler} for data URLs
+ * (<a href="http://www.ietf.org/rfc/rfc2397.txt">RFC2397</a>).
+ *
+ * <p>The mediatype and payload are streamed through
+ * {@link DataUrlValidator} straight from the input. The payload may contain
+ * "?", so the query of the URL is treated as part of it. A fragment is
+ * checked like any other.</p>
+ */
+public class DataSchemeHandler implements SchemeHandler {
+
+    private static final long serialVersionUID = 2269035622418904567L;
+
+    public Verdict validate(UrlValidator validator, UrlComponents url) {
+        if (url.authorityStart >= 0) {
+            return Verdict.AUTHORITY;
+        }
+
+        // the query directly follows the path, "?" and all
+        int end = url.queryStart >= 0 ? url.queryEnd : url.pathEnd;
+        if (!DataUrlValidator.getInstance().isValidData(url.value, url.pathStart, end)) {
+            return Verdict.PATH;
+        }
+
+        return validator.validateFragment(url);
+    }
+}
@@ -0,0 +1,347 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+/**
+ * <p><b>Data URL</b> validation routines
+ * (<a href="http://www.ietf.org/rfc/rfc2397.txt">RFC2397</a>).</p>
+ * <pre>
+ *   dataurl    := "data:" [ mediatype ] [ ";base64" ] "," data
+ *   mediatype  := [ type "/" subtype ] *( ";" parameter )
+ *   data       := *urlchar
+ *   parameter  := attribute "=" value
+ * </pre>
+ *
+ * <p>Data URLs can be megabytes long, so the URL is checked by a single
+ * pass of a small state machine that never copies the payload. The payload
+ * is checked against lookup tables: <code>urlchar</code> or a
+ * percent-encoded byte for plain data, the base64 alphabet (after
+ * percent-decoding) for base64 data. Base64 padding may only come at the
+ * end and must complete the last quantum.</p>
+ *
+ * <p>Input is either a <code>CharSequence</code> or a
+ * <code>ReadableByteChannel</code> of ASCII bytes, read through a fixed size
+ * buffer, so memory use does not depend on the size of the payload.</p>
+ *
+ * <p>This class is a Singleton; you can retrieve the instance via the
+ * {@link #getInstance()} method.</p>
+ */
+public class DataUrlValidator implements Serializable {
+
+    private static final long serialVersionUID = 3651907785240716522L;
+
+    /**
+     * Singleton instance of this class.
+     */
+    private static final DataUrlValidator VALIDATOR = new DataUrlValidator();
+
+    /**
+     * Size of the buffer channels are read through.
+     */
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * token chars of RFC2045, less "%" which starts an escape and "#"
+     * which starts the fragment.
+     */
+    private static final CharClass TOKEN_CHARS = CharClass.ALNUM.union(CharClass.of("!$&'*+-.^_`{|}~"));
+
+    /**
+     * uric of RFC2396, less "%" which starts an escape.
+     */
+    private static final CharClass URL_CHARS = CharClass.ALNUM.union(CharClass.of("-_.!~*'();/?:@&=+$,"));
+
+    private static final String BASE64_ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+
+    private static final byte INVALID = -1;
+
+    private static final byte PAD = 64;
+
+    /** Base64 digit of each byte, PAD for '=' or INVALID. */
+    private static final byte[] BASE64_DIGITS = new byte[256];
+
+    static {
+        Arrays.fill(BASE64_DIGITS, INVALID);
+        for (int i = 0; i < BASE64_ALPHABET.length(); i++) {
+            BASE64_DIGITS[BASE64_ALPHABET.charAt(i)] = (byte) i;
+        }
+        BASE64_DIGITS['='] = PAD;
+    }
+
+    /**
+     * Returns the singleton instance of this validator.
+     * @return the singleton instance of this validator
+     */
+    public static DataUrlValidator getInstance() {
+        return VALIDATOR;
+    }
+
+    /**
+     * Checks if the value is a valid data URL, including the
+     * "data:" scheme and an optional fragment.
+     * @param value the URL to validate
+     * @return true if the value is a valid data URL
+     */
+    public boolean isValid(CharSequence value) {
+        if (value == null) {
+            return false;
+        }
+        Scanner scanner = new Scanner(true);
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            if (!scanner.accept(value.charAt(i))) {
+                return false;
+            }
+        }
+        return scanner.isComplete();
+    }
+
+    /**
+     * Checks if the bytes read from the channel, up to its end, are a valid
+     * data URL, including the "data:" scheme and an optional fragment.
+     * Reading stops at the first invalid byte.
+     * @param channel the channel to read the URL from
+     * @return true if the bytes are a valid data URL
+     * @throws IOException if reading the channel fails
+     */
+    public boolean isValid(ReadableByteChannel channel) throws IOException {
+        Scanner scanner = new Scanner(true);
+        ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        byte[] bytes = buffer.array();
+        while (channel.read(buffer) >= 0) {
+            int length = buffer.position();
+            for (int i = 0; i < length; i++) {
+                // non-ASCII bytes are negative, which no state accepts
+                if (!scanner.accept(bytes[i])) {
+                    return false;
+                }
+            }
+            buffer.clear();
+        }
+        return scanner.isComplete();
+    }
+
+    /**
+     * Checks the scheme-specific part of a data URL, the span between
+     * "data:" and the fragment.
+     * @param value the characters holding the span
+     * @param from the first index, inclusive
+     * @param to the last index, exclusive
+     * @return true if the span is a valid mediatype and payload
+     */
+    boolean isValidData(CharSequence value, int from, int to) {
+        Scanner scanner = new Scanner(false);
+        for (int i = from; i < to; i++) {
+            if (!scanner.accept(value.charAt(i))) {
+                return false;
+            }
+        }
+        return scanner.isComplete();
+    }
+
+    /**
+     * The state machine, fed one character at a time.
+     */
+    private static final class Scanner {
+
+        private static final String SCHEME = "data:";
+
+        private static final String BASE64 = "base64";
+
+        private static final int STATE_SCHEME = 0;
+        private static final int STATE_TYPE = 1;
+        private static final int STATE_SUBTYPE = 2;
+        private static final int STATE_ATTRIBUTE = 3;
+        private static final int STATE_VALUE = 4;
+        private static final int STATE_DATA = 5;
+        private static final int STATE_BASE64 = 6;
+        private static final int STATE_FRAGMENT = 7;
+
+        private final boolean wholeUrl;
+
+        private int state;
+
+        /** Length of the current scheme, token or value. */
+        private int run;
+
+        /** Length of the prefix of the current attribute matching "base64". */
+        private int matched;
+
+        /** Hex digits still expected after a '%', and their value so far. */
+        private int escape;
+        private int escaped;
+
+        /** Base64 digits and pad characters seen. */
+        private long digits;
+        private int pads;
+
+        Scanner(boolean wholeUrl) {
+            this.wholeUrl = wholeUrl;
+            this.state = wholeUrl ? STATE_SCHEME : STATE_TYPE;
+        }
+
+        boolean accept(int c) {
+            if (c < 0 || c > 127) {
+                return false;
+            }
+            if (escape > 0) {
+                int digit = PercentDecoder.hexValue((char) c);
+                if (digit < 0) {
+                    return false;
+                }
+                escaped = escaped << 4 | digit;
+                if (--escape > 0) {
+                    return true;
+                }
+                if (state == STATE_BASE64) {
+                    return acceptBase64(escaped);
+                }
+                run++;
+                return true;
+            }
+
+            switch (state) {
+            case STATE_DATA:
+                if (URL_CHARS.contains(c)) {
+                    return true;
+                }
+                return acceptEscapeOrFragment(c);
+            case STATE_BASE64:
+                if (c == '%' || c == '#') {
+                    return acceptEscapeOrFragment(c);
+                }
+                return acceptBase64(c);
+            case STATE_FRAGMENT:
+                // '.' of (#(.*)) does not match line terminators
+                return c != '\n' && c != '\r';
+            case STATE_SCHEME:
+                int lower = c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+                if (lower != SCHEME.charAt(run)) {
+                    return false;
+                }
+                if (++run == SCHEME.length()) {
+                    state = STATE_TYPE;
+                    run = 0;
+                }
+                return true;
+            case STATE_TYPE:
+                if (TOKEN_CHARS.contains(c)) {
+                    run++;
+                    return true;
+                }
+                if (c == '/' && run > 0) {
+                    return next(STATE_SUBTYPE);
+                }
+                if (run == 0 && (c == ';' || c == ',')) {
+                    return c == ';' ? next(STATE_ATTRIBUTE) : next(STATE_DATA);
+                }
+                return false;
+            case STATE_SUBTYPE:
+            case STATE_VALUE:
+                if (TOKEN_CHARS.contains(c)) {
+                    run++;
+                    return true;
+                }
+                if (c == '%' && state == STATE_VALUE) {
+                    return startEscape();
+                }
+                if (run > 0 && (c == ';' || c == ',')) {
+                    return c == ';' ? next(STATE_ATTRIBUTE) : next(STATE_DATA);
+                }
+                return false;
+            case STATE_ATTRIBUTE:
+                if (TOKEN_CHARS.contains(c)) {
+                    if (matched == run && matched < BASE64.length() && BASE64.charAt(matched) == c) {
+                        matched++;
+                    }
+                    run++;
+                    return true;
+                }
+                if (c == '=' && run > 0) {
+                    return next(STATE_VALUE);
+                }
+                if (c == ',' && run == BASE64.length() && matched == BASE64.length()) {
+                    return next(STATE_BASE64);
+                }
+                return false;
+            default:
+                return false;
+            }
+        }
+
+        private boolean next(int state) {
+            this.state = state;
+            this.run = 0;
+            this.matched = 0;
+            return true;
+        }
+
+        private boolean startEscape() {
+            escape = 2;
+            escaped = 0;
+            return true;
+        }
+
+        private boolean acceptEscapeOrFragment(int c) {
+            if (c == '%') {
+                return startEscape();
+            }
+            if (c == '#' && wholeUrl) {
+                return checkBase64() && next(STATE_FRAGMENT);
+            }
+            return false;
+        }
+
+        private boolean acceptBase64(int c) {
+            int digit = BASE64_DIGITS[c];
+            if (digit == INVALID) {
+                return false;
+            }
+            if (digit == PAD) {
+                return ++pads <= 2;
+            }
+            digits++;
+            return pads == 0;
+        }
+
+        private boolean checkBase64() {
+            if (state != STATE_BASE64) {
+                return true;
+            }
+            if (pads > 0) {
+                return (digits + pads) % 4 == 0;
+            }
+            return digits % 4 != 1;
+        }
+
+        boolean isComplete() {
+            if (escape > 0) {
+                return false;
+            }
+            return state == STATE_FRAGMENT || (state >= STATE_DATA && checkBase64());
+        }
+    }
+}
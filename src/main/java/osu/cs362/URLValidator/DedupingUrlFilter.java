@@ -0,0 +1,366 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A streaming stage that validates URLs and passes on only the first
+ * occurrence of each, comparing URLs by their canonical fingerprint (see
+ * {@link UrlValidator#fingerprint(CharSequence, UrlComponents)}).</p>
+ *
+ * <p>Seen fingerprints are kept in a Bloom filter sized up front for an
+ * expected number of URLs and a false positive rate. A false positive
+ * drops a URL that was never seen; to rule that out, the filter can also
+ * keep an exact open addressing set of the fingerprints, which is only
+ * probed when the Bloom filter answers "maybe". Both live off the heap in
+ * direct buffers, so neither weighs on the garbage collector however
+ * many URLs they hold.</p>
+ *
+ * <p>A filter is safe for any number of concurrent writers: bits and set
+ * slots are claimed by compare-and-set on their 64 bit words, without
+ * locks. Two threads offering the same new URL at once may both be told
+ * it is new when only the Bloom filter is kept; with the exact set
+ * exactly one of them is.</p>
+ *
+ * <pre>
+ *   DedupingUrlFilter filter = new DedupingUrlFilter(UrlValidator.getInstance(), 10000000, 0.001, true);
+ *   if (filter.offer(url) == DedupingUrlFilter.Result.NEW) {
+ *       ...
+ *   }
+ * </pre>
+ */
+public final class DedupingUrlFilter {
+
+    /**
+     * What the filter made of a URL.
+     */
+    public enum Result {
+        /** The URL is valid and was not seen before. */
+        NEW,
+        /** The URL is valid and was seen before, or the Bloom filter thinks so. */
+        SEEN,
+        /** The URL is invalid. */
+        INVALID
+    }
+
+    /**
+     * The largest share of the exact set's slots that may be filled,
+     * beyond which probing gets slow.
+     */
+    private static final double MAX_LOAD = 0.75;
+
+    /**
+     * Stands in for a fingerprint of 0, which marks a free slot.
+     */
+    private static final long ZERO_FINGERPRINT = 0x9E3779B97F4A7C15L;
+
+    private final UrlValidator validator;
+
+    private final OffHeapLongArray bloom;
+
+    /** Number of bits in the Bloom filter, a multiple of 64. */
+    private final long bits;
+
+    /** Number of bits set per URL. */
+    private final int hashes;
+
+    /** The exact set, or null if only the Bloom filter is kept. */
+    private final OffHeapLongArray exact;
+
+    private final long exactMask;
+
+    private final long exactLimit;
+
+    private final LongAdder newCount = new LongAdder();
+
+    private final LongAdder seenCount = new LongAdder();
+
+    private final LongAdder invalidCount = new LongAdder();
+
+    private final LongAdder falsePositives = new LongAdder();
+
+    private final LongAdder bitsSet = new LongAdder();
+
+    private final LongAdder exactSize = new LongAdder();
+
+    private final long startNanos = System.nanoTime();
+
+    /**
+     * Create a filter.
+     * @param validator validates the URLs and computes their fingerprints
+     * @param expectedUrls the number of distinct URLs the Bloom filter is sized for
+     * @param falsePositiveRate the rate of false positives the Bloom
+     * filter should have once it holds <code>expectedUrls</code> URLs,
+     * between 0 and 1 exclusive
+     * @param exact whether to also keep the exact set, which holds up to
+     * 1.5 times <code>expectedUrls</code> URLs
+     */
+    public DedupingUrlFilter(UrlValidator validator, long expectedUrls, double falsePositiveRate, boolean exact) {
+        if (validator == null) {
+            throw new IllegalArgumentException("Validator must not be null");
+        }
+        if (expectedUrls < 1) {
+            throw new IllegalArgumentException("Expected URLs must be positive: " + expectedUrls);
+        }
+        if (!(falsePositiveRate > 0 && falsePositiveRate < 1)) {
+            throw new IllegalArgumentException("False positive rate must be between 0 and 1: " + falsePositiveRate);
+        }
+        this.validator = validator;
+
+        // m = -n ln p / (ln 2)^2 and k = m / n ln 2, the optimum for n and p
+        double ln2 = Math.log(2);
+        double optimalBits = -expectedUrls * Math.log(falsePositiveRate) / (ln2 * ln2);
+        long words = Math.max(1, (long) Math.ceil(optimalBits / 64));
+        this.bits = words * 64;
+        this.hashes = (int) Math.max(1, Math.min(30, Math.round((double) bits / expectedUrls * ln2)));
+        this.bloom = new OffHeapLongArray(words);
+
+        if (exact) {
+            long slots = Long.highestOneBit(expectedUrls * 2 - 1) << 1;
+            this.exact = new OffHeapLongArray(slots);
+            this.exactMask = slots - 1;
+            this.exactLimit = (long) (slots * MAX_LOAD);
+        } else {
+            this.exact = null;
+            this.exactMask = 0;
+            this.exactLimit = 0;
+        }
+    }
+
+    /**
+     * Validates a URL and records it if it is valid.
+     * @param value the URL
+     * @return {@link Result#NEW} the first time a valid URL is offered
+     * @throws IllegalStateException if the exact set is full
+     */
+    public Result offer(CharSequence value) {
+        return offer(value, new UrlComponents());
+    }
+
+    /**
+     * Validates a URL and records it if it is valid, reusing the
+     * components of a previous call.
+     * @param value the URL
+     * @param url receives the components of the URL and its fingerprint
+     * @return {@link Result#NEW} the first time a valid URL is offered
+     * @throws IllegalStateException if the exact set is full
+     */
+    public Result offer(CharSequence value, UrlComponents url) {
+        if (!validator.fingerprint(value, url).isValid()) {
+            invalidCount.increment();
+            return Result.INVALID;
+        }
+        boolean added = add(url.getFingerprint());
+        (added ? newCount : seenCount).increment();
+        return added ? Result.NEW : Result.SEEN;
+    }
+
+    /**
+     * Records a fingerprint.
+     * @return whether it was not recorded before
+     */
+    boolean add(long fingerprint) {
+        boolean maybeSeen = addToBloomFilter(fingerprint);
+        if (exact == null) {
+            return !maybeSeen;
+        }
+        boolean added = addToExactSet(fingerprint);
+        if (maybeSeen && added) {
+            falsePositives.increment();
+        }
+        return added;
+    }
+
+    /**
+     * Sets the bits of a fingerprint.
+     * @return whether they were all set already
+     */
+    private boolean addToBloomFilter(long fingerprint) {
+        // double hashing: bit i is h1 + i * h2, with h2 odd so it never repeats
+        long h2 = Long.rotateLeft(fingerprint * ZERO_FINGERPRINT, 32) | 1;
+        long hash = fingerprint;
+        boolean seen = true;
+        for (int i = 0; i < hashes; i++, hash += h2) {
+            long bit = Long.remainderUnsigned(hash, bits);
+            long word = bit >>> 6;
+            long mask = 1L << bit;
+            long current = bloom.getVolatile(word);
+            while ((current & mask) == 0) {
+                if (bloom.compareAndSet(word, current, current | mask)) {
+                    bitsSet.increment();
+                    seen = false;
+                    break;
+                }
+                current = bloom.getVolatile(word);
+            }
+        }
+        return seen;
+    }
+
+    /**
+     * Inserts a fingerprint into the exact set.
+     * @return whether it was not there before
+     */
+    private boolean addToExactSet(long fingerprint) {
+        long key = fingerprint == 0 ? ZERO_FINGERPRINT : fingerprint;
+        // fold the high half of an odd multiple of the key into its low
+        // bits, so that keys differing only in their high bits still spread
+        long slot = (key * ZERO_FINGERPRINT >>> 32 ^ key) & exactMask;
+        while (true) {
+            long current = exact.getVolatile(slot);
+            if (current == key) {
+                return false;
+            }
+            if (current == 0) {
+                if (exactSize.sum() >= exactLimit) {
+                    throw new IllegalStateException("Exact set is full: " + exactLimit + " URLs");
+                }
+                if (exact.compareAndSet(slot, 0, key)) {
+                    exactSize.increment();
+                    return true;
+                }
+                // lost the slot, look at what went into it
+                continue;
+            }
+            slot = slot + 1 & exactMask;
+        }
+    }
+
+    /**
+     * Returns the number of bits in the Bloom filter.
+     * @return the size of the Bloom filter, in bits
+     */
+    public long getBitCount() {
+        return bits;
+    }
+
+    /**
+     * Returns the number of bits set for each URL.
+     * @return the number of hash functions
+     */
+    public int getHashCount() {
+        return hashes;
+    }
+
+    /**
+     * Returns whether the exact set is kept.
+     * @return whether URLs are only dropped when they were really seen
+     */
+    public boolean isExact() {
+        return exact != null;
+    }
+
+    /**
+     * Returns the off-heap memory taken by the Bloom filter and the exact set.
+     * @return the memory used, in bytes
+     */
+    public long getMemoryUsed() {
+        return bloom.getMemoryUsed() + (exact != null ? exact.getMemoryUsed() : 0);
+    }
+
+    /**
+     * Returns the number of URLs that were new.
+     * @return the number of URLs passed on
+     */
+    public long getNewCount() {
+        return newCount.sum();
+    }
+
+    /**
+     * Returns the number of valid URLs that were dropped as seen.
+     * @return the number of duplicates
+     */
+    public long getSeenCount() {
+        return seenCount.sum();
+    }
+
+    /**
+     * Returns the number of invalid URLs.
+     * @return the number of URLs rejected by the validator
+     */
+    public long getInvalidCount() {
+        return invalidCount.sum();
+    }
+
+    /**
+     * Returns the number of URLs offered.
+     * @return the number of URLs offered
+     */
+    public long getUrlCount() {
+        return getNewCount() + getSeenCount() + getInvalidCount();
+    }
+
+    /**
+     * Returns the number of new URLs the Bloom filter took for seen ones.
+     * Only counted when the exact set is kept, which corrects them.
+     * @return the number of false positives
+     */
+    public long getFalsePositiveCount() {
+        return falsePositives.sum();
+    }
+
+    /**
+     * Returns the share of new URLs the Bloom filter took for seen ones,
+     * as measured by the exact set.
+     * @return the measured false positive rate, or NaN if the exact set
+     * is not kept or no URL was new
+     */
+    public double getMeasuredFalsePositiveRate() {
+        long added = getNewCount();
+        return exact == null || added == 0 ? Double.NaN : (double) getFalsePositiveCount() / added;
+    }
+
+    /**
+     * Returns the chance that the Bloom filter, as full as it is now,
+     * takes a new URL for a seen one.
+     * @return the estimated false positive rate
+     */
+    public double getEstimatedFalsePositiveRate() {
+        return Math.pow((double) bitsSet.sum() / bits, hashes);
+    }
+
+    /**
+     * Returns the number of URLs offered per second since the filter was created.
+     * @return the throughput, in URLs per second
+     */
+    public double getThroughput() {
+        long elapsed = System.nanoTime() - startNanos;
+        return elapsed > 0 ? getUrlCount() * 1e9 / elapsed : 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append("urls=").append(getUrlCount())
+                .append(" new=").append(getNewCount())
+                .append(" seen=").append(getSeenCount())
+                .append(" invalid=").append(getInvalidCount())
+                .append(String.format(" estimatedFpp=%.3g", getEstimatedFalsePositiveRate()));
+        if (exact != null) {
+            report.append(" falsePositives=").append(getFalsePositiveCount())
+                    .append(String.format(" measuredFpp=%.3g", getMeasuredFalsePositiveRate()));
+        }
+        report.append(" bits=").append(bits)
+                .append(" hashes=").append(hashes)
+                .append(" memory=").append(getMemoryUsed())
+                .append(String.format(" urlsPerSecond=%.0f", getThroughput()));
+        return report.toString();
+    }
+}
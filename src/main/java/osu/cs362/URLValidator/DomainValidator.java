@@ -134,15 +134,43 @@ public class DomainValidator implements Serializable {
      * @return true if the parameter is a valid domain name
      */
     public boolean isValid(String domain) {
+        ValidationEvent event = new ValidationEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            String stage = check(domain);
+            ValidationEvents.end(event, ValidationEvents.DOMAIN_VALIDATOR, domain, stage == null,
+                    stage == null ? "VALID" : stage);
+            return stage == null;
+        }
+        return check(domain) == null;
+    }
+
+    /**
+     * isValid, telling where the domain was rejected.
+     * @return null if the domain is valid, "TLD" if only its top-level
+     * domain is unknown, otherwise "DOMAIN"
+     */
+    private String check(String domain) {
         String[] groups = domainRegex.match(domain);
         if (groups != null && groups.length > 0) {
-            return isValidTld(groups[0]);
+            return isValidTld(groups[0]) ? null : "TLD";
         } else if(allowLocal) {
             if (!hostnameRegex.isValid(domain)) {
-               return true;
+               return null;
             }
         }
-        return false;
+        return "DOMAIN";
+    }
+
+    /**
+     * isValid for a host of digits and dots only. Such a host never has
+     * an alphabetic top-level domain, so it can only be accepted by the
+     * local hostname check, which is decided here without the regexes.
+     * @param host a non-empty host of digits and dots
+     * @return true if isValid would accept the host
+     */
+    boolean isValidNumeric(String host) {
+        return allowLocal && host.indexOf('.') >= 0;
     }
 
     /**
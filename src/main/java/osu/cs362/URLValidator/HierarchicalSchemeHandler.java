@@ -0,0 +1,68 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/**
+ * {@link SchemeHandler} for the "//" authority, path, query and fragment
+ * grammar of http, https and ftp URLs.
+ *
+ * <p>Each component is checked in place by the validator. Validators whose
+ * class overrides <code>isValidAuthority</code>, <code>isValidPath</code>,
+ * <code>isValidQuery</code> or <code>isValidFragment</code> get each
+ * component as a String instead.</p>
+ */
+public class HierarchicalSchemeHandler implements SchemeHandler {
+
+    private static final long serialVersionUID = 6316201807455402911L;
+
+    /**
+     * Handler requiring an authority, used for http, https, ftp and
+     * schemes without a handler of their own.
+     */
+    public static final HierarchicalSchemeHandler DEFAULT = new HierarchicalSchemeHandler(false);
+
+    /**
+     * Handler for file URLs, which may have an empty authority
+     * (<code>file:///etc/hosts</code>).
+     */
+    public static final HierarchicalSchemeHandler FILE = new HierarchicalSchemeHandler(true);
+
+    private final boolean allowEmptyAuthority;
+
+    /**
+     * Create a handler.
+     * @param allowEmptyAuthority whether "//" may be followed directly
+     * by the path
+     */
+    public HierarchicalSchemeHandler(boolean allowEmptyAuthority) {
+        this.allowEmptyAuthority = allowEmptyAuthority;
+    }
+
+    /**
+     * Tests whether "//" may be followed directly by the path.
+     * @return true if the authority may be empty
+     */
+    boolean allowsEmptyAuthority() {
+        return allowEmptyAuthority;
+    }
+
+    public Verdict validate(UrlValidator validator, UrlComponents url) {
+        return validator.validateHierarchy(url, allowEmptyAuthority);
+    }
+}
@@ -0,0 +1,191 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A log-linear histogram of latencies in nanoseconds that many threads
+ * may record to without locking.</p>
+ *
+ * <p>Values below {@link #SUB_BUCKETS} have a bucket each; above that each
+ * power of two is split into {@link #SUB_BUCKETS} equal buckets, so a
+ * recorded value is known to within 12.5%. Each bucket is a
+ * <code>LongAdder</code>, which spreads contended updates over cells
+ * instead of retrying a single compare-and-set.</p>
+ */
+public final class LatencyHistogram implements Serializable {
+
+    private static final long serialVersionUID = -3263925178104561837L;
+
+    private static final int SUB_BUCKET_BITS = 3;
+
+    /** Buckets each power of two is split into. */
+    public static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private final LongAdder[] buckets = new LongAdder[(64 - SUB_BUCKET_BITS) * SUB_BUCKETS];
+
+    private final LongAdder total = new LongAdder();
+
+    /**
+     * Create an empty histogram.
+     */
+    public LatencyHistogram() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records a latency. Negative values are recorded as 0.
+     * @param nanos the latency in nanoseconds
+     */
+    public void record(long nanos) {
+        buckets[indexOf(nanos)].increment();
+        total.add(nanos > 0 ? nanos : 0);
+    }
+
+    static int indexOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return value < 0 ? 0 : (int) value;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int sub = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Returns the number of buckets.
+     * @return the number of buckets
+     */
+    public int size() {
+        return buckets.length;
+    }
+
+    /**
+     * Returns the smallest value recorded in a bucket.
+     * @param index the bucket
+     * @return the lower bound of the bucket, inclusive
+     */
+    public long getLowerBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int exponent = index / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long sub = index % SUB_BUCKETS;
+        return (SUB_BUCKETS + sub) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    /**
+     * Returns the largest value recorded in a bucket.
+     * @param index the bucket
+     * @return the upper bound of the bucket, inclusive
+     */
+    public long getUpperBound(int index) {
+        return index == buckets.length - 1 ? Long.MAX_VALUE : getLowerBound(index + 1) - 1;
+    }
+
+    /**
+     * Returns the number of values recorded in a bucket.
+     * @param index the bucket
+     * @return the count of the bucket
+     */
+    public long getCount(int index) {
+        return buckets[index].sum();
+    }
+
+    /**
+     * Returns the number of values recorded.
+     * @return the count
+     */
+    public long getCount() {
+        long count = 0;
+        for (int i = 0; i < buckets.length; i++) {
+            count += buckets[i].sum();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the sum of the values recorded.
+     * @return the sum in nanoseconds
+     */
+    public long getTotal() {
+        return total.sum();
+    }
+
+    /**
+     * Returns an upper bound of the given percentile of the values
+     * recorded, exact to the width of its bucket. Values recorded while
+     * this runs may or may not be seen.
+     * @param percentile the percentile, from 0 to 100
+     * @return the upper bound of the bucket holding the percentile, or 0
+     * if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile out of range: " + percentile);
+        }
+        long[] counts = new long[buckets.length];
+        long count = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = buckets[i].sum();
+            count += counts[i];
+        }
+        if (count == 0) {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return getUpperBound(i);
+            }
+        }
+        return getUpperBound(counts.length - 1);
+    }
+
+    /**
+     * Clears the histogram. Values recorded meanwhile may or may not be
+     * kept.
+     */
+    public void reset() {
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i].reset();
+        }
+        total.reset();
+    }
+
+    /**
+     * Provide a String representation of this histogram.
+     * @return A String representation of this histogram
+     */
+    public String toString() {
+        StringBuffer buffer = new StringBuffer();
+        buffer.append("LatencyHistogram{count=").append(getCount());
+        buffer.append(",p50=").append(getValueAtPercentile(50));
+        buffer.append(",p99=").append(getValueAtPercentile(99));
+        buffer.append(",p999=").append(getValueAtPercentile(99.9));
+        buffer.append("}");
+        return buffer.toString();
+    }
+}
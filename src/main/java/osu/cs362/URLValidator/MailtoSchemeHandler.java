@@ -0,0 +1,145 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/**
+ * {@link SchemeHandler} for mailto URLs
+ * (<a href="http://www.ietf.org/rfc/rfc6068.txt">RFC6068</a>):
+ * <pre>
+ *   mailtoURI = "mailto:" [ to ] [ hfields ]
+ *   to        = addr-spec *("," addr-spec )
+ *   hfields   = "?" hfield *( "&amp;" hfield )
+ *   hfield    = hfname "=" hfvalue
+ * </pre>
+ *
+ * <p>The local part of an address is a dot-atom of URI-safe characters,
+ * anything else has to be percent-encoded. The domain is checked by the
+ * validator's {@link DomainValidator}, or as an IPv4 literal in brackets.
+ * Quoted local parts are not supported.</p>
+ */
+public class MailtoSchemeHandler implements SchemeHandler {
+
+    private static final long serialVersionUID = -1702856314539082177L;
+
+    /**
+     * Characters of a local part that need no percent-encoding.
+     */
+    private static final CharClass LOCAL_CHARS = CharClass.ALNUM.union(CharClass.of("-._~!$&'*+="));
+
+    /**
+     * qchar = unreserved / pct-encoded / some-delims
+     */
+    private static final CharClass QCHARS = CharClass.ALNUM.union(CharClass.of("-._~!$'()*+,;:@"));
+
+    public Verdict validate(UrlValidator validator, UrlComponents url) {
+        if (url.authorityStart >= 0) {
+            return Verdict.AUTHORITY;
+        }
+
+        CharSequence value = url.value;
+        int from = url.pathStart;
+        if (from < url.pathEnd) {
+            for (int i = from; i <= url.pathEnd; i++) {
+                if (i == url.pathEnd || value.charAt(i) == ',') {
+                    if (!isValidAddress(validator, value, from, i)) {
+                        return Verdict.PATH;
+                    }
+                    from = i + 1;
+                }
+            }
+        }
+
+        if (url.queryStart >= 0 && !isValidHeaders(value, url.queryStart, url.queryEnd)) {
+            return Verdict.QUERY;
+        }
+
+        return validator.validateFragment(url);
+    }
+
+    /**
+     * Returns true if <code>value[from, to)</code> is an addr-spec.
+     */
+    private boolean isValidAddress(UrlValidator validator, CharSequence value, int from, int to) {
+        int at = -1;
+        for (int i = from; i < to; i++) {
+            if (value.charAt(i) == '@') {
+                at = i;
+                break;
+            }
+        }
+        if (at < 0 || !isValidLocalPart(value, from, at)) {
+            return false;
+        }
+
+        int start = at + 1;
+        if (to - start > 2 && value.charAt(start) == '[' && value.charAt(to - 1) == ']') {
+            String address = value.subSequence(start + 1, to - 1).toString();
+            return InetAddressValidator.getInstance().isValid(address);
+        }
+        String domain = value.subSequence(start, to).toString();
+        return validator.getDomainValidator().isValid(domain);
+    }
+
+    /**
+     * dot-atom-text = 1*atext *( "." 1*atext )
+     */
+    private boolean isValidLocalPart(CharSequence value, int from, int to) {
+        if (from >= to || value.charAt(from) == '.' || value.charAt(to - 1) == '.') {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c == '%') {
+                if (!PercentDecoder.isEscape(value, i, to)) {
+                    return false;
+                }
+                i += 2;
+            } else if (!LOCAL_CHARS.contains(c) || (c == '.' && value.charAt(i - 1) == '.')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isValidHeaders(CharSequence value, int from, int to) {
+        boolean named = false;
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c == '=') {
+                if (named) {
+                    return false;
+                }
+                named = true;
+            } else if (c == '&') {
+                if (!named) {
+                    return false;
+                }
+                named = false;
+            } else if (c == '%') {
+                if (!PercentDecoder.isEscape(value, i, to)) {
+                    return false;
+                }
+                i += 2;
+            } else if (!QCHARS.contains(c)) {
+                return false;
+            }
+        }
+        return named;
+    }
+}
@@ -0,0 +1,87 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * <p>An array of longs held off the heap in direct buffers, with atomic
+ * access to each element.</p>
+ *
+ * <p>Elements start at zero. Arrays larger than 1 GiB (2^27 longs) are
+ * split over several buffers of 1 GiB each.</p>
+ */
+final class OffHeapLongArray {
+
+    /** Elements per buffer, as a power of two. */
+    private static final int SEGMENT_SHIFT = 27;
+
+    private static final long SEGMENT_MASK = (1L << SEGMENT_SHIFT) - 1;
+
+    private static final VarHandle LONGS =
+            MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+    private final ByteBuffer[] segments;
+
+    private final long length;
+
+    /**
+     * Create an array of zeros.
+     * @param length the number of elements
+     */
+    OffHeapLongArray(long length) {
+        if (length < 1) {
+            throw new IllegalArgumentException("Length must be positive: " + length);
+        }
+        this.length = length;
+        this.segments = new ByteBuffer[(int) ((length - 1 >>> SEGMENT_SHIFT) + 1)];
+        for (int i = 0; i < segments.length; i++) {
+            long elements = Math.min(length - ((long) i << SEGMENT_SHIFT), 1L << SEGMENT_SHIFT);
+            // atomic access needs 8 byte alignment
+            segments[i] = ByteBuffer.allocateDirect((int) (elements * 8) + 8).alignedSlice(8);
+        }
+    }
+
+    long length() {
+        return length;
+    }
+
+    /**
+     * Returns the number of bytes the elements take.
+     * @return the memory used, in bytes
+     */
+    long getMemoryUsed() {
+        return length * 8;
+    }
+
+    long getVolatile(long index) {
+        return (long) LONGS.getVolatile(segments[(int) (index >>> SEGMENT_SHIFT)], offset(index));
+    }
+
+    boolean compareAndSet(long index, long expected, long value) {
+        return LONGS.compareAndSet(segments[(int) (index >>> SEGMENT_SHIFT)], offset(index), expected, value);
+    }
+
+    private static int offset(long index) {
+        return (int) (index & SEGMENT_MASK) << 3;
+    }
+}
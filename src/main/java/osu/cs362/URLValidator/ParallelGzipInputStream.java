@@ -0,0 +1,478 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * <p>Reads a gzip stream, inflating its members in parallel.</p>
+ *
+ * <p>Gzip files written by several writers, or by parallel compressors,
+ * are many members one after another. A member's compressed length is
+ * not recorded anywhere, so the stream is read into a window and every
+ * offset that looks like a member header starts a task inflating from
+ * there. The task whose start is where the previous member ended is the
+ * next member; tasks started inside compressed data are cancelled when
+ * passed, and since every member is checked against its CRC-32 and size
+ * a false start can never be taken for data.</p>
+ *
+ * <p>A member that does not end within the window, or that inflates to
+ * more than {@link #MAX_MEMBER_OUTPUT} bytes, is inflated as a stream by
+ * the reading thread instead, so a single-member file is read like a
+ * <code>GZIPInputStream</code> would. As with that class, anything after
+ * the last member that is not a gzip header is ignored.</p>
+ *
+ * <p>Memory use is bounded by two windows of compressed data and the
+ * output of the members in flight.</p>
+ */
+final class ParallelGzipInputStream extends InputStream {
+
+    /** Default size of the window of compressed data. */
+    static final int DEFAULT_WINDOW_SIZE = 8 << 20;
+
+    /** Members inflating to more than this are streamed by the reader. */
+    static final int MAX_MEMBER_OUTPUT = 16 << 20;
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private static final int TRAILER_SIZE = 8;
+
+    private final InputStream source;
+
+    private final ExecutorService executor;
+
+    private final int parallelism;
+
+    private final int windowSize;
+
+    /* Compressed bytes data[0, length) are those from offset base of the stream. */
+
+    private byte[] data;
+
+    private int length;
+
+    private long base;
+
+    private boolean sourceEnd;
+
+    /** Index in data of the next compressed byte to use. */
+    private int position;
+
+    /** Offset of the stream up to which member headers have been looked for. */
+    private long scanned;
+
+    /** Tasks inflating members, in stream order. */
+    private final ArrayDeque<Member> members = new ArrayDeque<Member>();
+
+    /** The member being streamed by the reader, or null. */
+    private Inflater inflater;
+
+    private final CRC32 crc = new CRC32();
+
+    private long memberSize;
+
+    /** Where the streamed member is inflated to. */
+    private byte[] buffer;
+
+    /** Inflated bytes not yet read, block[offset, limit). */
+    private byte[] block;
+
+    private int offset;
+
+    private int limit;
+
+    private boolean atStart = true;
+
+    private boolean closed;
+
+    /**
+     * Create a stream reading gzip data.
+     * @param source the compressed stream
+     * @param executor where to inflate members
+     * @param parallelism the most members inflated at once
+     * @param windowSize the size of the window of compressed data
+     */
+    ParallelGzipInputStream(InputStream source, ExecutorService executor, int parallelism, int windowSize) {
+        this.source = source;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.windowSize = windowSize;
+        this.data = new byte[windowSize];
+    }
+
+    /**
+     * Tests whether the bytes start a gzip stream.
+     * @param b the first bytes of a stream
+     * @param n the number of bytes
+     * @return true if they hold a gzip header
+     */
+    static boolean isGzip(byte[] b, int n) {
+        return n >= 2 && (b[0] & 0xFF) == 0x1F && (b[1] & 0xFF) == 0x8B;
+    }
+
+    public int read() throws IOException {
+        if (offset == limit && !fill()) {
+            return -1;
+        }
+        return block[offset++] & 0xFF;
+    }
+
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (offset == limit && !fill()) {
+            return -1;
+        }
+        int n = Math.min(len, limit - offset);
+        System.arraycopy(block, offset, b, off, n);
+        offset += n;
+        return n;
+    }
+
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            for (Member member : members) {
+                member.future.cancel(true);
+            }
+            members.clear();
+            if (inflater != null) {
+                inflater.end();
+            }
+            source.close();
+        }
+    }
+
+    /**
+     * Makes the next inflated bytes available.
+     * @return false at the end of the stream
+     */
+    private boolean fill() throws IOException {
+        if (closed) {
+            throw new IOException("Stream closed");
+        }
+        for (;;) {
+            if (inflater != null) {
+                if (inflate()) {
+                    return true;
+                }
+                continue;
+            }
+            // at a member boundary
+            if (position >= windowSize / 2 || length - position < windowSize / 2) {
+                refill();
+            }
+            int header = headerLength(data, position, length);
+            if (header == 0) {
+                if (atStart) {
+                    throw new ZipException("Not in GZIP format");
+                }
+                // trailing bytes that are not a member
+                return false;
+            }
+            atStart = false;
+            long start = base + position;
+            while (!members.isEmpty() && members.peek().start < start) {
+                // started inside the last member
+                members.poll().future.cancel(true);
+            }
+            schedule();
+            Member member = members.peek() != null && members.peek().start == start ? members.poll() : null;
+            if (member != null && get(member) == Member.COMPLETE) {
+                position += (int) (member.end - start);
+                if (member.outputLength > 0) {
+                    block = member.output;
+                    offset = 0;
+                    limit = member.outputLength;
+                    return true;
+                }
+                continue;
+            }
+            if (member != null && member.state == Member.CORRUPT) {
+                throw new ZipException("Corrupt GZIP member at offset " + start);
+            }
+            if (header < 0) {
+                throw new EOFException("Unexpected end of GZIP header");
+            }
+            // too big to inflate in one go
+            position += header;
+            inflater = new Inflater(true);
+            inflater.setInput(data, position, length - position);
+            crc.reset();
+            memberSize = 0;
+            if (buffer == null) {
+                buffer = new byte[64 * 1024];
+            }
+            block = buffer;
+        }
+    }
+
+    /**
+     * Inflates some of the streamed member.
+     * @return true if bytes were inflated
+     */
+    private boolean inflate() throws IOException {
+        try {
+            int n = inflater.inflate(block, 0, block.length);
+            if (n > 0) {
+                crc.update(block, 0, n);
+                memberSize += n;
+                offset = 0;
+                limit = n;
+                return true;
+            }
+        } catch (DataFormatException e) {
+            throw new ZipException("Corrupt GZIP member at offset " + (base + position) + ": " + e.getMessage());
+        }
+        if (inflater.finished()) {
+            position = length - inflater.getRemaining();
+            inflater.end();
+            inflater = null;
+            if (length - position < TRAILER_SIZE) {
+                refill();
+                if (length - position < TRAILER_SIZE) {
+                    throw new EOFException("Unexpected end of GZIP trailer");
+                }
+            }
+            if (readInt(data, position) != (int) crc.getValue() || readInt(data, position + 4) != (int) memberSize) {
+                throw new ZipException("Corrupt GZIP trailer at offset " + (base + position));
+            }
+            position += TRAILER_SIZE;
+        } else if (inflater.needsDictionary()) {
+            throw new ZipException("Corrupt GZIP member at offset " + (base + position));
+        } else if (inflater.needsInput()) {
+            position = length;
+            refill();
+            if (length == position) {
+                throw new EOFException("Unexpected end of ZLIB input stream");
+            }
+            inflater.setInput(data, position, length - position);
+        }
+        return false;
+    }
+
+    /**
+     * Moves the unused bytes to the front of a new window and reads more.
+     * The old window is left to the tasks still reading it.
+     */
+    private void refill() throws IOException {
+        if (sourceEnd) {
+            return;
+        }
+        byte[] next = new byte[windowSize];
+        int kept = length - position;
+        System.arraycopy(data, position, next, 0, kept);
+        base += position;
+        data = next;
+        length = kept;
+        position = 0;
+        while (length < data.length) {
+            int n = source.read(data, length, data.length - length);
+            if (n < 0) {
+                sourceEnd = true;
+                break;
+            }
+            length += n;
+        }
+    }
+
+    /**
+     * Starts tasks for the member headers in the window.
+     */
+    private void schedule() {
+        int from = (int) Math.max(scanned - base, position);
+        int i = from;
+        for (; i < length && members.size() < parallelism; i++) {
+            if (headerLength(data, i, length) > 0) {
+                Member member = new Member(data, i, length, base + i);
+                member.future = executor.submit(member);
+                members.add(member);
+            }
+        }
+        scanned = base + i;
+    }
+
+    private static int get(Member member) throws IOException {
+        try {
+            return member.future.get().state;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while inflating", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Inflating failed", e.getCause());
+        } catch (CancellationException e) {
+            return Member.INCOMPLETE;
+        }
+    }
+
+    /**
+     * Returns the length of the gzip member header at an index.
+     * @return the length, 0 if there is no header, or -1 if the header
+     * does not end before <code>to</code>
+     */
+    static int headerLength(byte[] b, int from, int to) {
+        if (to - from < 10) {
+            return to - from == 0 || (b[from] & 0xFF) != 0x1F ? 0 : -1;
+        }
+        int flags = b[from + 3] & 0xFF;
+        int xfl = b[from + 8] & 0xFF;
+        int os = b[from + 9] & 0xFF;
+        if ((b[from] & 0xFF) != 0x1F || (b[from + 1] & 0xFF) != 0x8B || b[from + 2] != 8
+                || (flags & 0xE0) != 0 || (xfl != 0 && xfl != 2 && xfl != 4) || (os > 13 && os != 255)) {
+            return 0;
+        }
+        int i = from + 10;
+        if ((flags & FEXTRA) != 0) {
+            if (to - i < 2) {
+                return -1;
+            }
+            i += 2 + ((b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8);
+        }
+        if ((flags & FNAME) != 0) {
+            while (i < to && b[i] != 0) {
+                i++;
+            }
+            i++;
+        }
+        if ((flags & FCOMMENT) != 0) {
+            while (i < to && b[i] != 0) {
+                i++;
+            }
+            i++;
+        }
+        if ((flags & FHCRC) != 0) {
+            i += 2;
+        }
+        return i <= to ? i - from : -1;
+    }
+
+    private static int readInt(byte[] b, int i) {
+        return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF) << 16 | (b[i + 3] & 0xFF) << 24;
+    }
+
+    /**
+     * A task inflating the member that may start at an offset.
+     */
+    static final class Member implements Callable<Member> {
+
+        static final int COMPLETE = 0;
+
+        /** Not ended within the window, too big, or cancelled. */
+        static final int INCOMPLETE = 1;
+
+        static final int CORRUPT = 2;
+
+        final byte[] data;
+
+        final int from;
+
+        final int to;
+
+        /** The offset of the member in the stream. */
+        final long start;
+
+        Future<Member> future;
+
+        int state;
+
+        byte[] output;
+
+        int outputLength;
+
+        /** The offset of the stream after the member. */
+        long end;
+
+        Member(byte[] data, int from, int to, long start) {
+            this.data = data;
+            this.from = from;
+            this.to = to;
+            this.start = start;
+        }
+
+        public Member call() {
+            int header = headerLength(data, from, to);
+            if (header < 0) {
+                state = INCOMPLETE;
+                return this;
+            }
+            Inflater inflater = new Inflater(true);
+            try {
+                inflater.setInput(data, from + header, to - from - header);
+                byte[] out = new byte[256 * 1024];
+                int n = 0;
+                while (!inflater.finished()) {
+                    if (Thread.interrupted()) {
+                        state = INCOMPLETE;
+                        return this;
+                    }
+                    if (n == out.length) {
+                        if (out.length >= MAX_MEMBER_OUTPUT) {
+                            state = INCOMPLETE;
+                            return this;
+                        }
+                        out = Arrays.copyOf(out, Math.min(2 * out.length, MAX_MEMBER_OUTPUT));
+                    }
+                    int k = inflater.inflate(out, n, out.length - n);
+                    n += k;
+                    if (k == 0 && !inflater.finished()) {
+                        state = inflater.needsInput() ? INCOMPLETE : CORRUPT;
+                        return this;
+                    }
+                }
+                int trailer = from + header + (int) inflater.getBytesRead();
+                if (to - trailer < TRAILER_SIZE) {
+                    state = INCOMPLETE;
+                    return this;
+                }
+                CRC32 crc = new CRC32();
+                crc.update(out, 0, n);
+                if (readInt(data, trailer) != (int) crc.getValue() || readInt(data, trailer + 4) != n) {
+                    state = CORRUPT;
+                    return this;
+                }
+                output = out;
+                outputLength = n;
+                end = start + (trailer + TRAILER_SIZE - from);
+                state = COMPLETE;
+            } catch (DataFormatException e) {
+                state = CORRUPT;
+            } finally {
+                inflater.end();
+            }
+            return this;
+        }
+    }
+}
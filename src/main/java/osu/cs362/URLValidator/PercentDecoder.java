@@ -0,0 +1,210 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * <p>Checks and decodes the percent-encodings of a URL component.</p>
+ *
+ * <p>Text is decoded as UTF-8 or to raw bytes. Escapes that are not
+ * followed by two hex digits are copied as written, and bytes that do not
+ * form UTF-8 are decoded to U+FFFD, so decoding never fails; validation
+ * rejects such escapes with {@link #isValidEncoding(CharSequence, int, int)}.
+ * Text without escapes is copied unchanged.</p>
+ */
+final class PercentDecoder {
+
+    /** The value of each ASCII hex digit, -1 for other characters. */
+    private static final byte[] HEX = new byte[128];
+
+    static {
+        Arrays.fill(HEX, (byte) -1);
+        for (int i = 0; i < 10; i++) {
+            HEX['0' + i] = (byte) i;
+        }
+        for (int i = 0; i < 6; i++) {
+            HEX['a' + i] = (byte) (10 + i);
+            HEX['A' + i] = (byte) (10 + i);
+        }
+    }
+
+    private PercentDecoder() {
+    }
+
+    /**
+     * Returns the value of a hex digit.
+     * @return the value, or -1 if the character is not a hex digit
+     */
+    static int hexValue(char c) {
+        return c < 128 ? HEX[c] : -1;
+    }
+
+    /**
+     * Tests whether the '%' at index <code>i</code> is followed by two hex
+     * digits before <code>to</code>.
+     */
+    static boolean isEscape(CharSequence value, int i, int to) {
+        return i + 2 < to && hexValue(value.charAt(i + 1)) >= 0 && hexValue(value.charAt(i + 2)) >= 0;
+    }
+
+    /**
+     * Tests whether every '%' of <code>value[from, to)</code> is followed
+     * by two hex digits.
+     */
+    static boolean isValidEncoding(CharSequence value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (value.charAt(i) == '%') {
+                if (!isEscape(value, i, to)) {
+                    return false;
+                }
+                i += 2;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Tests whether decoding would change any character.
+     * @param plusAsSpace whether '+' stands for a space, as in form data
+     */
+    static boolean isEncoded(CharSequence value, int from, int to, boolean plusAsSpace) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            if (c == '%' || (c == '+' && plusAsSpace)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Appends the decoded text of <code>value[from, to)</code>.
+     * @param plusAsSpace whether '+' stands for a space, as in form data
+     */
+    static void decode(CharSequence value, int from, int to, boolean plusAsSpace, StringBuilder out) {
+        try {
+            decode(value, from, to, plusAsSpace, (Appendable) out);
+        } catch (IOException e) {
+            // a StringBuilder does not throw
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Appends the decoded text of <code>value[from, to)</code>.
+     * @param plusAsSpace whether '+' stands for a space, as in form data
+     * @throws IOException if <code>out</code> does
+     */
+    static void decode(CharSequence value, int from, int to, boolean plusAsSpace, Appendable out)
+            throws IOException {
+        int i = from;
+        while (i < to) {
+            char c = value.charAt(i);
+            int b = escapedByte(value, i, to);
+            if (b < 0) {
+                out.append(c == '+' && plusAsSpace ? ' ' : c);
+                i++;
+                continue;
+            }
+            i += 3;
+            if (b < 0x80) {
+                out.append((char) b);
+                continue;
+            }
+            int length;
+            int codePoint;
+            int min;
+            if (b >= 0xC2 && b <= 0xDF) {
+                length = 1;
+                codePoint = b & 0x1F;
+                min = 0x80;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                length = 2;
+                codePoint = b & 0x0F;
+                min = 0x800;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                length = 3;
+                codePoint = b & 0x07;
+                min = 0x10000;
+            } else {
+                out.append('\uFFFD');
+                continue;
+            }
+            while (length > 0) {
+                int next = escapedByte(value, i, to);
+                if ((next & 0xC0) != 0x80) {
+                    break;
+                }
+                codePoint = codePoint << 6 | next & 0x3F;
+                i += 3;
+                length--;
+            }
+            if (length > 0 || codePoint < min || codePoint > Character.MAX_CODE_POINT
+                    || (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE)) {
+                out.append('\uFFFD');
+            } else if (codePoint >= Character.MIN_SUPPLEMENTARY_CODE_POINT) {
+                out.append(Character.highSurrogate(codePoint));
+                out.append(Character.lowSurrogate(codePoint));
+            } else {
+                out.append((char) codePoint);
+            }
+        }
+    }
+
+    /**
+     * Puts the decoded bytes of <code>value[from, to)</code>: the byte of
+     * each escape and the low byte of every other character.
+     * @return the number of bytes put
+     * @throws BufferOverflowException if the buffer may not have room,
+     * in which case nothing is put
+     */
+    static int decode(CharSequence value, int from, int to, ByteBuffer out) {
+        if (out.remaining() < to - from) {
+            throw new BufferOverflowException();
+        }
+        int start = out.position();
+        int i = from;
+        while (i < to) {
+            int b = escapedByte(value, i, to);
+            if (b < 0) {
+                out.put((byte) value.charAt(i++));
+            } else {
+                out.put((byte) b);
+                i += 3;
+            }
+        }
+        return out.position() - start;
+    }
+
+    /**
+     * Returns the byte of the escape at <code>i</code>.
+     * @return the byte, or -1 if there is no escape at <code>i</code>
+     */
+    private static int escapedByte(CharSequence value, int i, int to) {
+        if (i + 2 >= to || value.charAt(i) != '%') {
+            return -1;
+        }
+        int high = hexValue(value.charAt(i + 1));
+        int low = hexValue(value.charAt(i + 2));
+        return high < 0 || low < 0 ? -1 : high << 4 | low;
+    }
+}
@@ -0,0 +1,99 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.Serializable;
+
+/**
+ * <p>A set of TCP ports, held as a bitset of 65536 bits so that a port is
+ * looked up in constant time.</p>
+ *
+ * <p>Sets are immutable; they are put together by
+ * {@link UrlValidator.Builder#allowedPorts(int...)} and
+ * {@link UrlValidator.Builder#allowedPortRange(int, int)}.</p>
+ */
+final class PortSet implements Serializable {
+
+    private static final long serialVersionUID = 4403195836128409536L;
+
+    /** The largest port. */
+    static final int MAX_PORT = 65535;
+
+    private final long[] bits;
+
+    /**
+     * Create a set from its bits, which are copied.
+     * @param bits 1024 words, bit <code>p &amp; 63</code> of word
+     * <code>p &gt;&gt;&gt; 6</code> set for each port <code>p</code>
+     */
+    PortSet(long[] bits) {
+        this.bits = bits.clone();
+    }
+
+    /**
+     * Sets the bits of a range of ports.
+     * @param bits the set's words, at least 1024
+     * @param from the first port
+     * @param to the last port, inclusive
+     */
+    static void add(long[] bits, int from, int to) {
+        if (from < 0 || to > MAX_PORT || from > to) {
+            throw new IllegalArgumentException("Invalid port range: " + from + "-" + to);
+        }
+        for (int port = from; port <= to; port++) {
+            bits[port >>> 6] |= 1L << port;
+        }
+    }
+
+    /**
+     * Tests whether a port is in the set.
+     * @param port a port between 0 and {@link #MAX_PORT}
+     * @return whether it is in the set
+     */
+    boolean contains(int port) {
+        return (bits[port >>> 6] & 1L << port) != 0;
+    }
+
+    /**
+     * Provide a String representation of this set.
+     * @return the ports and ranges of ports in the set
+     */
+    public String toString() {
+        StringBuffer buffer = new StringBuffer("PortSet{");
+        int port = 0;
+        while (port <= MAX_PORT) {
+            if (!contains(port)) {
+                port++;
+                continue;
+            }
+            int last = port;
+            while (last < MAX_PORT && contains(last + 1)) {
+                last++;
+            }
+            if (buffer.length() > "PortSet{".length()) {
+                buffer.append(",");
+            }
+            buffer.append(port);
+            if (last > port) {
+                buffer.append("-").append(last);
+            }
+            port = last + 1;
+        }
+        return buffer.append("}").toString();
+    }
+}
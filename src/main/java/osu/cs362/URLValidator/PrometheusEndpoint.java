@@ -0,0 +1,218 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * <p>A minimal HTTP endpoint serving the metrics of every
+ * {@link ValidatorMetrics registered} validator in the Prometheus text
+ * exposition format, at <code>/metrics</code>.</p>
+ *
+ * <pre>
+ *   PrometheusEndpoint endpoint = PrometheusEndpoint.start(new InetSocketAddress("127.0.0.1", 9464));
+ *   ...
+ *   endpoint.stop();
+ * </pre>
+ *
+ * <p>Each validator gets <code>urlvalidator_validations_total</code>,
+ * <code>urlvalidator_rejects_total</code> by rejection point and the
+ * <code>urlvalidator_latency_seconds</code> histogram, labelled with the
+ * validator name. Rendering only sums <code>LongAdder</code>s, so it
+ * never stops validating threads; counts may therefore move between two
+ * lines of the same scrape. Histogram buckets are cumulative over one
+ * snapshot of the latency histogram, each counting the latency buckets
+ * that end at or below its bound.</p>
+ */
+public final class PrometheusEndpoint {
+
+    /** The content type of the text exposition format. */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    /** Upper bounds of the histogram buckets, in seconds. */
+    private static final double[] BUCKETS = {
+        1e-6, 2.5e-6, 5e-6, 1e-5, 2.5e-5, 5e-5, 1e-4, 2.5e-4, 5e-4,
+        1e-3, 2.5e-3, 5e-3, 1e-2, 2.5e-2, 5e-2, 0.1, 0.25, 0.5, 1
+    };
+
+    private final HttpServer server;
+
+    private PrometheusEndpoint(HttpServer server) {
+        this.server = server;
+    }
+
+    /**
+     * Starts serving <code>/metrics</code> on a background thread.
+     * @param address where to listen, port 0 for any free port
+     * @return the running endpoint
+     * @throws IOException if the address cannot be bound
+     */
+    public static PrometheusEndpoint start(InetSocketAddress address) throws IOException {
+        HttpServer server = HttpServer.create(address, 0);
+        server.createContext("/metrics", new HttpHandler() {
+            public void handle(HttpExchange exchange) throws IOException {
+                try {
+                    if (!"GET".equals(exchange.getRequestMethod())) {
+                        exchange.sendResponseHeaders(405, -1);
+                        return;
+                    }
+                    StringBuilder text = new StringBuilder();
+                    render(ValidatorMetrics.getRegistered(), text);
+                    byte[] body = text.toString().getBytes(StandardCharsets.UTF_8);
+                    exchange.getResponseHeaders().set("Content-Type", CONTENT_TYPE);
+                    exchange.sendResponseHeaders(200, body.length);
+                    OutputStream out = exchange.getResponseBody();
+                    out.write(body);
+                    out.close();
+                } finally {
+                    exchange.close();
+                }
+            }
+        });
+        server.start();
+        return new PrometheusEndpoint(server);
+    }
+
+    /**
+     * Returns the address the endpoint listens on.
+     * @return the bound address
+     */
+    public InetSocketAddress getAddress() {
+        return server.getAddress();
+    }
+
+    /**
+     * Stops the endpoint, waiting for up to a second for scrapes in progress.
+     */
+    public void stop() {
+        server.stop(1);
+    }
+
+    /**
+     * Renders the metrics in the Prometheus text exposition format.
+     * @param validators the metrics to render
+     * @param out where to append the text
+     */
+    static void render(Collection<ValidatorMetrics> validators, StringBuilder out) {
+        List<ValidatorMetrics> sorted = new ArrayList<ValidatorMetrics>(validators);
+        Collections.sort(sorted, new Comparator<ValidatorMetrics>() {
+            public int compare(ValidatorMetrics a, ValidatorMetrics b) {
+                return a.getName().compareTo(b.getName());
+            }
+        });
+
+        header(out, "urlvalidator_validations_total", "counter", "URLs validated.");
+        for (ValidatorMetrics validator : sorted) {
+            sample(out, "urlvalidator_validations_total", validator, null, null,
+                    validator.getMetrics().getValidationCount());
+        }
+
+        header(out, "urlvalidator_rejects_total", "counter", "URLs rejected, by rejection point.");
+        ValidationMetrics.Reject[] rejects = ValidationMetrics.Reject.values();
+        for (ValidatorMetrics validator : sorted) {
+            for (int i = 0; i < rejects.length; i++) {
+                sample(out, "urlvalidator_rejects_total", validator,
+                        "reason", rejects[i].name().toLowerCase(Locale.ENGLISH),
+                        validator.getMetrics().getRejectCount(rejects[i]));
+            }
+        }
+
+        header(out, "urlvalidator_latency_seconds", "histogram", "Time taken to validate a URL.");
+        for (ValidatorMetrics validator : sorted) {
+            renderHistogram(out, validator);
+        }
+    }
+
+    private static void renderHistogram(StringBuilder out, ValidatorMetrics validator) {
+        LatencyHistogram histogram = validator.getMetrics().getLatencyHistogram();
+        long[] counts = new long[histogram.size()];
+        long count = 0;
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] = histogram.getCount(i);
+            count += counts[i];
+        }
+
+        int bucket = 0;
+        long cumulative = 0;
+        for (int b = 0; b < BUCKETS.length; b++) {
+            long bound = (long) (BUCKETS[b] * 1e9);
+            while (bucket < counts.length && histogram.getUpperBound(bucket) <= bound) {
+                cumulative += counts[bucket++];
+            }
+            sample(out, "urlvalidator_latency_seconds_bucket", validator, "le", Double.toString(BUCKETS[b]),
+                    cumulative);
+        }
+        sample(out, "urlvalidator_latency_seconds_bucket", validator, "le", "+Inf", count);
+        out.append("urlvalidator_latency_seconds_sum");
+        labels(out, validator, null, null);
+        out.append(' ').append(histogram.getTotal() / 1e9).append('\n');
+        sample(out, "urlvalidator_latency_seconds_count", validator, null, null, count);
+    }
+
+    private static void header(StringBuilder out, String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(StringBuilder out, String name, ValidatorMetrics validator,
+            String label, String value, long sample) {
+        out.append(name);
+        labels(out, validator, label, value);
+        out.append(' ').append(sample).append('\n');
+    }
+
+    private static void labels(StringBuilder out, ValidatorMetrics validator, String label, String value) {
+        out.append("{validator=\"");
+        escape(out, validator.getName());
+        out.append('"');
+        if (label != null) {
+            out.append(',').append(label).append("=\"");
+            escape(out, value);
+            out.append('"');
+        }
+        out.append('}');
+    }
+
+    private static void escape(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                out.append('\\').append(c);
+            } else if (c == '\n') {
+                out.append("\\n");
+            } else {
+                out.append(c);
+            }
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>Rewrites the query of a URL for caching or deduplication: tracking
+ * parameters such as <code>utm_source</code> are dropped and the rest
+ * are sorted by name.</p>
+ *
+ * <p>The query is walked as parameter offsets into the original value,
+ * kept in the {@link UrlComponents}; names are matched against a denylist
+ * compiled into a trie of names and name prefixes, and the offsets of the
+ * parameters kept are sorted in place. No substring is made and nothing
+ * is allocated per parameter. The sort is stable, so repeated parameters
+ * keep their order, and names are compared by character, case
+ * sensitively, as written.</p>
+ *
+ * <p>A rewriter is immutable and safe to share between threads. It reads
+ * the components a validation left, which are kept when the URL is
+ * rejected after being split; {@link UrlValidator} rejects every query,
+ * so the verdict below is {@link Verdict#QUERY}.</p>
+ *
+ * <pre>
+ *   UrlComponents url = new UrlComponents();
+ *   urlValidator.validate("http://foo.bar.com/p?b=2&amp;utm_source=x&amp;a=1", url);    // QUERY
+ *   StringBuilder query = new StringBuilder();
+ *   QueryRewriter.getInstance().rewrite(url, query);    // "a=1&amp;b=2"
+ * </pre>
+ */
+public final class QueryRewriter {
+
+    /**
+     * Prefixes of tracking parameter names dropped by {@link #getInstance()}.
+     */
+    private static final String[] TRACKING_PREFIXES = {"utm_", "pk_", "mtm_"};
+
+    /**
+     * Tracking parameter names dropped by {@link #getInstance()}.
+     */
+    private static final String[] TRACKING_NAMES = {
+        "gclid", "gclsrc", "dclid", "fbclid", "msclkid", "yclid", "twclid", "igshid",
+        "mc_cid", "mc_eid", "_ga", "_gl", "_hsenc", "_hsmi", "mkt_tok", "ref_src"
+    };
+
+    private static final QueryRewriter TRACKING = builder()
+            .removePrefixes(TRACKING_PREFIXES)
+            .removeNames(TRACKING_NAMES)
+            .build();
+
+    /** Trie edges: the child of node n on character c is at n * 128 + c, 0 if none. */
+    private final int[] next;
+
+    /** Per node: whether a name ends there. */
+    private final boolean[] name;
+
+    /** Per node: whether a prefix ends there, so all names below match. */
+    private final boolean[] prefix;
+
+    private final boolean sort;
+
+    /**
+     * Returns a rewriter that drops common tracking parameters (the
+     * <code>utm_</code> family, click IDs and the like) and sorts the rest.
+     * @return the shared instance
+     */
+    public static QueryRewriter getInstance() {
+        return TRACKING;
+    }
+
+    /**
+     * Returns a builder of a rewriter that drops nothing and sorts.
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    private QueryRewriter(Builder builder) {
+        int nodes = 1;
+        int[] next = new int[128];
+        boolean[] name = new boolean[1];
+        boolean[] prefix = new boolean[1];
+        int total = builder.names.size() + builder.prefixes.size();
+        for (int i = 0; i < total; i++) {
+            boolean isPrefix = i >= builder.names.size();
+            String entry = isPrefix ? builder.prefixes.get(i - builder.names.size()) : builder.names.get(i);
+            int node = 0;
+            for (int j = 0; j < entry.length(); j++) {
+                char c = entry.charAt(j);
+                int child = next[node * 128 + c];
+                if (child == 0) {
+                    child = nodes++;
+                    if (nodes * 128 > next.length) {
+                        next = Arrays.copyOf(next, next.length * 2);
+                        name = Arrays.copyOf(name, next.length / 128);
+                        prefix = Arrays.copyOf(prefix, next.length / 128);
+                    }
+                    next[node * 128 + c] = child;
+                }
+                node = child;
+            }
+            if (isPrefix) {
+                prefix[node] = true;
+            } else {
+                name[node] = true;
+            }
+        }
+        this.next = Arrays.copyOf(next, nodes * 128);
+        this.name = Arrays.copyOf(name, nodes);
+        this.prefix = Arrays.copyOf(prefix, nodes);
+        this.sort = builder.sort;
+    }
+
+    /**
+     * Tests whether parameters of a name are dropped.
+     * @param value holds the name
+     * @param from start of the name
+     * @param to end of the name, exclusive
+     * @return whether the name is on the denylist
+     */
+    boolean isRemoved(CharSequence value, int from, int to) {
+        int node = 0;
+        for (int i = from; i < to; i++) {
+            if (prefix[node]) {
+                return true;
+            }
+            char c = value.charAt(i);
+            if (c >= 128 || (node = next[node * 128 + c]) == 0) {
+                return false;
+            }
+        }
+        return name[node] || prefix[node];
+    }
+
+    /**
+     * Tests whether parameters of a name are dropped.
+     * @param name the parameter name, as written in the query
+     * @return whether the name is on the denylist
+     */
+    public boolean isRemoved(String name) {
+        return isRemoved(name, 0, name.length());
+    }
+
+    /**
+     * Appends the rewritten query of a URL, without the "?". Nothing is
+     * appended if no parameter is left.
+     * @param url The components of the URL.
+     * @param out Where to append the query.
+     * @return the number of parameters appended
+     */
+    public int rewrite(UrlComponents url, StringBuilder out) {
+        int count = select(url);
+        int[] index = url.parameters;
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                out.append('&');
+            }
+            out.append(url.value, index[3 * i], index[3 * i + 2]);
+        }
+        return count;
+    }
+
+    /**
+     * Puts the rewritten query of a URL, without the "?", one byte per
+     * character. Nothing is put if no parameter is left.
+     * @param url The components of the URL.
+     * @param out Where to put the query.
+     * @return the number of parameters put
+     * @throws BufferOverflowException if the buffer may not have room for
+     * the whole query, in which case nothing is put
+     */
+    public int rewrite(UrlComponents url, ByteBuffer out) {
+        if (url.queryStart >= 0 && out.remaining() < url.queryEnd - url.queryStart) {
+            throw new BufferOverflowException();
+        }
+        int count = select(url);
+        int[] index = url.parameters;
+        CharSequence value = url.value;
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                out.put((byte) '&');
+            }
+            for (int j = index[3 * i]; j < index[3 * i + 2]; j++) {
+                out.put((byte) value.charAt(j));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Indexes the parameters of the query and moves those kept, sorted,
+     * to the front of the index.
+     * @return the number of parameters kept
+     */
+    private int select(UrlComponents url) {
+        int total = url.indexQuery();
+        int[] index = url.parameters;
+        CharSequence value = url.value;
+        int count = 0;
+        for (int i = 0; i < total; i++) {
+            int start = index[3 * i];
+            int nameEnd = index[3 * i + 1];
+            int end = index[3 * i + 2];
+            if (!isRemoved(value, start, nameEnd)) {
+                // insertion sort: queries are short and it is stable
+                int j = count;
+                while (sort && j > 0 && compareNames(value, index, j - 1, start, nameEnd) > 0) {
+                    System.arraycopy(index, 3 * (j - 1), index, 3 * j, 3);
+                    j--;
+                }
+                index[3 * j] = start;
+                index[3 * j + 1] = nameEnd;
+                index[3 * j + 2] = end;
+                count++;
+            }
+        }
+        // the index is out of order now
+        url.parameterCount = -1;
+        return count;
+    }
+
+    private static int compareNames(CharSequence value, int[] index, int k, int start, int nameEnd) {
+        int i = index[3 * k];
+        int end = index[3 * k + 1];
+        int j = start;
+        while (i < end && j < nameEnd) {
+            int d = value.charAt(i++) - value.charAt(j++);
+            if (d != 0) {
+                return d;
+            }
+        }
+        return (end - i) - (nameEnd - j);
+    }
+
+    /**
+     * Collects the denylist and options of a {@link QueryRewriter}.
+     */
+    public static final class Builder {
+
+        private final List<String> names = new ArrayList<String>();
+
+        private final List<String> prefixes = new ArrayList<String>();
+
+        private boolean sort = true;
+
+        private Builder() {
+        }
+
+        /**
+         * Drops parameters with any of these names.
+         * @param names the names, matched case sensitively
+         * @return this builder
+         */
+        public Builder removeNames(String... names) {
+            add(this.names, names);
+            return this;
+        }
+
+        /**
+         * Drops parameters with names starting with any of these prefixes.
+         * @param prefixes the prefixes, matched case sensitively
+         * @return this builder
+         */
+        public Builder removePrefixes(String... prefixes) {
+            add(this.prefixes, prefixes);
+            return this;
+        }
+
+        /**
+         * Keeps the parameters in the order they are written.
+         * @return this builder
+         */
+        public Builder keepOrder() {
+            this.sort = false;
+            return this;
+        }
+
+        private static void add(List<String> list, String[] entries) {
+            for (int i = 0; i < entries.length; i++) {
+                String entry = entries[i];
+                if (entry == null || entry.isEmpty()) {
+                    throw new IllegalArgumentException("Names and prefixes must not be empty");
+                }
+                for (int j = 0; j < entry.length(); j++) {
+                    if (entry.charAt(j) >= 128) {
+                        throw new IllegalArgumentException("Names and prefixes must be ASCII: " + entry);
+                    }
+                }
+                list.add(entry);
+            }
+        }
+
+        /**
+         * Compiles the denylist into a rewriter.
+         * @return the rewriter
+         */
+        public QueryRewriter build() {
+            return new QueryRewriter(this);
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>The parameters of the query of a URL, read in place.</p>
+ *
+ * <p>The query is split on '&amp;' into parameters, and each parameter on
+ * its first '=' into a name and a value, the first time the view is
+ * used; empty parameters are left out. The split is kept as offsets in a
+ * reusable int[] of the {@link UrlComponents}, until they hold the next
+ * URL. Names and values are only percent-decoded, as UTF-8 with '+'
+ * standing for a space, when they are asked for as Strings; names are
+ * compared to the decoded name without making a String.</p>
+ *
+ * <p>A view belongs to its {@link UrlComponents} and, like them, is not
+ * safe to share between threads. It reads the query the components hold
+ * after any verdict but {@link Verdict#MALFORMED} and
+ * {@link Verdict#NON_ASCII}; {@link UrlValidator} rejects every query, so
+ * the verdict below is {@link Verdict#QUERY}.</p>
+ *
+ * <pre>
+ *   UrlComponents url = new UrlComponents();
+ *   urlValidator.validate("http://foo.bar.com/p?q=a%20b&amp;page=2", url);    // QUERY
+ *   QueryView query = url.getQueryView();
+ *   String q = query.get("q");    // "a b"
+ *   for (QueryView.Parameter parameter : query) {
+ *       ...
+ *   }
+ * </pre>
+ */
+public final class QueryView implements Iterable<QueryView.Parameter> {
+
+    private final UrlComponents url;
+
+    /** Holds decoded names while they are compared. */
+    private final StringBuilder scratch = new StringBuilder();
+
+    QueryView(UrlComponents url) {
+        this.url = url;
+    }
+
+    /**
+     * Returns the number of parameters.
+     * @return the number of parameters, 0 if there is no query
+     */
+    public int size() {
+        return url.indexQuery();
+    }
+
+    /**
+     * Returns the start of the name of a parameter in the URL.
+     * @param index the index of the parameter
+     * @return the start of its name
+     */
+    public int getNameStart(int index) {
+        return offset(index, 0);
+    }
+
+    /**
+     * Returns the end of the name of a parameter in the URL.
+     * @param index the index of the parameter
+     * @return the end of its name, exclusive
+     */
+    public int getNameEnd(int index) {
+        return offset(index, 1);
+    }
+
+    /**
+     * Returns the start of the value of a parameter in the URL, just
+     * after the '='. A parameter without '=' has an empty value at its end.
+     * @param index the index of the parameter
+     * @return the start of its value
+     */
+    public int getValueStart(int index) {
+        int nameEnd = offset(index, 1);
+        return nameEnd < url.parameters[3 * index + 2] ? nameEnd + 1 : nameEnd;
+    }
+
+    /**
+     * Returns the end of the value of a parameter in the URL.
+     * @param index the index of the parameter
+     * @return the end of its value, exclusive
+     */
+    public int getValueEnd(int index) {
+        return offset(index, 2);
+    }
+
+    /**
+     * Returns the decoded name of a parameter.
+     * @param index the index of the parameter
+     * @return its name
+     */
+    public String getName(int index) {
+        return decode(getNameStart(index), getNameEnd(index));
+    }
+
+    /**
+     * Returns the decoded value of a parameter.
+     * @param index the index of the parameter
+     * @return its value, empty if it has no '='
+     */
+    public String getValue(int index) {
+        return decode(getValueStart(index), getValueEnd(index));
+    }
+
+    /**
+     * Returns the index of the first parameter of a name.
+     * @param name the decoded name
+     * @return the index, or -1 if there is no such parameter
+     */
+    public int indexOf(String name) {
+        int size = size();
+        for (int i = 0; i < size; i++) {
+            if (nameEquals(i, name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Tests whether there is a parameter of a name.
+     * @param name the decoded name
+     * @return whether the query has the parameter
+     */
+    public boolean contains(String name) {
+        return indexOf(name) >= 0;
+    }
+
+    /**
+     * Returns the decoded value of the first parameter of a name.
+     * @param name the decoded name
+     * @return the value, empty if the parameter has no '=', or
+     * <code>null</code> if there is no such parameter
+     */
+    public String get(String name) {
+        int index = indexOf(name);
+        return index < 0 ? null : getValue(index);
+    }
+
+    /**
+     * Returns the decoded values of all parameters of a name, in order.
+     * @param name the decoded name
+     * @return the values, maybe none
+     */
+    public List<String> getAll(String name) {
+        List<String> values = new ArrayList<String>();
+        int size = size();
+        for (int i = 0; i < size; i++) {
+            if (nameEquals(i, name)) {
+                values.add(getValue(i));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Returns the parameters in order. The iterator reads the query the
+     * components hold when it is used.
+     * @return an iterator over the parameters
+     */
+    public Iterator<Parameter> iterator() {
+        return new Iterator<Parameter>() {
+            private int next;
+
+            public boolean hasNext() {
+                return next < size();
+            }
+
+            public Parameter next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return new Parameter(next++);
+            }
+        };
+    }
+
+    private boolean nameEquals(int index, String name) {
+        int start = url.parameters[3 * index];
+        int end = url.parameters[3 * index + 1];
+        CharSequence value = url.value;
+        if (PercentDecoder.isEncoded(value, start, end, true)) {
+            scratch.setLength(0);
+            PercentDecoder.decode(value, start, end, true, scratch);
+            value = scratch;
+            start = 0;
+            end = scratch.length();
+        }
+        if (end - start != name.length()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (value.charAt(start + i) != name.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int offset(int index, int field) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Parameter " + index + " of " + size());
+        }
+        return url.parameters[3 * index + field];
+    }
+
+    private String decode(int start, int end) {
+        CharSequence value = url.value;
+        if (!PercentDecoder.isEncoded(value, start, end, true)) {
+            return value.subSequence(start, end).toString();
+        }
+        StringBuilder decoded = new StringBuilder(end - start);
+        PercentDecoder.decode(value, start, end, true, decoded);
+        return decoded.toString();
+    }
+
+    /**
+     * Provide a String representation of this view.
+     * @return the decoded parameters, as name=value pairs
+     */
+    public String toString() {
+        StringBuilder string = new StringBuilder("QueryView{");
+        int size = size();
+        for (int i = 0; i < size; i++) {
+            string.append(i > 0 ? "," : "").append(getName(i)).append('=').append(getValue(i));
+        }
+        return string.append('}').toString();
+    }
+
+    /**
+     * A parameter of the query, decoded when its name or value is asked for.
+     */
+    public final class Parameter {
+
+        private final int index;
+
+        private Parameter(int index) {
+            this.index = index;
+        }
+
+        /**
+         * Returns the index of the parameter in the query.
+         * @return the index
+         */
+        public int getIndex() {
+            return index;
+        }
+
+        /**
+         * Returns the decoded name.
+         * @return the name
+         */
+        public String getName() {
+            return QueryView.this.getName(index);
+        }
+
+        /**
+         * Returns the decoded value.
+         * @return the value, empty if the parameter has no '='
+         */
+        public String getValue() {
+            return QueryView.this.getValue(index);
+        }
+
+        /**
+         * Provide a String representation of this parameter.
+         * @return the decoded name=value pair
+         */
+        public String toString() {
+            return getName() + "=" + getValue();
+        }
+    }
+}
@@ -128,6 +128,21 @@ public class RegexValidator implements Serializable {
      * otherwise <code>false</code>.
      */
     public boolean isValid(String value) {
+        ValidationEvent event = new ValidationEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            boolean valid = isMatch(value);
+            ValidationEvents.end(event, ValidationEvents.REGEX_VALIDATOR, value, valid,
+                    valid ? "VALID" : "NO_MATCH");
+            return valid;
+        }
+        return isMatch(value);
+    }
+
+    /**
+     * isValid without the Flight Recorder event.
+     */
+    private boolean isMatch(String value) {
         if (value == null) {
             return false;
         }
@@ -148,6 +163,21 @@ public class RegexValidator implements Serializable {
      * valid or <code>null</code> if invalid
      */
     public String[] match(String value) {
+        ValidationEvent event = new ValidationEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            String[] groups = matchGroups(value);
+            ValidationEvents.end(event, ValidationEvents.REGEX_VALIDATOR, value, groups != null,
+                    groups != null ? "VALID" : "NO_MATCH");
+            return groups;
+        }
+        return matchGroups(value);
+    }
+
+    /**
+     * match without the Flight Recorder event.
+     */
+    private String[] matchGroups(String value) {
         if (value == null) {
             return null;
         }
@@ -0,0 +1,325 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+
+/**
+ * <p><b>Character scanning</b> kernels for long URLs.</p>
+ *
+ * <p>A kernel answers two questions about a span of characters or bytes:
+ * is every element ASCII, and is every element a member of a
+ * {@link CharClass}. Three kernels are provided:</p>
+ * <ul>
+ *   <li><code>scalar</code> - one element per step, used as the fallback.</li>
+ *   <li><code>swar</code> - "SIMD within a register", eight bytes (or four
+ *   chars) packed into a <code>long</code> per step.</li>
+ *   <li><code>vector</code> - 16 to 64 bytes per step using the
+ *   <code>jdk.incubator.vector</code> API. Only available when the JVM is
+ *   started with <code>--add-modules jdk.incubator.vector</code>.</li>
+ * </ul>
+ *
+ * <p>The kernel is selected once, when this class is initialized. The
+ * widest available kernel is used unless the system property
+ * <code>osu.cs362.URLValidator.scanKernel</code> names another one.
+ * All kernels return identical results, and spans too short to profit
+ * from a wide kernel are handed to a narrower one.</p>
+ */
+public abstract class ScanKernel {
+
+    /**
+     * System property used to force a kernel ("scalar", "swar" or "vector").
+     */
+    public static final String KERNEL_PROPERTY = "osu.cs362.URLValidator.scanKernel";
+
+    private static final String VECTOR_KERNEL_CLASS = "osu.cs362.URLValidator.VectorScanKernel";
+
+    private static final ScanKernel KERNEL = select(System.getProperty(KERNEL_PROPERTY));
+
+    /**
+     * Returns the kernel selected at startup.
+     * @return the kernel used by the validators
+     */
+    public static ScanKernel getInstance() {
+        return KERNEL;
+    }
+
+    /**
+     * Returns the named kernel, or <code>null</code> if it is not
+     * available in this JVM.
+     * @param name "scalar", "swar" or "vector"
+     * @return the kernel or <code>null</code>
+     */
+    static ScanKernel forName(String name) {
+        if ("scalar".equals(name)) {
+            return new Scalar();
+        }
+        if ("swar".equals(name)) {
+            return new Swar();
+        }
+        if ("vector".equals(name)) {
+            if (!ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+                return null;
+            }
+            try {
+                return (ScanKernel) Class.forName(VECTOR_KERNEL_CLASS)
+                        .getDeclaredConstructor().newInstance();
+            } catch (ReflectiveOperationException e) {
+                return null;
+            } catch (LinkageError e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static ScanKernel select(String name) {
+        ScanKernel kernel = null;
+        if (name != null) {
+            kernel = forName(name);
+        }
+        if (kernel == null) {
+            kernel = forName("vector");
+        }
+        if (kernel == null) {
+            kernel = forName("swar");
+        }
+        return kernel;
+    }
+
+    /**
+     * Returns the name of this kernel.
+     * @return "scalar", "swar" or "vector"
+     */
+    public abstract String getName();
+
+    /**
+     * Tests whether every character of the span is ASCII.
+     * @param value the characters to scan
+     * @param from the first index, inclusive
+     * @param to the last index, exclusive
+     * @return true if the span holds only ASCII characters
+     */
+    public abstract boolean isAscii(CharSequence value, int from, int to);
+
+    /**
+     * Tests whether every byte of the span is ASCII.
+     * @param value the bytes to scan
+     * @param from the first index, inclusive
+     * @param to the last index, exclusive
+     * @return true if the span holds only ASCII bytes
+     */
+    public abstract boolean isAscii(byte[] value, int from, int to);
+
+    /**
+     * Tests whether every character of the span is a member of the class.
+     * @param value the characters to scan
+     * @param from the first index, inclusive
+     * @param to the last index, exclusive
+     * @param members the allowed characters
+     * @return true if the span holds only members of the class
+     */
+    public abstract boolean allInClass(CharSequence value, int from, int to, CharClass members);
+
+    /**
+     * Tests whether every byte of the span is a member of the class.
+     * @param value the bytes to scan
+     * @param from the first index, inclusive
+     * @param to the last index, exclusive
+     * @param members the allowed characters
+     * @return true if the span holds only members of the class
+     */
+    public abstract boolean allInClass(byte[] value, int from, int to, CharClass members);
+
+    /**
+     * Provide a String representation of this kernel.
+     * @return A String representation of this kernel
+     */
+    public String toString() {
+        return "ScanKernel{" + getName() + "}";
+    }
+
+    static boolean scalarIsAscii(CharSequence value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (value.charAt(i) > 127) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean scalarIsAscii(byte[] value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (value[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean scalarAllInClass(CharSequence value, int from, int to, CharClass members) {
+        for (int i = from; i < to; i++) {
+            if (!members.contains(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean scalarAllInClass(byte[] value, int from, int to, CharClass members) {
+        for (int i = from; i < to; i++) {
+            if (!members.contains(value[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * One element per step.
+     */
+    static final class Scalar extends ScanKernel {
+
+        public String getName() {
+            return "scalar";
+        }
+
+        public boolean isAscii(CharSequence value, int from, int to) {
+            return scalarIsAscii(value, from, to);
+        }
+
+        public boolean isAscii(byte[] value, int from, int to) {
+            return scalarIsAscii(value, from, to);
+        }
+
+        public boolean allInClass(CharSequence value, int from, int to, CharClass members) {
+            return scalarAllInClass(value, from, to, members);
+        }
+
+        public boolean allInClass(byte[] value, int from, int to, CharClass members) {
+            return scalarAllInClass(value, from, to, members);
+        }
+    }
+
+    /**
+     * Eight bytes, or four 16 bit chars, per step in a <code>long</code>.
+     *
+     * <p>Once a word is known to be ASCII every lane is below 0x80, so
+     * adding a broadcast constant of at most 0x80 to it never carries
+     * into the next lane. That turns the lower and upper bound tests
+     * into one add and one mask each; a hole is found with the usual
+     * "has zero lane" test on the word xor the broadcast hole.</p>
+     */
+    static final class Swar extends ScanKernel {
+
+        private static final VarHandle LONGS =
+                MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+        private static final long ONES_8 = 0x0101010101010101L;
+        private static final long HIGHS_8 = 0x8080808080808080L;
+
+        private static final long ONES_16 = 0x0001000100010001L;
+        private static final long BIT7_16 = 0x0080008000800080L;
+        private static final long HIGHS_16 = 0x8000800080008000L;
+        private static final long NON_ASCII_16 = 0xFF80FF80FF80FF80L;
+
+        public String getName() {
+            return "swar";
+        }
+
+        public boolean isAscii(CharSequence value, int from, int to) {
+            int i = from;
+            for (; i + 4 <= to; i += 4) {
+                if ((chars(value, i) & NON_ASCII_16) != 0) {
+                    return false;
+                }
+            }
+            return scalarIsAscii(value, i, to);
+        }
+
+        public boolean isAscii(byte[] value, int from, int to) {
+            int i = from;
+            for (; i + 8 <= to; i += 8) {
+                if (((long) LONGS.get(value, i) & HIGHS_8) != 0) {
+                    return false;
+                }
+            }
+            return scalarIsAscii(value, i, to);
+        }
+
+        public boolean allInClass(CharSequence value, int from, int to, CharClass members) {
+            if (!members.isWide()) {
+                return scalarAllInClass(value, from, to, members);
+            }
+            long min = ONES_16 * (0x80 - members.min);
+            long max = ONES_16 * (0x7F - members.max);
+            char[] holes = members.holes;
+            int i = from;
+            for (; i + 4 <= to; i += 4) {
+                long word = chars(value, i);
+                if ((word & NON_ASCII_16) != 0
+                        || ((word + min) & BIT7_16) != BIT7_16
+                        || ((word + max) & BIT7_16) != 0) {
+                    return false;
+                }
+                for (int h = 0; h < holes.length; h++) {
+                    long t = word ^ (ONES_16 * holes[h]);
+                    if (((t - ONES_16) & ~t & HIGHS_16) != 0) {
+                        return false;
+                    }
+                }
+            }
+            return scalarAllInClass(value, i, to, members);
+        }
+
+        public boolean allInClass(byte[] value, int from, int to, CharClass members) {
+            if (!members.isWide()) {
+                return scalarAllInClass(value, from, to, members);
+            }
+            long min = ONES_8 * (0x80 - members.min);
+            long max = ONES_8 * (0x7F - members.max);
+            char[] holes = members.holes;
+            int i = from;
+            for (; i + 8 <= to; i += 8) {
+                long word = (long) LONGS.get(value, i);
+                if ((word & HIGHS_8) != 0
+                        || ((word + min) & HIGHS_8) != HIGHS_8
+                        || ((word + max) & HIGHS_8) != 0) {
+                    return false;
+                }
+                for (int h = 0; h < holes.length; h++) {
+                    long t = word ^ (ONES_8 * holes[h]);
+                    if (((t - ONES_8) & ~t & HIGHS_8) != 0) {
+                        return false;
+                    }
+                }
+            }
+            return scalarAllInClass(value, i, to, members);
+        }
+
+        private static long chars(CharSequence value, int i) {
+            return value.charAt(i)
+                    | (long) value.charAt(i + 1) << 16
+                    | (long) value.charAt(i + 2) << 32
+                    | (long) value.charAt(i + 3) << 48;
+        }
+    }
+}
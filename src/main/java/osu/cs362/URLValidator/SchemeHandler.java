@@ -0,0 +1,61 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import java.io.Serializable;
+
+/**
+ * <p>Validates the scheme-specific part of URLs of one or more schemes.</p>
+ *
+ * <p>A {@link UrlValidator} checks the characters and the scheme of a URL
+ * itself, splits it into {@link UrlComponents} and then hands it to the
+ * handler registered for its scheme. The handler is found once per URL by
+ * the scheme ID, an index into the validator's dispatch table.</p>
+ *
+ * <p>Built in handlers:</p>
+ * <ul>
+ *   <li>http, https, ftp - {@link HierarchicalSchemeHandler#DEFAULT}, which
+ *   is also used for schemes without a handler of their own</li>
+ *   <li>file - {@link HierarchicalSchemeHandler#FILE}</li>
+ *   <li>mailto - {@link MailtoSchemeHandler}</li>
+ *   <li>data - {@link DataSchemeHandler}</li>
+ * </ul>
+ *
+ * <p>Other handlers are registered when the validator is constructed,
+ * no subclassing needed:</p>
+ * <pre>
+ *   Map&lt;String, SchemeHandler&gt; handlers = new HashMap&lt;String, SchemeHandler&gt;();
+ *   handlers.put("urn", new UrnSchemeHandler());
+ *   UrlValidator urlValidator = new UrlValidator(null, null, UrlValidator.ALLOW_ALL_SCHEMES, handlers);
+ * </pre>
+ *
+ * <p>Handlers are shared by all threads using the validator, so they must
+ * be stateless or thread-safe.</p>
+ */
+public interface SchemeHandler extends Serializable {
+
+    /**
+     * Validates the components of a URL with a valid, allowed scheme.
+     * @param validator the validator, giving access to its options and
+     * component checks
+     * @param url the components of the URL
+     * @return {@link Verdict#VALID} or the component that was rejected
+     */
+    Verdict validate(UrlValidator validator, UrlComponents url);
+}
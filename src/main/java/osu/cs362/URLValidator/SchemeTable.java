@@ -0,0 +1,221 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * <p>A fixed set of URL schemes compiled into a table for case-insensitive
+ * lookup straight from the input, without extracting or hashing a
+ * substring.</p>
+ *
+ * <p>Each scheme is given a small integer ID, its index in the order the
+ * schemes were first supplied. Lookups first switch on the length of the
+ * span and then compare the few candidates of that length, folding
+ * <code>A-Z</code> to lower case on the fly.</p>
+ *
+ * <pre>
+ *   SchemeTable table = new SchemeTable(new String[] {"http", "https"});
+ *   table.lookup("HTTPS://example.com", 0, 5);   // 1
+ *   table.lookup("ftp://example.com", 0, 3);     // SchemeTable.UNKNOWN
+ * </pre>
+ */
+public final class SchemeTable implements Serializable {
+
+    private static final long serialVersionUID = -2751384027717425903L;
+
+    /**
+     * Returned by {@link #lookup} for schemes not in the table.
+     */
+    public static final int UNKNOWN = -1;
+
+    /**
+     * Characters allowed after the first letter of a scheme (RFC 3986).
+     */
+    static final CharClass SCHEME_CHARS = CharClass.ALNUM.union(CharClass.of("+-."));
+
+    /** Schemes with a default port. */
+    private static final SchemeTable DEFAULT_PORT_SCHEMES = new SchemeTable(new String[] {"http", "https", "ftp"});
+
+    /** The default port of each scheme of DEFAULT_PORT_SCHEMES, by ID. */
+    private static final int[] DEFAULT_PORTS = {80, 443, 21};
+
+    /** Lower case scheme names, indexed by ID. */
+    private final char[][] names;
+
+    /** IDs of the schemes of each length, indexed by length. */
+    private final int[][] idsByLength;
+
+    /**
+     * Compiles the given schemes. Schemes are matched case-insensitively,
+     * duplicates are dropped and names that are not syntactically valid
+     * schemes are ignored, since no URL could ever match them.
+     * @param schemes the scheme names
+     */
+    public SchemeTable(String[] schemes) {
+        List<String> unique = new ArrayList<String>();
+        int maxLength = 0;
+        for (int i = 0; i < schemes.length; i++) {
+            if (schemes[i] == null || !isValidSyntax(schemes[i], 0, schemes[i].length())) {
+                continue;
+            }
+            String scheme = schemes[i].toLowerCase(Locale.ENGLISH);
+            if (!unique.contains(scheme)) {
+                unique.add(scheme);
+                maxLength = Math.max(maxLength, scheme.length());
+            }
+        }
+
+        this.names = new char[unique.size()][];
+        for (int id = 0; id < names.length; id++) {
+            names[id] = unique.get(id).toCharArray();
+        }
+
+        this.idsByLength = new int[maxLength + 1][];
+        for (int length = 1; length <= maxLength; length++) {
+            int count = 0;
+            for (int id = 0; id < names.length; id++) {
+                if (names[id].length == length) {
+                    count++;
+                }
+            }
+            if (count > 0) {
+                idsByLength[length] = new int[count];
+                count = 0;
+                for (int id = 0; id < names.length; id++) {
+                    if (names[id].length == length) {
+                        idsByLength[length][count++] = id;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Tests whether the span is a syntactically valid scheme:
+     * <code>ALPHA *( ALPHA / DIGIT / "+" / "-" / "." )</code>.
+     * @param value the characters holding the scheme
+     * @param from the first index, inclusive
+     * @param to the last index, exclusive
+     * @return true if the span is a valid scheme
+     */
+    public static boolean isValidSyntax(CharSequence value, int from, int to) {
+        if (from >= to || !CharClass.ALPHA.contains(value.charAt(from))) {
+            return false;
+        }
+        for (int i = from + 1; i < to; i++) {
+            if (!SCHEME_CHARS.contains(value.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Looks up the scheme held in the span, ignoring case.
+     * @param value the characters holding the scheme
+     * @param from the first index, inclusive
+     * @param to the last index, exclusive
+     * @return the ID of the scheme, or {@link #UNKNOWN}
+     */
+    public int lookup(CharSequence value, int from, int to) {
+        int length = to - from;
+        if (length <= 0 || length >= idsByLength.length) {
+            return UNKNOWN;
+        }
+        int[] ids = idsByLength[length];
+        if (ids == null) {
+            return UNKNOWN;
+        }
+        candidates:
+        for (int n = 0; n < ids.length; n++) {
+            char[] name = names[ids[n]];
+            for (int i = 0; i < length; i++) {
+                int c = value.charAt(from + i);
+                if (c >= 'A' && c <= 'Z') {
+                    c += 'a' - 'A';
+                }
+                if (c != name[i]) {
+                    continue candidates;
+                }
+            }
+            return ids[n];
+        }
+        return UNKNOWN;
+    }
+
+    /**
+     * Returns the default port of the scheme held in the span: 80 for
+     * http, 443 for https and 21 for ftp, ignoring case.
+     * @param value the characters holding the scheme
+     * @param from the first index, inclusive
+     * @param to the last index, exclusive
+     * @return the port, or -1 if the scheme has no default port
+     */
+    public static int getDefaultPort(CharSequence value, int from, int to) {
+        int id = DEFAULT_PORT_SCHEMES.lookup(value, from, to);
+        return id == UNKNOWN ? -1 : DEFAULT_PORTS[id];
+    }
+
+    /**
+     * Looks up a scheme, ignoring case.
+     * @param scheme the scheme name
+     * @return the ID of the scheme, or {@link #UNKNOWN}
+     */
+    public int lookup(String scheme) {
+        return lookup(scheme, 0, scheme.length());
+    }
+
+    /**
+     * Returns the lower case name of a scheme.
+     * @param id the scheme ID
+     * @return the scheme name
+     */
+    public String getScheme(int id) {
+        return new String(names[id]);
+    }
+
+    /**
+     * Returns the number of schemes, one more than the largest ID.
+     * @return the number of schemes
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Provide a String representation of this table.
+     * @return A String representation of this table
+     */
+    public String toString() {
+        StringBuffer buffer = new StringBuffer();
+        buffer.append("SchemeTable{");
+        for (int id = 0; id < names.length; id++) {
+            if (id > 0) {
+                buffer.append(",");
+            }
+            buffer.append(names[id]);
+        }
+        buffer.append("}");
+        return buffer.toString();
+    }
+}
@@ -0,0 +1,238 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+
+/**
+ * <p>The connection loop shared by {@link ValidationServer} and
+ * {@link UnixSocketValidationServer}: one thread serves every connection
+ * through a selector, and each connection validates what it has read
+ * into its output buffer, stopping to read while its client does not
+ * read the output.</p>
+ *
+ * <p>Subclasses open their server channel, create the connections and
+ * say what a connection does with its input.</p>
+ */
+abstract class SelectorServer implements Closeable {
+
+    final ServerSocketChannel server;
+
+    private final Selector selector;
+
+    private final Thread thread;
+
+    private volatile boolean closed;
+
+    /**
+     * Create a server over a bound channel; call {@link #startServing()}
+     * to start its thread.
+     * @param server the bound server channel
+     * @param threadName the name of the serving thread
+     * @throws IOException if the selector cannot be opened
+     */
+    SelectorServer(ServerSocketChannel server, String threadName) throws IOException {
+        this.server = server;
+        this.selector = Selector.open();
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        this.thread = new Thread(new Runnable() {
+            public void run() {
+                serve();
+            }
+        }, threadName);
+    }
+
+    /**
+     * Starts the serving thread.
+     */
+    final void startServing() {
+        thread.start();
+    }
+
+    /**
+     * Stops the server, closing every connection, and waits for its
+     * thread to end.
+     */
+    public void close() {
+        closed = true;
+        selector.wakeup();
+        if (Thread.currentThread() != thread) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Creates the connection of an accepted channel, which is already
+     * non-blocking.
+     * @param channel the accepted channel
+     * @return the connection
+     * @throws IOException if the channel cannot be set up
+     */
+    abstract Connection open(SocketChannel channel) throws IOException;
+
+    /**
+     * Called on the serving thread once every channel is closed.
+     */
+    void served() {
+    }
+
+    private void serve() {
+        try {
+            while (!closed) {
+                selector.select();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        accept();
+                    } else {
+                        Connection connection = (Connection) key.attachment();
+                        try {
+                            connection.ready(key);
+                        } catch (IOException e) {
+                            connection.close();
+                        } catch (RuntimeException e) {
+                            // a failing scheme handler ends its connection, not the server
+                            connection.close();
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // the selector failed, nothing more can be served
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                closeQuietly(key.channel());
+            }
+            closeQuietly(selector);
+            closeQuietly(server);
+            served();
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            Connection connection = open(channel);
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        }
+    }
+
+    static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // nothing left to do with it
+        }
+    }
+
+    /**
+     * The state of one client connection.
+     */
+    abstract static class Connection {
+
+        final SocketChannel channel;
+
+        SelectionKey key;
+
+        /** Bytes read, up to the buffer position. */
+        final ByteBuffer in;
+
+        /** Bytes to write, from 0 to the buffer position. */
+        final ByteBuffer out;
+
+        boolean endOfInput;
+
+        Connection(SocketChannel channel, int bufferSize) {
+            this.channel = channel;
+            this.in = ByteBuffer.allocateDirect(bufferSize);
+            this.out = ByteBuffer.allocateDirect(bufferSize);
+        }
+
+        /**
+         * Handles what has been read, as far as the output buffer allows.
+         */
+        abstract void process();
+
+        /**
+         * Tests whether there is too little room in the output buffer to go on.
+         */
+        abstract boolean isWaitingForOutput();
+
+        /**
+         * Tests whether the connection is to be closed once its output is
+         * written, which stops it being read.
+         * @param waiting whether processing stopped for want of output room
+         */
+        abstract boolean isClosing(boolean waiting);
+
+        void ready(SelectionKey key) throws IOException {
+            if (key.isReadable() && in.hasRemaining()) {
+                if (channel.read(in) < 0) {
+                    endOfInput = true;
+                }
+            }
+            boolean waiting;
+            do {
+                process();
+                waiting = isWaitingForOutput();
+                if (out.position() > 0) {
+                    out.flip();
+                    channel.write(out);
+                    out.compact();
+                }
+                // go on while what was read can be handled without reading more
+            } while (waiting && out.position() == 0);
+            boolean closing = isClosing(waiting);
+            if (closing && out.position() == 0) {
+                close();
+                return;
+            }
+            int ops = 0;
+            if (out.position() > 0) {
+                ops |= SelectionKey.OP_WRITE;
+            }
+            if (!closing && !endOfInput && !waiting) {
+                ops |= SelectionKey.OP_READ;
+            }
+            key.interestOps(ops);
+        }
+
+        void close() {
+            key.cancel();
+            closeQuietly(channel);
+        }
+    }
+}
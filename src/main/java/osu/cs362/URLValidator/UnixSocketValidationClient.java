@@ -0,0 +1,177 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>A client of {@link UnixSocketValidationServer}.</p>
+ *
+ * <p>Characters are sent as single bytes. Characters above U+00FF are
+ * sent as 0xFF, which is as non-ASCII as they are, so the verdict is the
+ * one the server's validator gives the original value. A
+ * <code>null</code> URL is sent as an empty one; both are
+ * <code>MALFORMED</code>.</p>
+ *
+ * <pre>
+ *   UnixSocketValidationClient client = UnixSocketValidationClient.connect(
+ *           UnixDomainSocketAddress.of("/run/url-validator.sock"));
+ *   Verdict verdict = client.validate("http://foo.bar.com/");
+ *   List&lt;Verdict&gt; verdicts = client.validateAll(urls);
+ *   client.close();
+ * </pre>
+ *
+ * <p>{@link #validateAll(List)} pipelines its requests, keeping up to
+ * {@link #WINDOW} of them in flight. A client holds one connection and
+ * is not safe to share between threads.</p>
+ */
+public final class UnixSocketValidationClient implements Closeable {
+
+    /** The most requests sent before their verdicts are read. */
+    public static final int WINDOW = 4096;
+
+    private static final Verdict[] VERDICTS = Verdict.values();
+
+    private final SocketChannel channel;
+
+    private final ByteBuffer out = ByteBuffer.allocateDirect(64 * 1024 + UnixSocketValidationServer.HEADER_SIZE);
+
+    private final ByteBuffer in = ByteBuffer.allocateDirect(WINDOW);
+
+    private UnixSocketValidationClient(SocketChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Connects to a server.
+     * @param address the socket file of the server
+     * @return the connected client
+     * @throws IOException if the server cannot be reached
+     */
+    public static UnixSocketValidationClient connect(UnixDomainSocketAddress address) throws IOException {
+        SocketChannel channel = SocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            channel.connect(address);
+            return new UnixSocketValidationClient(channel);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Validates one URL.
+     * @param url the URL to validate
+     * @return the verdict of the server
+     * @throws IOException if the connection fails
+     * @throws IllegalArgumentException if the URL is longer than
+     * {@link UnixSocketValidationServer#MAX_LENGTH}
+     */
+    public Verdict validate(CharSequence url) throws IOException {
+        put(url);
+        flush();
+        receive(1);
+        return verdict(in.get());
+    }
+
+    /**
+     * Validates URLs, pipelining the requests.
+     * @param urls the URLs to validate
+     * @return the verdicts of the server, in the order of the URLs
+     * @throws IOException if the connection fails
+     * @throws IllegalArgumentException if a URL is longer than
+     * {@link UnixSocketValidationServer#MAX_LENGTH}
+     */
+    public List<Verdict> validateAll(List<? extends CharSequence> urls) throws IOException {
+        List<Verdict> verdicts = new ArrayList<Verdict>(urls.size());
+        for (int from = 0; from < urls.size(); from += WINDOW) {
+            int to = Math.min(urls.size(), from + WINDOW);
+            for (int i = from; i < to; i++) {
+                put(urls.get(i));
+            }
+            flush();
+            receive(to - from);
+            while (in.hasRemaining()) {
+                verdicts.add(verdict(in.get()));
+            }
+        }
+        return verdicts;
+    }
+
+    /**
+     * Closes the connection.
+     * @throws IOException if closing fails
+     */
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private void put(CharSequence url) throws IOException {
+        int length = url == null ? 0 : url.length();
+        if (length > UnixSocketValidationServer.MAX_LENGTH) {
+            throw new IllegalArgumentException("URL longer than " + UnixSocketValidationServer.MAX_LENGTH);
+        }
+        if (out.remaining() < UnixSocketValidationServer.HEADER_SIZE + length) {
+            flush();
+        }
+        out.put((byte) (length >>> 8));
+        out.put((byte) length);
+        for (int i = 0; i < length; i++) {
+            char c = url.charAt(i);
+            out.put((byte) (c > 0xFF ? 0xFF : c));
+        }
+    }
+
+    private void flush() throws IOException {
+        out.flip();
+        while (out.hasRemaining()) {
+            channel.write(out);
+        }
+        out.clear();
+    }
+
+    /**
+     * Reads verdicts into the input buffer, leaving it ready to get them.
+     */
+    private void receive(int count) throws IOException {
+        in.clear();
+        in.limit(count);
+        while (in.hasRemaining()) {
+            if (channel.read(in) < 0) {
+                throw new EOFException("Connection closed by the server");
+            }
+        }
+        in.flip();
+    }
+
+    private static Verdict verdict(byte code) throws IOException {
+        if (code < 0 || code >= VERDICTS.length) {
+            throw new IOException("Unknown verdict " + code);
+        }
+        return VERDICTS[code];
+    }
+}
@@ -0,0 +1,181 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Files;
+
+/**
+ * <p>A server validating URLs for processes on the same host, over a
+ * UNIX domain socket, with a binary protocol that costs three bytes of
+ * framing per URL.</p>
+ *
+ * <p>Each request is a two byte big-endian length followed by that many
+ * bytes of URL, each byte taken as one ISO-8859-1 character. Each
+ * response is one byte, the ordinal of the URL's {@link Verdict}.
+ * Requests may be pipelined: a client can send many before reading, and
+ * the verdicts come back in request order, packed together.</p>
+ *
+ * <pre>
+ *   UnixSocketValidationServer server = UnixSocketValidationServer.start(urlValidator,
+ *           UnixDomainSocketAddress.of("/run/url-validator.sock"));
+ *   ...
+ *   UnixSocketValidationClient client = UnixSocketValidationClient.connect(server.getAddress());
+ *   Verdict verdict = client.validate("http://foo.bar.com/");
+ * </pre>
+ *
+ * <p>As in {@link ValidationServer} one thread serves every connection
+ * through a selector, URLs are validated where they were read and a
+ * connection stops being read while its client does not read its
+ * verdicts. Closing the server deletes its socket file.</p>
+ */
+public final class UnixSocketValidationServer extends SelectorServer {
+
+    /** The longest URL a request can hold. */
+    public static final int MAX_LENGTH = 0xFFFF;
+
+    /** The size of the length before each URL. */
+    static final int HEADER_SIZE = 2;
+
+    private static final int BUFFER_SIZE = 64 * 1024 + HEADER_SIZE;
+
+    private final UrlValidator validator;
+
+    private final UnixDomainSocketAddress address;
+
+    private UnixSocketValidationServer(UrlValidator validator, UnixDomainSocketAddress address,
+            ServerSocketChannel server) throws IOException {
+        super(server, "url-validation-socket-server");
+        this.validator = validator;
+        this.address = address;
+    }
+
+    /**
+     * Starts serving on a thread of its own.
+     * @param validator the validator to run
+     * @param address the socket file to create, which must not exist
+     * @return the running server
+     * @throws IOException if the socket cannot be bound
+     */
+    public static UnixSocketValidationServer start(UrlValidator validator, UnixDomainSocketAddress address)
+            throws IOException {
+        if (validator == null) {
+            throw new IllegalArgumentException("Validator is required");
+        }
+        ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            server.bind(address);
+            UnixSocketValidationServer validationServer = new UnixSocketValidationServer(validator, address, server);
+            validationServer.startServing();
+            return validationServer;
+        } catch (IOException e) {
+            server.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the address the server listens on.
+     * @return the socket address
+     */
+    public UnixDomainSocketAddress getAddress() {
+        return address;
+    }
+
+    /**
+     * Runs a server until the process is killed.
+     * @param args the path of the socket file
+     * @throws IOException if the socket cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: UnixSocketValidationServer <socket path>");
+            System.exit(2);
+        }
+        UnixSocketValidationServer server = start(UrlValidator.builder().compile().build(),
+                UnixDomainSocketAddress.of(args[0]));
+        System.out.println("Validating URLs at " + server.getAddress().getPath());
+    }
+
+    Connection open(SocketChannel channel) {
+        return new SocketConnection(channel);
+    }
+
+    /**
+     * Deletes the socket file once the server is closed.
+     */
+    void served() {
+        try {
+            Files.deleteIfExists(address.getPath());
+        } catch (IOException e) {
+            // left for whoever binds the path next
+        }
+    }
+
+    /**
+     * The state of one client connection. Bytes read are used from 0 to
+     * the position of <code>in</code>.
+     */
+    private final class SocketConnection extends Connection {
+
+        final ByteSequence line = new ByteSequence();
+
+        final UrlComponents url = new UrlComponents();
+
+        SocketConnection(SocketChannel channel) {
+            super(channel, BUFFER_SIZE);
+        }
+
+        boolean isWaitingForOutput() {
+            return !out.hasRemaining();
+        }
+
+        boolean isClosing(boolean waiting) {
+            // a request cut short is dropped
+            return endOfInput && !waiting;
+        }
+
+        /**
+         * Validates the complete requests that have been read, as far as
+         * the output buffer allows.
+         */
+        void process() {
+            int end = in.position();
+            int from = 0;
+            while (out.hasRemaining() && end - from >= HEADER_SIZE) {
+                int length = ((in.get(from) & 0xFF) << 8) | (in.get(from + 1) & 0xFF);
+                if (end - from - HEADER_SIZE < length) {
+                    break;
+                }
+                Verdict verdict = validator.validate(line.set(in, from + HEADER_SIZE, length), url);
+                out.put((byte) verdict.ordinal());
+                from += HEADER_SIZE + length;
+            }
+            if (from > 0) {
+                in.flip();
+                in.position(from);
+                in.compact();
+            }
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * <p>Writes the canonical form of a validated URL from its
+ * {@link UrlComponents}, for deduplication.</p>
+ *
+ * <p>The canonical form is the URL with</p>
+ * <ul>
+ *   <li>the scheme and host in lower case, user info as written,</li>
+ *   <li>the port left out if it is empty or the default of the scheme,
+ *       and written without leading zeros otherwise,</li>
+ *   <li>an empty path after an authority written as <code>/</code>,</li>
+ *   <li>the dot segments of a path starting with <code>/</code> removed
+ *       as in RFC 3986 section 5.2.4,</li>
+ *   <li>the hex digits of percent-encodings in upper case, and</li>
+ *   <li>an empty query or fragment left out, with its delimiter.</li>
+ * </ul>
+ *
+ * <p>The form is written in one pass, in order, so it can be fed to a
+ * hash as well as to a buffer: the segments of a path that survive dot
+ * segment removal are found first, as offsets kept in the
+ * {@link UrlComponents}, and then written. Nothing else is kept and
+ * nothing is allocated per URL.</p>
+ */
+final class UrlCanonicalizer {
+
+    private UrlCanonicalizer() {
+    }
+
+    /**
+     * Appends the canonical form of a valid URL.
+     * @param url The components of the URL.
+     * @param out Where to append it.
+     */
+    static void canonicalize(UrlComponents url, StringBuilder out) {
+        write(url, new StringOutput(out));
+    }
+
+    /**
+     * Returns the xxHash64 of the canonical form of a valid URL, without
+     * writing the form out.
+     * @param url The components of the URL.
+     * @return the hash of the form's ASCII bytes, seed 0
+     */
+    static long fingerprint(UrlComponents url) {
+        if (url.hash == null) {
+            url.hash = new XxHash64();
+        }
+        XxHash64 hash = url.hash;
+        hash.reset();
+        write(url, new HashOutput(hash));
+        return hash.getValue();
+    }
+
+    /**
+     * Puts the canonical form of a valid URL, one byte per character.
+     * @param url The components of the URL.
+     * @param out Where to put it.
+     * @throws BufferOverflowException if the buffer may not have room,
+     * in which case nothing is put
+     */
+    static void canonicalize(UrlComponents url, ByteBuffer out) {
+        // the canonical form is at most one character longer
+        if (out.remaining() < url.value.length() + 1) {
+            throw new BufferOverflowException();
+        }
+        write(url, new ByteOutput(out));
+    }
+
+    private static void write(UrlComponents url, Output out) {
+        CharSequence value = url.value;
+        for (int i = 0; i < url.schemeEnd; i++) {
+            out.put(toLowerCase(value.charAt(i)));
+        }
+        out.put(':');
+
+        if (url.authorityStart >= 0) {
+            out.put('/');
+            out.put('/');
+            int hostStart = url.authorityStart;
+            if (url.userInfoEnd >= 0) {
+                // user info is case sensitive
+                hostStart = url.userInfoEnd + 1;
+                writeEncoded(value, url.authorityStart, hostStart, out);
+            }
+            writeAuthority(value, hostStart, url.authorityEnd,
+                    SchemeTable.getDefaultPort(value, 0, url.schemeEnd), out);
+            if (url.pathStart == url.pathEnd) {
+                out.put('/');
+            }
+        }
+
+        if (url.pathStart < url.pathEnd && value.charAt(url.pathStart) == '/') {
+            writePath(url, out);
+        } else {
+            writeEncoded(value, url.pathStart, url.pathEnd, out);
+        }
+
+        if (url.queryStart >= 0 && url.queryStart < url.queryEnd) {
+            out.put('?');
+            writeEncoded(value, url.queryStart, url.queryEnd, out);
+        }
+        if (url.fragmentStart >= 0 && url.fragmentStart < url.fragmentEnd) {
+            out.put('#');
+            writeEncoded(value, url.fragmentStart, url.fragmentEnd, out);
+        }
+    }
+
+    private static void writeAuthority(CharSequence value, int from, int to, int defaultPort, Output out) {
+        // the port is the digits after the last colon
+        int colon = to;
+        int port = 0;
+        for (int i = to - 1; i >= from; i--) {
+            char c = value.charAt(i);
+            if (c == ':') {
+                colon = i;
+                break;
+            }
+            if (c < '0' || c > '9') {
+                break;
+            }
+        }
+        for (int i = from; i < colon; i++) {
+            out.put(toLowerCase(value.charAt(i)));
+        }
+        // leading zeros are dropped, so equal ports are written alike
+        int digits = colon + 1;
+        while (digits < to - 1 && value.charAt(digits) == '0') {
+            digits++;
+        }
+        for (int i = digits; i < to && port <= PortSet.MAX_PORT; i++) {
+            port = port * 10 + value.charAt(i) - '0';
+        }
+        if (digits < to && port != defaultPort) {
+            out.put(':');
+            for (int i = digits; i < to; i++) {
+                out.put(value.charAt(i));
+            }
+        }
+    }
+
+    /**
+     * Writes an absolute path, removing dot segments.
+     */
+    private static void writePath(UrlComponents url, Output out) {
+        CharSequence value = url.value;
+        int to = url.pathEnd;
+        // the starts of the segments kept, each at its '/'
+        int[] kept = url.segments;
+        int count = 0;
+        boolean trailingSlash = false;
+        int i = url.pathStart;
+        while (i < to) {
+            int next = i + 1;
+            while (next < to && value.charAt(next) != '/') {
+                next++;
+            }
+            int segment = next - i - 1;
+            if (segment == 1 && value.charAt(i + 1) == '.') {
+                // "/." or "/./"
+                trailingSlash = next == to;
+            } else if (segment == 2 && value.charAt(i + 1) == '.' && value.charAt(i + 2) == '.') {
+                // "/.." or "/../": drop the last segment kept
+                if (count > 0) {
+                    count--;
+                }
+                trailingSlash = next == to;
+            } else {
+                if (kept == null || count == kept.length) {
+                    kept = url.segments = kept == null ? new int[16] : Arrays.copyOf(kept, 2 * count);
+                }
+                kept[count++] = i;
+            }
+            i = next;
+        }
+
+        for (int k = 0; k < count; k++) {
+            int start = kept[k];
+            int end = start + 1;
+            while (end < to && value.charAt(end) != '/') {
+                end++;
+            }
+            writeEncoded(value, start, end, out);
+        }
+        if (trailingSlash) {
+            out.put('/');
+        }
+    }
+
+    /**
+     * Copies characters, upper casing the hex digits of percent-encodings.
+     */
+    private static void writeEncoded(CharSequence value, int from, int to, Output out) {
+        for (int i = from; i < to; i++) {
+            char c = value.charAt(i);
+            out.put(c);
+            if (c == '%' && i + 2 < to && isHexDigit(value.charAt(i + 1)) && isHexDigit(value.charAt(i + 2))) {
+                out.put(toUpperCase(value.charAt(i + 1)));
+                out.put(toUpperCase(value.charAt(i + 2)));
+                i += 2;
+            }
+        }
+    }
+
+    private static boolean isHexDigit(char c) {
+        return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+    }
+
+    private static char toLowerCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    private static char toUpperCase(char c) {
+        return c >= 'a' && c <= 'z' ? (char) (c - ('a' - 'A')) : c;
+    }
+
+    /**
+     * Where a canonical form is written.
+     */
+    private abstract static class Output {
+
+        abstract void put(char c);
+    }
+
+    private static final class StringOutput extends Output {
+
+        private final StringBuilder out;
+
+        StringOutput(StringBuilder out) {
+            this.out = out;
+        }
+
+        void put(char c) {
+            out.append(c);
+        }
+    }
+
+    private static final class ByteOutput extends Output {
+
+        private final ByteBuffer out;
+
+        ByteOutput(ByteBuffer out) {
+            this.out = out;
+        }
+
+        void put(char c) {
+            out.put((byte) c);
+        }
+    }
+
+    private static final class HashOutput extends Output {
+
+        private final XxHash64 hash;
+
+        HashOutput(XxHash64 hash) {
+            this.hash = hash;
+        }
+
+        void put(char c) {
+            hash.update(c);
+        }
+    }
+}
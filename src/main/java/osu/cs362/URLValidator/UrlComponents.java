@@ -0,0 +1,472 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * <p>The components of a URL, held as offsets into the original value.</p>
+ *
+ * <p>A URL is split the same way as the BNF derived expression (RFC2396)
+ * <code>^(([^:/?#]+):)?(//([^/?#]*))?([^?#]*)(\?([^#]*))?(#(.*))?</code>
+ * but by a single scan, without a regular expression and without copying
+ * any component. Absent components have a start and end of -1; the
+ * delimiters (<code>:</code>, <code>//</code>, <code>?</code>,
+ * <code>#</code>) are never part of a span.</p>
+ *
+ * <p>The components are kept whatever the verdict, unless it is
+ * {@link Verdict#MALFORMED} or {@link Verdict#NON_ASCII}, so the spans of
+ * a URL that failed a later check, such as its query, can still be
+ * read.</p>
+ *
+ * <p>Instances are mutable and may be reused for many URLs by the same
+ * thread, but are not safe to share between threads.</p>
+ *
+ * <pre>
+ *   UrlComponents url = new UrlComponents();
+ *   if (urlValidator.validate("http://foo.bar.com/p?q=1", url).isValid()) {
+ *       String host = url.getAuthority();    // "foo.bar.com"
+ *   }
+ * </pre>
+ */
+public final class UrlComponents {
+
+    CharSequence value;
+
+    int schemeId = UrlValidator.INVALID_SCHEME;
+
+    int schemeEnd = -1;
+
+    int authorityStart = -1;
+    int authorityEnd = -1;
+
+    /** The last '@' of the authority, which ends the user info, or -1. */
+    int userInfoEnd = -1;
+
+    int pathStart = -1;
+    int pathEnd = -1;
+
+    int queryStart = -1;
+    int queryEnd = -1;
+
+    int fragmentStart = -1;
+    int fragmentEnd = -1;
+
+    /** Where the checks rejected the URL, if they could tell. */
+    ValidationMetrics.Reject reject;
+
+    /** Whether the credential policy flagged the URL. */
+    boolean flagged;
+
+    /** The fingerprint of the last URL fingerprinted. */
+    long fingerprint;
+
+    /** Scratch space of the canonicalizer, kept for the next URL. */
+    int[] segments;
+
+    XxHash64 hash;
+
+    /**
+     * The parameters of the query found by {@link #indexQuery()}, three
+     * offsets each: start, end of the name (the '=' or the end) and end.
+     */
+    int[] parameters;
+
+    /** The number of parameters in {@link #parameters}, or -1 until indexed. */
+    int parameterCount = -1;
+
+    /** The view returned by {@link #getQueryView()}, kept for the next URL. */
+    private QueryView queryView;
+
+    /**
+     * Splits the value into its components.
+     * @param value the URL to split
+     * @return false if the value has no URL structure, which only happens
+     * when the fragment holds a line terminator
+     */
+    boolean parse(CharSequence value) {
+        this.value = value;
+        this.schemeId = UrlValidator.INVALID_SCHEME;
+        this.parameterCount = -1;
+        int length = value.length();
+
+        int i = 0;
+        while (i < length) {
+            char c = value.charAt(i);
+            if (c == ':' || c == '/' || c == '?' || c == '#') {
+                break;
+            }
+            i++;
+        }
+        if (i > 0 && i < length && value.charAt(i) == ':') {
+            schemeEnd = i;
+            i++;
+        } else {
+            schemeEnd = -1;
+            i = 0;
+        }
+
+        if (i + 1 < length && value.charAt(i) == '/' && value.charAt(i + 1) == '/') {
+            i += 2;
+            authorityStart = i;
+            int at = -1;
+            while (i < length) {
+                char c = value.charAt(i);
+                if (c == '/' || c == '?' || c == '#') {
+                    break;
+                }
+                if (c == '@') {
+                    at = i;
+                }
+                i++;
+            }
+            authorityEnd = i;
+            userInfoEnd = at;
+        } else {
+            authorityStart = -1;
+            authorityEnd = -1;
+            userInfoEnd = -1;
+        }
+
+        pathStart = i;
+        while (i < length) {
+            char c = value.charAt(i);
+            if (c == '?' || c == '#') {
+                break;
+            }
+            i++;
+        }
+        pathEnd = i;
+
+        if (i < length && value.charAt(i) == '?') {
+            i++;
+            queryStart = i;
+            while (i < length && value.charAt(i) != '#') {
+                i++;
+            }
+            queryEnd = i;
+        } else {
+            queryStart = -1;
+            queryEnd = -1;
+        }
+
+        if (i < length) {
+            fragmentStart = i + 1;
+            fragmentEnd = length;
+            // '.' of (#(.*)) does not match line terminators
+            for (int j = fragmentStart; j < length; j++) {
+                char c = value.charAt(j);
+                if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                    return false;
+                }
+            }
+        } else {
+            fragmentStart = -1;
+            fragmentEnd = -1;
+        }
+        return true;
+    }
+
+    /**
+     * Finds the '&amp;' separated parameters of the query, leaving out empty
+     * ones, and records their offsets in {@link #parameters}. The index
+     * is kept until the next URL is parsed.
+     * @return the number of parameters, 0 if there is no query
+     */
+    int indexQuery() {
+        if (parameterCount >= 0) {
+            return parameterCount;
+        }
+        CharSequence value = this.value;
+        int[] index = parameters;
+        int count = 0;
+        int start = queryStart;
+        while (start >= 0 && start < queryEnd) {
+            int nameEnd = -1;
+            int end = start;
+            while (end < queryEnd) {
+                char c = value.charAt(end);
+                if (c == '&') {
+                    break;
+                }
+                if (c == '=' && nameEnd < 0) {
+                    nameEnd = end;
+                }
+                end++;
+            }
+            if (end > start) {
+                if (index == null || 3 * count == index.length) {
+                    index = parameters = index == null ? new int[3 * 16] : Arrays.copyOf(index, 6 * count);
+                }
+                index[3 * count] = start;
+                index[3 * count + 1] = nameEnd < 0 ? end : nameEnd;
+                index[3 * count + 2] = end;
+                count++;
+            }
+            start = end + 1;
+        }
+        parameterCount = count;
+        return count;
+    }
+
+    /**
+     * Returns the URL these components were split from.
+     * @return the URL
+     */
+    public CharSequence getValue() {
+        return value;
+    }
+
+    /**
+     * Returns the ID of the scheme in the validator's scheme table,
+     * {@link SchemeTable#UNKNOWN} for a scheme that is only allowed by
+     * ALLOW_ALL_SCHEMES, or a negative value if the scheme is invalid.
+     * @return the scheme ID
+     */
+    public int getSchemeId() {
+        return schemeId;
+    }
+
+    /**
+     * Returns the end of the scheme, which always starts at 0.
+     * @return the end of the scheme, exclusive, or -1 if there is none
+     */
+    public int getSchemeEnd() {
+        return schemeEnd;
+    }
+
+    /**
+     * Returns the start of the authority, just after the "//".
+     * @return the start of the authority, or -1 if there is none
+     */
+    public int getAuthorityStart() {
+        return authorityStart;
+    }
+
+    /**
+     * Returns the end of the authority.
+     * @return the end of the authority, exclusive, or -1 if there is none
+     */
+    public int getAuthorityEnd() {
+        return authorityEnd;
+    }
+
+    /**
+     * Returns the end of the user info, at the last '@' of the authority.
+     * The user info starts with the authority.
+     * @return the end of the user info, exclusive, or -1 if there is none
+     */
+    public int getUserInfoEnd() {
+        return userInfoEnd;
+    }
+
+    /**
+     * Returns whether the URL passed validation with user info that
+     * {@link CredentialPolicy#FLAG} flagged.
+     * @return whether the last URL validated was flagged
+     */
+    public boolean isFlagged() {
+        return flagged;
+    }
+
+    /**
+     * Returns the start of the path. Every URL has a path, maybe empty.
+     * @return the start of the path
+     */
+    public int getPathStart() {
+        return pathStart;
+    }
+
+    /**
+     * Returns the end of the path.
+     * @return the end of the path, exclusive
+     */
+    public int getPathEnd() {
+        return pathEnd;
+    }
+
+    /**
+     * Returns the start of the query, just after the "?".
+     * @return the start of the query, or -1 if there is none
+     */
+    public int getQueryStart() {
+        return queryStart;
+    }
+
+    /**
+     * Returns the end of the query.
+     * @return the end of the query, exclusive, or -1 if there is none
+     */
+    public int getQueryEnd() {
+        return queryEnd;
+    }
+
+    /**
+     * Returns the start of the fragment, just after the "#".
+     * @return the start of the fragment, or -1 if there is none
+     */
+    public int getFragmentStart() {
+        return fragmentStart;
+    }
+
+    /**
+     * Returns the end of the fragment.
+     * @return the end of the fragment, exclusive, or -1 if there is none
+     */
+    public int getFragmentEnd() {
+        return fragmentEnd;
+    }
+
+    /**
+     * Returns the fingerprint left by
+     * {@link UrlValidator#fingerprint(CharSequence, UrlComponents)}.
+     * @return the fingerprint of the last valid URL fingerprinted
+     */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Returns a view of the parameters of the query. The view belongs to
+     * these components: it is the same object for every URL and shows the
+     * query of the last URL split, indexed the first time it is asked for.
+     * @return the parameters of the query
+     */
+    public QueryView getQueryView() {
+        if (queryView == null) {
+            queryView = new QueryView(this);
+        }
+        return queryView;
+    }
+
+    /**
+     * Appends the path with its percent-encodings decoded as UTF-8.
+     * Escapes that validation would reject are appended as written.
+     * @param out Where to append the path.
+     * @throws IOException if <code>out</code> does
+     */
+    public void decodePathTo(Appendable out) throws IOException {
+        PercentDecoder.decode(value, pathStart, pathEnd, false, out);
+    }
+
+    /**
+     * Puts the bytes of the path with its percent-encodings decoded.
+     * @param out Where to put the path.
+     * @return the number of bytes put
+     * @throws BufferOverflowException if the buffer has less room than
+     * the encoded path, in which case nothing is put
+     */
+    public int decodePathTo(ByteBuffer out) {
+        return PercentDecoder.decode(value, pathStart, pathEnd, out);
+    }
+
+    /**
+     * Appends the query, without the "?", with its percent-encodings
+     * decoded as UTF-8. A '+' is left as it is. Nothing is appended if
+     * there is no query.
+     * @param out Where to append the query.
+     * @throws IOException if <code>out</code> does
+     */
+    public void decodeQueryTo(Appendable out) throws IOException {
+        if (queryStart >= 0) {
+            PercentDecoder.decode(value, queryStart, queryEnd, false, out);
+        }
+    }
+
+    /**
+     * Puts the bytes of the query, without the "?", with its
+     * percent-encodings decoded. Nothing is put if there is no query.
+     * @param out Where to put the query.
+     * @return the number of bytes put
+     * @throws BufferOverflowException if the buffer has less room than
+     * the encoded query, in which case nothing is put
+     */
+    public int decodeQueryTo(ByteBuffer out) {
+        return queryStart < 0 ? 0 : PercentDecoder.decode(value, queryStart, queryEnd, out);
+    }
+
+    /**
+     * Returns the scheme as written, without the ":".
+     * @return the scheme, or <code>null</code> if there is none
+     */
+    public String getScheme() {
+        return schemeEnd < 0 ? null : substring(0, schemeEnd);
+    }
+
+    /**
+     * Returns the authority, without the leading "//".
+     * @return the authority, or <code>null</code> if there is none
+     */
+    public String getAuthority() {
+        return substring(authorityStart, authorityEnd);
+    }
+
+    /**
+     * Returns the user info, without the "@".
+     * @return the user info, or <code>null</code> if there is none
+     */
+    public String getUserInfo() {
+        return userInfoEnd < 0 ? null : substring(authorityStart, userInfoEnd);
+    }
+
+    /**
+     * Returns the path.
+     * @return the path, maybe empty
+     */
+    public String getPath() {
+        return substring(pathStart, pathEnd);
+    }
+
+    /**
+     * Returns the query, without the "?".
+     * @return the query, or <code>null</code> if there is none
+     */
+    public String getQuery() {
+        return substring(queryStart, queryEnd);
+    }
+
+    /**
+     * Returns the fragment, without the "#".
+     * @return the fragment, or <code>null</code> if there is none
+     */
+    public String getFragment() {
+        return substring(fragmentStart, fragmentEnd);
+    }
+
+    private String substring(int start, int end) {
+        if (start < 0) {
+            return null;
+        }
+        return value.subSequence(start, end).toString();
+    }
+
+    /**
+     * Provide a String representation of these components.
+     * @return A String representation of these components
+     */
+    public String toString() {
+        return "UrlComponents{scheme=" + getScheme()
+                + ",authority=" + getAuthority()
+                + ",path=" + getPath()
+                + ",query=" + getQuery()
+                + ",fragment=" + getFragment() + "}";
+    }
+}
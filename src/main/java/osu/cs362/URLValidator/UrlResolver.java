@@ -0,0 +1,172 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/**
+ * <p>Resolves a relative reference against a base URL, as in RFC 3986
+ * section 5.2.</p>
+ *
+ * <p>The target is written straight from the component spans of the base
+ * and of the reference into a buffer, and its dot segments are removed in
+ * place, so no component is copied out and no intermediate URL is made.
+ * The reference is resolved strictly: a reference with a scheme is taken
+ * as it is, even if the scheme is the base's.</p>
+ */
+final class UrlResolver {
+
+    private UrlResolver() {
+    }
+
+    /**
+     * Writes the target of a reference.
+     * @param base The components of the base URL, which has a scheme.
+     * @param reference The components of the reference.
+     * @param target Where to append the target.
+     */
+    static void resolve(UrlComponents base, UrlComponents reference, StringBuilder target) {
+        UrlComponents path;
+        UrlComponents query;
+        if (reference.schemeEnd >= 0) {
+            append(reference, 0, reference.schemeEnd, target);
+            target.append(':');
+            appendAuthority(reference, target);
+            path = reference;
+            query = reference;
+        } else {
+            append(base, 0, base.schemeEnd, target);
+            target.append(':');
+            if (reference.authorityStart >= 0) {
+                appendAuthority(reference, target);
+                path = reference;
+                query = reference;
+            } else {
+                appendAuthority(base, target);
+                if (reference.pathStart == reference.pathEnd) {
+                    path = base;
+                    query = reference.queryStart >= 0 ? reference : base;
+                } else {
+                    path = reference;
+                    query = reference;
+                }
+            }
+        }
+
+        int pathStart = target.length();
+        if (path == reference && reference.schemeEnd < 0 && reference.authorityStart < 0
+                && reference.pathStart < reference.pathEnd && reference.value.charAt(reference.pathStart) != '/') {
+            // merge the reference with the directory of the base path
+            if (base.authorityStart >= 0 && base.pathStart == base.pathEnd) {
+                target.append('/');
+            } else {
+                int slash = base.pathEnd - 1;
+                while (slash >= base.pathStart && base.value.charAt(slash) != '/') {
+                    slash--;
+                }
+                append(base, base.pathStart, slash + 1, target);
+            }
+        }
+        append(path, path.pathStart, path.pathEnd, target);
+        // the base path is kept as it is when the reference has none
+        if (path == reference) {
+            removeDotSegments(target, pathStart);
+        }
+
+        if (query.queryStart >= 0) {
+            target.append('?');
+            append(query, query.queryStart, query.queryEnd, target);
+        }
+        if (reference.fragmentStart >= 0) {
+            target.append('#');
+            append(reference, reference.fragmentStart, reference.fragmentEnd, target);
+        }
+    }
+
+    private static void appendAuthority(UrlComponents url, StringBuilder target) {
+        if (url.authorityStart >= 0) {
+            target.append('/').append('/');
+            append(url, url.authorityStart, url.authorityEnd, target);
+        }
+    }
+
+    private static void append(UrlComponents url, int from, int to, StringBuilder target) {
+        target.append(url.value, from, to);
+    }
+
+    /**
+     * Removes the dot segments of the path from <code>start</code> to the
+     * end of the buffer, as in RFC 3986 section 5.2.4. The output never
+     * gets ahead of the input, so it is written over the input.
+     */
+    static void removeDotSegments(StringBuilder path, int start) {
+        int end = path.length();
+        int in = start;
+        int out = start;
+        while (in < end) {
+            int left = end - in;
+            char c0 = path.charAt(in);
+            char c1 = left > 1 ? path.charAt(in + 1) : 0;
+            char c2 = left > 2 ? path.charAt(in + 2) : 0;
+            char c3 = left > 3 ? path.charAt(in + 3) : 0;
+            if (c0 == '.' && c1 == '.' && c2 == '/') {
+                // A: "../"
+                in += 3;
+            } else if (c0 == '.' && c1 == '/') {
+                // A: "./"
+                in += 2;
+            } else if (c0 == '/' && c1 == '.' && (c2 == '/' || left == 2)) {
+                // B: "/./" or a final "/." becomes "/"
+                if (left == 2) {
+                    path.setCharAt(in + 1, '/');
+                }
+                in += 1;
+                if (c2 == '/') {
+                    in += 1;
+                }
+            } else if (c0 == '/' && c1 == '.' && c2 == '.' && (c3 == '/' || left == 3)) {
+                // C: "/../" or a final "/.." becomes "/", dropping the last output segment
+                if (left == 3) {
+                    path.setCharAt(in + 2, '/');
+                }
+                in += 2;
+                if (c3 == '/') {
+                    in += 1;
+                }
+                out = lastSlash(path, start, out);
+            } else if ((c0 == '.' && left == 1) || (c0 == '.' && c1 == '.' && left == 2)) {
+                // D: "." or ".."
+                in = end;
+            } else {
+                // E: move the first segment, with its leading '/'
+                do {
+                    path.setCharAt(out++, path.charAt(in++));
+                } while (in < end && path.charAt(in) != '/');
+            }
+        }
+        path.setLength(out);
+    }
+
+    private static int lastSlash(StringBuilder path, int start, int out) {
+        for (int i = out - 1; i >= start; i--) {
+            if (path.charAt(i) == '/') {
+                return i;
+            }
+        }
+        return start;
+    }
+}
@@ -0,0 +1,359 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>A <code>Flow.Processor</code> validating each URL it receives and
+ * publishing the {@link Verdict}s in the same order.</p>
+ *
+ * <p>The processor requests at most <code>batchSize * parallelism * 2</code>
+ * URLs from upstream beyond those its subscriber has taken, so a slow
+ * subscriber slows the publisher down instead of filling memory. URLs
+ * that arrive while earlier ones are being validated are queued and
+ * validated together, up to <code>batchSize</code> per task, sharing one
+ * {@link UrlComponents}. With a parallelism of 1 and no executor batches
+ * run on the thread that delivers the URLs; otherwise up to
+ * <code>parallelism</code> batches run at once on the executor and their
+ * verdicts are published in order.</p>
+ *
+ * <pre>
+ *   SubmissionPublisher&lt;CharSequence&gt; publisher = new SubmissionPublisher&lt;CharSequence&gt;();
+ *   UrlValidationProcessor processor = new UrlValidationProcessor(urlValidator, 64, 4, executor);
+ *   publisher.subscribe(processor);
+ *   processor.subscribe(verdictSubscriber);
+ * </pre>
+ *
+ * <p>A processor has one subscriber; later subscribers are sent
+ * <code>onError</code>. An upstream error is passed on at once, dropping
+ * verdicts not yet delivered; completion is passed on after the last
+ * verdict.</p>
+ */
+public final class UrlValidationProcessor implements Flow.Processor<CharSequence, Verdict> {
+
+    /** Default number of URLs validated by one task. */
+    public static final int DEFAULT_BATCH_SIZE = 64;
+
+    private final UrlValidator validator;
+
+    private final int batchSize;
+
+    private final int parallelism;
+
+    /** Where batches run, or null to run them in the drain loop. */
+    private final Executor executor;
+
+    /** Most URLs requested from upstream and not yet delivered downstream. */
+    private final long capacity;
+
+    private final ConcurrentLinkedQueue<CharSequence> input = new ConcurrentLinkedQueue<CharSequence>();
+
+    private final AtomicLong demand = new AtomicLong();
+
+    private final AtomicInteger wip = new AtomicInteger();
+
+    private volatile Flow.Subscription upstream;
+
+    private volatile Flow.Subscriber<? super Verdict> downstream;
+
+    private volatile boolean upstreamDone;
+
+    private volatile Throwable error;
+
+    private volatile boolean cancelled;
+
+    /* The fields below are only used by the drain loop. */
+
+    private final ArrayDeque<Batch> batches = new ArrayDeque<Batch>();
+
+    private long requested;
+
+    private long emitted;
+
+    private boolean terminated;
+
+    /**
+     * Create a processor validating on the thread delivering the URLs, in
+     * batches of {@link #DEFAULT_BATCH_SIZE}.
+     * @param validator the validator to run
+     */
+    public UrlValidationProcessor(UrlValidator validator) {
+        this(validator, DEFAULT_BATCH_SIZE, 1, null);
+    }
+
+    /**
+     * Create a processor.
+     * @param validator the validator to run
+     * @param batchSize the most URLs validated by one task
+     * @param parallelism the most batches validated at once
+     * @param executor where to validate batches; <code>null</code> for the
+     * thread delivering the URLs if <code>parallelism</code> is 1, else
+     * the common fork-join pool
+     */
+    public UrlValidationProcessor(UrlValidator validator, int batchSize, int parallelism, Executor executor) {
+        if (validator == null) {
+            throw new IllegalArgumentException("Validator is required");
+        }
+        if (batchSize < 1 || parallelism < 1) {
+            throw new IllegalArgumentException("Batch size and parallelism must be positive");
+        }
+        this.validator = validator;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.executor = executor == null && parallelism > 1 ? ForkJoinPool.commonPool() : executor;
+        this.capacity = (long) batchSize * parallelism * 2;
+    }
+
+    public void subscribe(Flow.Subscriber<? super Verdict> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+        synchronized (this) {
+            if (downstream != null) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    public void request(long n) {
+                    }
+
+                    public void cancel() {
+                    }
+                });
+                subscriber.onError(new IllegalStateException("Processor already has a subscriber"));
+                return;
+            }
+            downstream = subscriber;
+        }
+        subscriber.onSubscribe(new Flow.Subscription() {
+            public void request(long n) {
+                if (n <= 0) {
+                    fail(new IllegalArgumentException("Request must be positive: " + n));
+                    return;
+                }
+                for (;;) {
+                    long current = demand.get();
+                    long next = current + n < 0 ? Long.MAX_VALUE : current + n;
+                    if (demand.compareAndSet(current, next)) {
+                        break;
+                    }
+                }
+                drain();
+            }
+
+            public void cancel() {
+                cancelled = true;
+                Flow.Subscription subscription = upstream;
+                if (subscription != null) {
+                    subscription.cancel();
+                }
+                drain();
+            }
+        });
+        drain();
+    }
+
+    public void onSubscribe(Flow.Subscription subscription) {
+        synchronized (this) {
+            if (upstream != null) {
+                subscription.cancel();
+                return;
+            }
+            upstream = subscription;
+        }
+        if (cancelled) {
+            subscription.cancel();
+        }
+        drain();
+    }
+
+    public void onNext(CharSequence item) {
+        if (item == null) {
+            throw new NullPointerException("item");
+        }
+        input.offer(item);
+        drain();
+    }
+
+    public void onError(Throwable throwable) {
+        error = throwable;
+        drain();
+    }
+
+    public void onComplete() {
+        upstreamDone = true;
+        drain();
+    }
+
+    private void fail(Throwable throwable) {
+        error = throwable;
+        Flow.Subscription subscription = upstream;
+        if (subscription != null) {
+            subscription.cancel();
+        }
+        drain();
+    }
+
+    /**
+     * Runs the processor: dispatches queued URLs, publishes finished
+     * verdicts, passes on termination and requests more URLs. Only one
+     * thread runs the loop at a time; calls made meanwhile make it run
+     * once more.
+     */
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+        int missed = 1;
+        do {
+            Flow.Subscriber<? super Verdict> subscriber = downstream;
+            if (cancelled || terminated) {
+                input.clear();
+                batches.clear();
+            } else if (error != null) {
+                if (subscriber != null) {
+                    terminated = true;
+                    input.clear();
+                    batches.clear();
+                    subscriber.onError(error);
+                }
+            } else {
+                dispatch();
+                if (subscriber != null) {
+                    emit(subscriber);
+                    if (!terminated && upstreamDone && input.isEmpty() && batches.isEmpty()) {
+                        terminated = true;
+                        subscriber.onComplete();
+                    } else {
+                        requestUpstream();
+                    }
+                }
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void dispatch() {
+        int running = 0;
+        for (Batch batch : batches) {
+            if (!batch.done) {
+                running++;
+            }
+        }
+        // batches run inline are done when run() returns, so they do not
+        // count as running and every queued URL is validated in this pass
+        while ((executor == null || running < parallelism) && !input.isEmpty()) {
+            Batch batch = new Batch();
+            for (CharSequence value; batch.size < batchSize && (value = input.poll()) != null;) {
+                batch.values[batch.size++] = value;
+            }
+            batches.add(batch);
+            if (executor == null) {
+                batch.run();
+            } else {
+                running++;
+                try {
+                    executor.execute(batch);
+                } catch (RejectedExecutionException e) {
+                    fail(e);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void emit(Flow.Subscriber<? super Verdict> subscriber) {
+        Batch batch;
+        while ((batch = batches.peek()) != null && batch.done) {
+            if (batch.failure != null) {
+                fail(batch.failure);
+                return;
+            }
+            while (batch.emitted < batch.size && demand.get() > 0) {
+                Verdict verdict = batch.verdicts[batch.emitted];
+                batch.verdicts[batch.emitted] = null;
+                batch.values[batch.emitted++] = null;
+                emitted++;
+                if (demand.get() != Long.MAX_VALUE) {
+                    demand.decrementAndGet();
+                }
+                subscriber.onNext(verdict);
+                if (cancelled) {
+                    return;
+                }
+            }
+            if (batch.emitted < batch.size) {
+                return;
+            }
+            batches.poll();
+        }
+    }
+
+    private void requestUpstream() {
+        Flow.Subscription subscription = upstream;
+        if (subscription == null || upstreamDone) {
+            return;
+        }
+        long free = capacity - (requested - emitted);
+        // request in batches rather than one URL at a time
+        if (free >= batchSize) {
+            requested += free;
+            subscription.request(free);
+        }
+    }
+
+    /**
+     * URLs validated by one task, and their verdicts.
+     */
+    private final class Batch implements Runnable {
+
+        final CharSequence[] values = new CharSequence[batchSize];
+
+        final Verdict[] verdicts = new Verdict[batchSize];
+
+        int size;
+
+        int emitted;
+
+        Throwable failure;
+
+        volatile boolean done;
+
+        public void run() {
+            try {
+                UrlComponents url = new UrlComponents();
+                for (int i = 0; i < size; i++) {
+                    verdicts[i] = validator.validate(values[i], url);
+                }
+            } catch (Throwable e) {
+                failure = e;
+            }
+            done = true;
+            if (executor != null) {
+                drain();
+            }
+        }
+    }
+}
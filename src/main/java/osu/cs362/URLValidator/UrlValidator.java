@@ -19,11 +19,9 @@ package osu.cs362.URLValidator;
 
 
 import java.io.Serializable;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.regex.Matcher;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 /**
@@ -35,6 +33,7 @@ import java.util.regex.Pattern;
  * included then fragments are flagged as illegal.</li>
  * <li>ALLOW_ALL_SCHEMES - [FALSE] By default only http, https, and ftp are
  * considered valid schemes.  Enabling this option will let any scheme pass validation.</li>
+ * Schemes are matched case-insensitively, so "HTTP://foo.bar.com/" is valid too.
  *
  * <p>Originally based in on php script by Debbie Dyer, validation.php v1.2b, Date: 03/07/02,
  * http://javascript.internet.com. However, this validation now bears little resemblance
@@ -100,86 +99,67 @@ public class UrlValidator implements Serializable {
      */
     public static final long ALLOW_LOCAL_URLS = 1 << 3;
 
-    // Drop numeric, and  "+-." for now
-    private static final String AUTHORITY_CHARS_REGEX = "\\p{Alnum}\\-\\.";
-
     /**
-     * This expression derived/taken from the BNF for URI (RFC2396).
+     * Scheme ID of a URL without a valid, allowed scheme.
      */
-    private static final String URL_REGEX =
-            "^(([^:/?#]+):)?(//([^/?#]*))?([^?#]*)(\\?([^#]*))?(#(.*))?";
-    //                                                                      12            3  4          5       6   7        8 9
-    private static final Pattern URL_PATTERN = Pattern.compile(URL_REGEX);
+    static final int INVALID_SCHEME = -2;
 
     /**
-     * Schema/Protocol (ie. http:, ftp:, file:, etc).
+     * The characters of a host, <code>[\p{Alnum}\-\.]</code> in the
+     * AUTHORITY_REGEX <code>^([\p{Alnum}\-\.]*)(:\d*)?(.*)?</code> the
+     * authority scan replaces. Drop numeric, and "+-." for now.
      */
-    private static final int PARSE_URL_SCHEME = 2;
+    private static final CharClass HOST_CHARS = CharClass.ALNUM.union(CharClass.of("-."));
 
     /**
-     * Includes hostname/ip and port number.
+     * The port of an authority without one, in {@link #checkAuthority}.
      */
-    private static final int PARSE_URL_AUTHORITY = 4;
-
-    private static final int PARSE_URL_PATH = 5;
-
-    private static final int PARSE_URL_QUERY = 7;
-
-    private static final int PARSE_URL_FRAGMENT = 9;
+    private static final int NO_PORT = -1;
 
     /**
-     * Protocol (ie. http:, ftp:,https:).
+     * The port of an authority with a ':' but no digits.
      */
-    private static final String SCHEME_REGEX = "^\\p{Alpha}[\\p{Alnum}\\+\\-\\.]*";
-    private static final Pattern SCHEME_PATTERN = Pattern.compile(SCHEME_REGEX);
-
-    private static final String AUTHORITY_REGEX =
-            "^([" + AUTHORITY_CHARS_REGEX + "]*)(:\\d*)?(.*)?";
-    //                                                                            1                          2  3       4
-    private static final Pattern AUTHORITY_PATTERN = Pattern.compile(AUTHORITY_REGEX);
-
-    private static final int PARSE_AUTHORITY_HOST_IP = 1;
-
-    private static final int PARSE_AUTHORITY_PORT = 2;
+    private static final int EMPTY_PORT = -2;
 
     /**
-     * Should always be empty.
+     * The characters of PATH_REGEX <code>^(/[-\w:@&amp;?=+,.!/~*'%$_;\(\)]*)?$</code>,
+     * scanned for in place of the regex.
      */
-    private static final int PARSE_AUTHORITY_EXTRA = 3;
+    private static final CharClass PATH_CHARS = CharClass.ALNUM.union(CharClass.of("-_:@&?=+,.!/~*'%$;()"));
 
-    private static final String PATH_REGEX = "^(/[-\\w:@&?=+,.!/~*'%$_;\\(\\)]*)?$";
-    private static final Pattern PATH_PATTERN = Pattern.compile(PATH_REGEX);
+    /**
+     * The characters of user info in RFC 3986: unreserved, sub-delims,
+     * ':' and the '%' of pct-encoded.
+     */
+    private static final CharClass USER_INFO_CHARS = CharClass.ALNUM.union(CharClass.of("-._~!$&'()*+,;=:%"));
     
     private static final String QUERY_REGEX = "^(.*)$";
     
     private static final Pattern QUERY_PATTERN = Pattern.compile(QUERY_REGEX);
 
-    private static final String LEGAL_ASCII_REGEX = "^\\p{ASCII}+$";
-    private static final Pattern ASCII_PATTERN = Pattern.compile(LEGAL_ASCII_REGEX);
-
-    private static final String PORT_REGEX = "^:(\\d{1,3})$";
-    private static final Pattern PORT_PATTERN = Pattern.compile(PORT_REGEX);
-
     /**
-     * Holds the set of current validation options.
+     * The characters QUERY_REGEX's <code>.</code> matches within ASCII.
      */
-    private final long options;
+    private static final CharClass QUERY_CHARS = CharClass.ASCII.without("\r\n");
 
     /**
-     * The set of schemes that are allowed to be in a URL.
+     * Scans for non-ASCII characters and query characters in place of
+     * the old <code>^\p{ASCII}+$</code> and QUERY_REGEX, which walk long
+     * URLs one char at a time.
      */
-    private final Set allowedSchemes;
+    private static final ScanKernel SCAN_KERNEL = ScanKernel.getInstance();
 
     /**
-     * Regular expressions used to manually validate authorities if IANA
-     * domain name validation isn't desired.
+     * The options, schemes, handlers and TLD policy, resolved at construction.
      */
-    private final RegexValidator authorityValidator;
+    private final ValidationPlan plan;
 
     /**
-     * If no schemes are provided, default to this set.
+     * The class generated for the plan, if the validator was built with
+     * {@link Builder#compile()}. Not serialized; a deserialized validator
+     * is interpreted.
      */
-    private static final String[] DEFAULT_SCHEMES = {"http", "https", "ftp"};
+    private final transient CompiledValidator compiled;
 
     /**
      * Singleton instance of this class with default schemes and options.
@@ -194,6 +174,14 @@ public class UrlValidator implements Serializable {
         return DEFAULT_URL_VALIDATOR;
     }
 
+    /**
+     * Returns a builder for a validator with the default schemes and no options.
+     * @return a new builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
     /**
      * Create a UrlValidator with default properties.
      */
@@ -256,20 +244,35 @@ public class UrlValidator implements Serializable {
      * enables both of those options.
      */
     public UrlValidator(String[] schemes, RegexValidator authorityValidator, long options) {
-        this.options = options;
-
-        if (isOn(ALLOW_ALL_SCHEMES)) {
-            this.allowedSchemes = Collections.EMPTY_SET;
-        } else {
-            if (schemes == null) {
-                schemes = DEFAULT_SCHEMES;
-            }
-            this.allowedSchemes = new HashSet();
-            this.allowedSchemes.addAll(Arrays.asList(schemes));
-        }
+        this(schemes, authorityValidator, options, null);
+    }
 
-        this.authorityValidator = authorityValidator;
+    /**
+     * Customizable constructor with additional {@link SchemeHandler}s.
+     * @param schemes the set of valid schemes
+     * @param authorityValidator Regular expression validator used to validate the authority part
+     * @param options Validation options. Set using the public constants of this class.
+     * To set multiple options, simply add them together:
+     * <p><code>ALLOW_2_SLASHES + NO_FRAGMENTS</code></p>
+     * enables both of those options.
+     * @param schemeHandlers Handlers by scheme name, replacing the built in
+     * handler of the scheme if there is one. Handlers of schemes that are not
+     * allowed are ignored. May be <code>null</code>.
+     */
+    public UrlValidator(String[] schemes, RegexValidator authorityValidator, long options,
+            Map<String, ? extends SchemeHandler> schemeHandlers) {
+        this(schemes, authorityValidator, options, schemeHandlers, CredentialPolicy.REJECT, null, null, false);
+    }
 
+    /**
+     * Create a validator with every setting of the {@link Builder}.
+     */
+    UrlValidator(String[] schemes, RegexValidator authorityValidator, long options,
+            Map<String, ? extends SchemeHandler> schemeHandlers, CredentialPolicy credentialPolicy,
+            PortSet allowedPorts, ValidationMetrics metrics, boolean compile) {
+        this.plan = new ValidationPlan(schemes, authorityValidator, options, schemeHandlers, credentialPolicy,
+                allowedPorts, metrics, getClass());
+        this.compiled = compile && !plan.legacyChecks ? ValidatorCompiler.compile(plan) : null;
     }
 
     /**
@@ -280,50 +283,248 @@ public class UrlValidator implements Serializable {
      * @return true if the url is valid.
      */
     public boolean isValid(String value) {
-        if (value == null) {
-            return false;
+        return validate(value).isValid();
+    }
+
+    /**
+     * <p>Checks if a field has a valid url address, reporting the first
+     * component that was rejected.</p>
+     *
+     * @param value The value validation is being performed on.  A <code>null</code>
+     * value is considered invalid.
+     * @return {@link Verdict#VALID} or the reason the url is invalid.
+     */
+    public Verdict validate(CharSequence value) {
+        return validate(value, new UrlComponents());
+    }
+
+    /**
+     * <p>Checks if a field has a valid url address, leaving its components
+     * in <code>url</code>.</p>
+     *
+     * @param value The value validation is being performed on.  A <code>null</code>
+     * value is considered invalid.
+     * @param url Receives the components of the value, may be reused.
+     * @return {@link Verdict#VALID} or the reason the url is invalid.
+     */
+    public Verdict validate(CharSequence value, UrlComponents url) {
+        ValidationEvent event = new ValidationEvent();
+        if (event.isEnabled()) {
+            event.begin();
+            Verdict verdict = validateMetered(value, url);
+            ValidationEvents.end(event, ValidationEvents.URL_VALIDATOR, value, verdict.isValid(),
+                    url.reject != null ? url.reject.name() : verdict.name());
+            return verdict;
         }
+        return validateMetered(value, url);
+    }
 
-        if (!ASCII_PATTERN.matcher(value).matches()) {
-            return false;
+    /**
+     * <p>Validates a url address and returns its canonical form, for
+     * telling apart URLs that differ only in spelling.</p>
+     *
+     * @param value The value validation is being performed on.
+     * @return the canonical form, or <code>null</code> if the url is invalid.
+     * @see #canonicalize(CharSequence, UrlComponents, StringBuilder)
+     */
+    public String canonicalize(CharSequence value) {
+        StringBuilder canonical = new StringBuilder(value == null ? 0 : value.length() + 1);
+        return canonicalize(value, new UrlComponents(), canonical).isValid() ? canonical.toString() : null;
+    }
+
+    /**
+     * <p>Validates a url address and, if it is valid, appends its canonical
+     * form: the scheme and host in lower case, no default or empty port, an
+     * empty path after an authority written as "/", no dot segments in an
+     * absolute path (RFC 3986 section 5.2.4), percent-encodings in upper
+     * case and no empty query or fragment.</p>
+     *
+     * <p>The canonical form is written straight from the components found
+     * by validation, in one pass and without intermediate Strings.</p>
+     *
+     * @param value The value validation is being performed on.  A <code>null</code>
+     * value is considered invalid.
+     * @param url Receives the components of the value, may be reused.
+     * @param canonical Where to append the canonical form; left unchanged
+     * if the url is invalid.
+     * @return {@link Verdict#VALID} or the reason the url is invalid.
+     */
+    public Verdict canonicalize(CharSequence value, UrlComponents url, StringBuilder canonical) {
+        Verdict verdict = validate(value, url);
+        if (verdict.isValid()) {
+            UrlCanonicalizer.canonicalize(url, canonical);
         }
+        return verdict;
+    }
 
-        // Check the whole url address structure
-        Matcher urlMatcher = URL_PATTERN.matcher(value);
-        if (!urlMatcher.matches()) {
-            return false;
+    /**
+     * <p>Validates a url address and, if it is valid, puts its canonical
+     * form in the buffer, one ASCII byte per character.</p>
+     *
+     * @param value The value validation is being performed on.  A <code>null</code>
+     * value is considered invalid.
+     * @param url Receives the components of the value, may be reused.
+     * @param canonical Where to put the canonical form; left unchanged if
+     * the url is invalid.
+     * @return {@link Verdict#VALID} or the reason the url is invalid.
+     * @throws java.nio.BufferOverflowException if the buffer has less room
+     * than the length of the value plus one, in which case nothing is put
+     * @see #canonicalize(CharSequence, UrlComponents, StringBuilder)
+     */
+    public Verdict canonicalize(CharSequence value, UrlComponents url, ByteBuffer canonical) {
+        Verdict verdict = validate(value, url);
+        if (verdict.isValid()) {
+            UrlCanonicalizer.canonicalize(url, canonical);
         }
+        return verdict;
+    }
 
-        String scheme = urlMatcher.group(PARSE_URL_SCHEME);
-        if (!isValidScheme(scheme)) {
-            return false;
+    /**
+     * <p>Validates a url address and, if it is valid, computes a 64 bit
+     * fingerprint of its canonical form, for deduplicating URLs in a set of
+     * primitive longs.</p>
+     *
+     * <p>The fingerprint is the xxHash64 (seed 0) of the ASCII bytes of the
+     * form {@link #canonicalize(CharSequence, UrlComponents, StringBuilder)}
+     * would write, so URLs that canonicalize alike share it. The form is
+     * hashed as it is produced and never built.</p>
+     *
+     * @param value The value validation is being performed on.  A <code>null</code>
+     * value is considered invalid.
+     * @param url Receives the components of the value and, if it is valid,
+     * its fingerprint, returned by {@link UrlComponents#getFingerprint()}.
+     * @return {@link Verdict#VALID} or the reason the url is invalid.
+     */
+    public Verdict fingerprint(CharSequence value, UrlComponents url) {
+        Verdict verdict = validate(value, url);
+        if (verdict.isValid()) {
+            url.fingerprint = UrlCanonicalizer.fingerprint(url);
+        }
+        return verdict;
+    }
+
+    /**
+     * <p>Resolves a reference, such as an href found on a page, against
+     * the URL of the page and validates the result.</p>
+     *
+     * @param base The URL the reference is relative to.
+     * @param reference The reference, relative or absolute.
+     * @return the resolved URL, or <code>null</code> if the base or the
+     * resolved URL is invalid.
+     * @see #resolve(UrlComponents, CharSequence, StringBuilder, UrlComponents)
+     */
+    public String resolve(CharSequence base, CharSequence reference) {
+        UrlComponents baseUrl = new UrlComponents();
+        if (!validate(base, baseUrl).isValid()) {
+            return null;
+        }
+        StringBuilder target = new StringBuilder(base.length() + (reference == null ? 0 : reference.length()));
+        return resolve(baseUrl, reference, target, new UrlComponents()).isValid() ? target.toString() : null;
+    }
+
+    /**
+     * <p>Resolves a reference against a base URL as in RFC 3986 section
+     * 5.2 and validates the result.</p>
+     *
+     * <p>The result is merged from the components of the base and of the
+     * reference straight into <code>target</code>, with dot segments
+     * removed, and validated as soon as it is written. Reusing the buffer
+     * and the components, a page's links are resolved without making an
+     * intermediate URL.</p>
+     *
+     * @param base The components of the base URL, as left by a validation
+     * it passed.
+     * @param reference The reference, relative or absolute.
+     * @param target Cleared and then given the resolved URL, whatever the
+     * verdict.
+     * @param url Receives the components of the resolved URL; not the
+     * components of the base.
+     * @return {@link Verdict#VALID} or the reason the resolved URL is invalid,
+     * {@link Verdict#MALFORMED} if the reference is <code>null</code> or
+     * has no URL structure.
+     * @throws IllegalArgumentException if the base has no scheme or
+     * <code>url</code> is the base.
+     */
+    public Verdict resolve(UrlComponents base, CharSequence reference, StringBuilder target, UrlComponents url) {
+        if (base.value == null || base.schemeEnd < 0) {
+            throw new IllegalArgumentException("Base URL has no scheme");
+        }
+        if (base == url) {
+            throw new IllegalArgumentException("Base URL and resolved URL share components");
+        }
+        target.setLength(0);
+        if (reference == null || !url.parse(reference)) {
+            return Verdict.MALFORMED;
+        }
+        UrlResolver.resolve(base, url, target);
+        return validate(target, url);
+    }
+
+    private Verdict validateMetered(CharSequence value, UrlComponents url) {
+        ValidationMetrics metrics = plan.metrics;
+        if (metrics == null) {
+            return validateUnmetered(value, url);
+        }
+
+        long start = System.nanoTime();
+        Verdict verdict = validateUnmetered(value, url);
+        metrics.record(verdict, url.reject, url.flagged, System.nanoTime() - start);
+        return verdict;
+    }
+
+    private Verdict validateUnmetered(CharSequence value, UrlComponents url) {
+        if (compiled != null) {
+            return compiled.validate(this, value, url);
+        }
+
+        Verdict verdict = parse(value, url);
+        if (verdict != Verdict.VALID) {
+            return verdict;
         }
 
-        String authority = urlMatcher.group(PARSE_URL_AUTHORITY);
-        if ("file".equals(scheme) && "".equals(authority)) {
-           // Special case - file: allows an empty authority
+        int schemeId;
+        if (plan.legacyChecks) {
+            schemeId = isValidScheme(url.getScheme()) ? plan.schemes.lookup(value, 0, url.schemeEnd) : INVALID_SCHEME;
         } else {
-           // Validate the authority
-           if (!isValidAuthority(authority)) {
-               return false;
-            }
+            schemeId = getSchemeId(value, 0, url.schemeEnd);
+        }
+        if (schemeId == INVALID_SCHEME) {
+            return Verdict.SCHEME;
         }
+        url.schemeId = schemeId;
 
-        if (!isValidPath(urlMatcher.group(PARSE_URL_PATH))) {
-            return false;
+        SchemeHandler handler = schemeId >= 0 ? plan.handlers[schemeId] : plan.unknownSchemeHandler;
+        if (handler == null) {
+            // a subclass let through a scheme that is not allowed
+            handler = HierarchicalSchemeHandler.DEFAULT;
         }
+        return handler.validate(this, url);
+    }
 
-        if (!isValidQuery(urlMatcher.group(PARSE_URL_QUERY))) {
-            return false;
+    /**
+     * Checks the value is ASCII and splits it into <code>url</code>.
+     * @param value The URL to split, may be <code>null</code>.
+     * @param url Receives the components of the value.
+     * @return {@link Verdict#VALID} if the value has URL structure,
+     * otherwise the reason it does not.
+     */
+    static Verdict parse(CharSequence value, UrlComponents url) {
+        url.reject = null;
+        url.flagged = false;
+        if (value == null || value.length() == 0) {
+            return Verdict.MALFORMED;
         }
 
-        if (!isValidFragment(urlMatcher.group(PARSE_URL_FRAGMENT))) {
-            
-        	return false;
-        	
+        if (!SCAN_KERNEL.isAscii(value, 0, value.length())) {
+            return Verdict.NON_ASCII;
         }
 
-        return true;
+        // Check the whole url address structure
+        if (!url.parse(value)) {
+            return Verdict.MALFORMED;
+        }
+
+        return Verdict.VALID;
     }
 
     /**
@@ -339,23 +540,194 @@ public class UrlValidator implements Serializable {
             return false;
         }
 
-        if (!SCHEME_PATTERN.matcher(scheme).matches()) {
-            return false;
+        return getSchemeId(scheme, 0, scheme.length()) != INVALID_SCHEME;
+    }
+
+    /**
+     * Looks up the scheme held in <code>value[from, to)</code> without
+     * extracting it, ignoring case.
+     * @param value The characters holding the scheme.
+     * @param from The first index of the scheme, inclusive.
+     * @param to The last index of the scheme, exclusive. A negative value
+     * means there is no scheme.
+     * @return The ID of the scheme in the table of allowed schemes,
+     * {@link SchemeTable#UNKNOWN} for a well formed scheme that is only
+     * allowed by ALLOW_ALL_SCHEMES, or {@link #INVALID_SCHEME}.
+     */
+    int getSchemeId(CharSequence value, int from, int to) {
+        if (to < 0 || !SchemeTable.isValidSyntax(value, from, to)) {
+            return INVALID_SCHEME;
         }
 
-        if (isOff(ALLOW_ALL_SCHEMES)) {
+        int schemeId = plan.schemes.lookup(value, from, to);
+        if (schemeId == SchemeTable.UNKNOWN && plan.unknownSchemeHandler == null) {
+            return INVALID_SCHEME;
+        }
 
-            if (!this.allowedSchemes.contains(scheme)) {
-                return false;
+        return schemeId;
+    }
+
+    /**
+     * Returns the domain validator matching the ALLOW_LOCAL_URLS option.
+     * @return the domain validator
+     */
+    DomainValidator getDomainValidator() {
+        return plan.domainValidator;
+    }
+
+    /**
+     * Returns where this validator records its validations.
+     * @return the metrics, or <code>null</code> if metrics are off
+     */
+    public ValidationMetrics getMetrics() {
+        return plan.metrics;
+    }
+
+    /**
+     * Returns the resolved configuration of this validator.
+     * @return the plan
+     */
+    ValidationPlan getPlan() {
+        return plan;
+    }
+
+    /**
+     * Tests whether this validator runs a class generated for its plan.
+     * @return true if the validator is compiled
+     */
+    boolean isCompiled() {
+        return compiled != null;
+    }
+
+    /**
+     * Validates the authority, path, query and fragment of a URL with the
+     * "//" grammar of http, https and ftp.
+     * @param url The components of the URL.
+     * @param allowEmptyAuthority Whether "//" may be followed directly by
+     * the path, as in file URLs.
+     * @return {@link Verdict#VALID} or the component that was rejected.
+     */
+    Verdict validateHierarchy(UrlComponents url, boolean allowEmptyAuthority) {
+        if (plan.legacyChecks) {
+            return validateHierarchyLegacy(url, allowEmptyAuthority);
+        }
+
+        return validateHierarchy(url, allowEmptyAuthority, plan.allowDoubleSlashes, plan.rejectFragments,
+                plan.credentialPolicy, plan.authorityValidator, plan.domainValidator, plan.allowedPorts);
+    }
+
+    /**
+     * validateHierarchy with the options of the plan as arguments, so
+     * that generated validators can pass them as constants.
+     * @param url The components of the URL.
+     * @param allowEmptyAuthority Whether the authority may be empty.
+     * @param allowDoubleSlashes ALLOW_2_SLASHES.
+     * @param rejectFragments NO_FRAGMENTS.
+     * @param credentialPolicy What to do with user info.
+     * @param authorityValidator The authority validator, may be <code>null</code>.
+     * @param domainValidator The domain validator for the TLD policy.
+     * @param allowedPorts The ports allowed, or <code>null</code> for all.
+     * @return {@link Verdict#VALID} or the component that was rejected.
+     */
+    static Verdict validateHierarchy(UrlComponents url, boolean allowEmptyAuthority,
+            boolean allowDoubleSlashes, boolean rejectFragments, CredentialPolicy credentialPolicy,
+            RegexValidator authorityValidator, DomainValidator domainValidator, PortSet allowedPorts) {
+        CharSequence value = url.value;
+        if (allowEmptyAuthority && url.authorityStart >= 0 && url.authorityStart == url.authorityEnd) {
+            // Special case - file: allows an empty authority
+        } else {
+            int hostStart = url.authorityStart;
+            if (url.userInfoEnd >= 0 && credentialPolicy != CredentialPolicy.REJECT) {
+                if (!isValidUserInfo(value, url.authorityStart, url.userInfoEnd)) {
+                    url.reject = ValidationMetrics.Reject.USER_INFO;
+                    return Verdict.AUTHORITY;
+                }
+                hostStart = url.userInfoEnd + 1;
+            }
+            int defaultPort = allowedPorts == null ? -1 : SchemeTable.getDefaultPort(value, 0, url.schemeEnd);
+            ValidationMetrics.Reject reject = checkAuthority(value, url.authorityStart, hostStart, url.authorityEnd,
+                    authorityValidator, domainValidator, allowedPorts, defaultPort);
+            if (reject != null) {
+                url.reject = reject;
+                return Verdict.AUTHORITY;
             }
         }
 
-        return true;
+        ValidationMetrics.Reject reject = checkPath(value, url.pathStart, url.pathEnd, allowDoubleSlashes);
+        if (reject != null) {
+            url.reject = reject;
+            return Verdict.PATH;
+        }
+
+        if (url.queryStart >= 0 && !isValidQuery(value, url.queryStart, url.queryEnd)) {
+            // every query is rejected; a bad escape is only reported apart
+            if (!PercentDecoder.isValidEncoding(value, url.queryStart, url.queryEnd)) {
+                url.reject = ValidationMetrics.Reject.PERCENT_ENCODING;
+            }
+            return Verdict.QUERY;
+        }
+
+        if (rejectFragments && url.fragmentStart >= 0) {
+            return Verdict.FRAGMENT;
+        }
+
+        url.flagged = url.userInfoEnd >= 0 && credentialPolicy == CredentialPolicy.FLAG;
+        return Verdict.VALID;
+    }
+
+    /**
+     * validateHierarchy for subclasses overriding the protected checks,
+     * which need each component as a String.
+     */
+    private Verdict validateHierarchyLegacy(UrlComponents url, boolean allowEmptyAuthority) {
+        if (allowEmptyAuthority && url.authorityStart >= 0 && url.authorityStart == url.authorityEnd) {
+            // Special case - file: allows an empty authority
+        } else if (!isValidAuthority(url.getAuthority())) {
+            return Verdict.AUTHORITY;
+        } else if (plan.allowedPorts != null && !isAllowedPort(plan.allowedPorts,
+                trailingPort(url.value, url.authorityStart, url.authorityEnd),
+                SchemeTable.getDefaultPort(url.value, 0, url.schemeEnd))) {
+            // isValidAuthority has no scheme to take the default port from
+            return Verdict.AUTHORITY;
+        }
+
+        if (!isValidPath(url.getPath())) {
+            return Verdict.PATH;
+        }
+
+        if (!isValidQuery(url.getQuery())) {
+            return Verdict.QUERY;
+        }
+
+        if (!isValidFragment(url.getFragment())) {
+            return Verdict.FRAGMENT;
+        }
+
+        url.flagged = url.userInfoEnd >= 0 && plan.credentialPolicy == CredentialPolicy.FLAG;
+        return Verdict.VALID;
+    }
+
+    /**
+     * Validates the fragment of a URL, if it has one.
+     * @param url The components of the URL.
+     * @return {@link Verdict#VALID} or {@link Verdict#FRAGMENT}.
+     */
+    Verdict validateFragment(UrlComponents url) {
+        if (plan.legacyChecks) {
+            return isValidFragment(url.getFragment()) ? Verdict.VALID : Verdict.FRAGMENT;
+        }
+        if (plan.rejectFragments && url.fragmentStart >= 0) {
+            return Verdict.FRAGMENT;
+        }
+        return Verdict.VALID;
     }
 
     /**
      * Returns true if the authority is properly formatted.  An authority is the combination
      * of hostname and port.  A <code>null</code> authority value is considered invalid.
+     * An explicit port is checked against the allowed ports; an authority
+     * without one is accepted here, its scheme's default port being
+     * checked by the caller.
      * @param authority Authority value to validate.
      * @return true if authority (hostname and port) is valid.
      */
@@ -364,45 +736,157 @@ public class UrlValidator implements Serializable {
             return false;
         }
 
-        // check manual authority validation if specified
+        int hostStart = 0;
+        int at = authority.lastIndexOf('@');
+        if (at >= 0 && plan.credentialPolicy != CredentialPolicy.REJECT) {
+            if (!isValidUserInfo(authority, 0, at)) {
+                return false;
+            }
+            hostStart = at + 1;
+        }
+        return checkAuthority(authority, 0, hostStart, authority.length(),
+                plan.authorityValidator, plan.domainValidator, plan.allowedPorts, -1) == null;
+    }
+
+    /**
+     * Tests the user info <code>value[from, to)</code> against RFC 3986:
+     * <code>*( unreserved / pct-encoded / sub-delims / ":" )</code>.
+     */
+    private static boolean isValidUserInfo(CharSequence value, int from, int to) {
+        return SCAN_KERNEL.allInClass(value, from, to, USER_INFO_CHARS)
+                && PercentDecoder.isValidEncoding(value, from, to);
+    }
+
+    /**
+     * isValidAuthority on <code>value[from, to)</code>, a negative
+     * <code>from</code> meaning there is no authority. The host and port
+     * start at <code>hostStart</code>, after any user info.
+     * @param allowedPorts The ports allowed, or <code>null</code> for all.
+     * @param defaultPort The port of the scheme, checked against
+     * <code>allowedPorts</code> when the authority has none, or -1.
+     * @return null if the authority is valid, otherwise where it was rejected
+     */
+    private static ValidationMetrics.Reject checkAuthority(CharSequence value, int from, int hostStart, int to,
+            RegexValidator authorityValidator, DomainValidator domainValidator, PortSet allowedPorts,
+            int defaultPort) {
+        if (from < 0) {
+            return ValidationMetrics.Reject.AUTHORITY;
+        }
+
+        // check manual authority validation if specified, which still
+        // leaves the port to the allowed ports
         if (authorityValidator != null) {
-            if (authorityValidator.isValid(authority)) {
-                return true;
+            if (authorityValidator.isValid(value.subSequence(from, to).toString())) {
+                return allowedPorts == null || isAllowedPort(allowedPorts, trailingPort(value, from, to), defaultPort)
+                        ? null : ValidationMetrics.Reject.PORT;
             }
         }
 
-        Matcher authorityMatcher = AUTHORITY_PATTERN.matcher(authority);
-        if (!authorityMatcher.matches()) {
-            return false;
+        // split host, port and extra in one scan, parsing the port as we go
+        // and noting whether the host is made of digits and dots only
+        int hostEnd = hostStart;
+        boolean numeric = true;
+        boolean dotted = false;
+        while (hostEnd < to) {
+            char c = value.charAt(hostEnd);
+            if (!HOST_CHARS.contains(c)) {
+                break;
+            }
+            if (c == '.') {
+                dotted = true;
+            } else if (c < '0' || c > '9') {
+                numeric = false;
+            }
+            hostEnd++;
+        }
+        int port = NO_PORT;
+        int extraStart = hostEnd;
+        if (hostEnd < to && value.charAt(hostEnd) == ':') {
+            extraStart++;
+            port = 0;
+            while (extraStart < to) {
+                int digit = value.charAt(extraStart) - '0';
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+                if (port <= PortSet.MAX_PORT) {
+                    port = port * 10 + digit;
+                }
+                extraStart++;
+            }
+            if (extraStart == hostEnd + 1) {
+                port = EMPTY_PORT;
+            }
+        }
+        // the regex's (.*) did not match line terminators
+        for (int i = extraStart; i < to; i++) {
+            char c = value.charAt(i);
+            if (c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029') {
+                return ValidationMetrics.Reject.AUTHORITY;
+            }
         }
 
-        String hostLocation = authorityMatcher.group(PARSE_AUTHORITY_HOST_IP);
-        // check if authority is hostname or IP address:
-        // try a hostname first since that's much more likely
-        DomainValidator domainValidator = DomainValidator.getInstance(isOn(ALLOW_LOCAL_URLS));
-        if (!domainValidator.isValid(hostLocation)) {
-            // try an IP address
-            InetAddressValidator inetAddressValidator =
-                InetAddressValidator.getInstance();
-            if (!inetAddressValidator.isValid(hostLocation)) {
-                // isn't either one, so the URL is invalid
-                return false;
+        String hostLocation = value.subSequence(hostStart, hostEnd).toString();
+        // check if authority is hostname or IP address: only digits and
+        // dots can make an IP address, and they never make a domain name
+        // with a top-level domain, so one check decides
+        if (numeric && hostEnd > hostStart) {
+            if (!InetAddressValidator.getInstance().isValidInet4Address(hostLocation)
+                    && !domainValidator.isValidNumeric(hostLocation)) {
+                return dotted ? ValidationMetrics.Reject.IP : ValidationMetrics.Reject.HOST;
             }
+        } else if (!domainValidator.isValid(hostLocation)) {
+            return ValidationMetrics.Reject.HOST;
         }
 
-        String port = authorityMatcher.group(PARSE_AUTHORITY_PORT);
-        if (port != null) {
-            if (!PORT_PATTERN.matcher(port).matches()) {
-                return false;
+        if (port == EMPTY_PORT || port > PortSet.MAX_PORT) {
+            return ValidationMetrics.Reject.PORT;
+        }
+
+        // extra may only be blank, as after String.trim()
+        for (int i = extraStart; i < to; i++) {
+            if (value.charAt(i) > ' ') {
+                return ValidationMetrics.Reject.EXTRA;
             }
         }
 
-        String extra = authorityMatcher.group(PARSE_AUTHORITY_EXTRA);
-        if (extra != null && extra.trim().length() > 0){
-            return false;
+        if (allowedPorts != null && !isAllowedPort(allowedPorts, port, defaultPort)) {
+            return ValidationMetrics.Reject.PORT;
         }
 
-        return true;
+        return null;
+    }
+
+    /**
+     * Returns the port ending the authority <code>value[from, to)</code>:
+     * the digits after its last ':', capped above {@link PortSet#MAX_PORT}.
+     * @return the port, or {@link #NO_PORT} if the authority does not end
+     * with one
+     */
+    private static int trailingPort(CharSequence value, int from, int to) {
+        int start = to;
+        while (start > from && value.charAt(start - 1) >= '0' && value.charAt(start - 1) <= '9') {
+            start--;
+        }
+        if (start == to || start == from || value.charAt(start - 1) != ':') {
+            return NO_PORT;
+        }
+        int port = 0;
+        for (int i = start; i < to && port <= PortSet.MAX_PORT; i++) {
+            port = port * 10 + value.charAt(i) - '0';
+        }
+        return port;
+    }
+
+    /**
+     * Tests a port against the allowed ports.
+     * @param port The port of the authority, or {@link #NO_PORT}.
+     * @param defaultPort The port of the scheme, used if the authority has
+     * none, or -1 if there is nothing to check.
+     */
+    private static boolean isAllowedPort(PortSet allowedPorts, int port, int defaultPort) {
+        int effectivePort = port == NO_PORT ? defaultPort : port;
+        return effectivePort < 0 || effectivePort <= PortSet.MAX_PORT && allowedPorts.contains(effectivePort);
     }
 
     /**
@@ -415,24 +899,37 @@ public class UrlValidator implements Serializable {
             return false;
         }
 
-        if (!PATH_PATTERN.matcher(path).matches()) {
-            return false;
+        return checkPath(path, 0, path.length(), plan.allowDoubleSlashes) == null;
+    }
+
+    /**
+     * isValidPath on <code>value[from, to)</code>.
+     * @return null if the path is valid, otherwise where it was rejected
+     */
+    private static ValidationMetrics.Reject checkPath(CharSequence value, int from, int to,
+            boolean allowDoubleSlashes) {
+        if (from < to && (value.charAt(from) != '/' || !SCAN_KERNEL.allInClass(value, from, to, PATH_CHARS))) {
+            return ValidationMetrics.Reject.PATH;
         }
 
-        int slash2Count = countToken("//", path);
-        if (isOff(ALLOW_2_SLASHES) && (slash2Count > 0)) {
-            return false;
+        if (!PercentDecoder.isValidEncoding(value, from, to)) {
+            return ValidationMetrics.Reject.PERCENT_ENCODING;
         }
 
-        int slashCount = countToken("/", path);
-        int dot2Count = countToken("..", path);
+        int slash2Count = countToken("//", value, from, to);
+        if (!allowDoubleSlashes && (slash2Count > 0)) {
+            return ValidationMetrics.Reject.DOUBLE_SLASH;
+        }
+
+        int slashCount = countToken("/", value, from, to);
+        int dot2Count = countToken("..", value, from, to);
         if (dot2Count > 0) {
             if ((slashCount - slash2Count - 1) <= dot2Count) {
-                return false;
+                return ValidationMetrics.Reject.DOT_DOT;
             }
         }
 
-        return true;
+        return null;
     }
 
     /**
@@ -444,8 +941,25 @@ public class UrlValidator implements Serializable {
         if (query == null) {
             return true;
         }
-        
-        return !QUERY_PATTERN.matcher(query).matches();
+
+        return isValidQuery(query, 0, query.length());
+    }
+
+    /**
+     * isValidQuery on <code>value[from, to)</code>. The character check
+     * keeps its inverted result, so every query is rejected, as it has
+     * always been; a malformed escape only changes the reject point the
+     * caller records to {@link ValidationMetrics.Reject#PERCENT_ENCODING}.
+     */
+    private static boolean isValidQuery(CharSequence value, int from, int to) {
+        if (!PercentDecoder.isValidEncoding(value, from, to)) {
+            return false;
+        }
+        if (SCAN_KERNEL.allInClass(value, from, to, QUERY_CHARS)) {
+            return false;
+        }
+        // a line break or non-ASCII char, leave those to the regex
+        return !QUERY_PATTERN.matcher(value).region(from, to).matches();
     }
 
     /**
@@ -458,7 +972,7 @@ public class UrlValidator implements Serializable {
             return true;
         }
 
-        return isOff(NO_FRAGMENTS);
+        return !plan.rejectFragments;
     }
 
     /**
@@ -468,39 +982,254 @@ public class UrlValidator implements Serializable {
      * @return the number of tokens.
      */
     protected int countToken(String token, String target) {
-        int tokenIndex = 0;
+        return countToken(token, target, 0, target.length());
+    }
+
+    /**
+     * countToken on <code>target[from, to)</code>, overlapping
+     * occurrences included.
+     */
+    private static int countToken(String token, CharSequence target, int from, int to) {
         int count = 0;
-        while (tokenIndex != -1) {
-            tokenIndex = target.indexOf(token, tokenIndex);
-            if (tokenIndex > -1) {
-                tokenIndex++;
+        int last = to - token.length();
+        char first = token.charAt(0);
+        for (int i = from; i <= last; i++) {
+            if (target.charAt(i) == first && regionMatches(target, i, token)) {
                 count++;
             }
         }
         return count;
     }
 
-    /**
-     * Tests whether the given flag is on.  If the flag is not a power of 2
-     * (ie. 3) this tests whether the combination of flags is on.
-     *
-     * @param flag Flag value to check.
-     *
-     * @return whether the specified flag value is on.
-     */
-    private boolean isOn(long flag) {
-        return (this.options & flag) > 0;
+    private static boolean regionMatches(CharSequence target, int offset, String token) {
+        for (int i = 1; i < token.length(); i++) {
+            if (target.charAt(offset + i) != token.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
-     * Tests whether the given flag is off.  If the flag is not a power of 2
-     * (ie. 3) this tests whether the combination of flags is off.
+     * <p>Builds a {@link UrlValidator}, resolving its options, schemes,
+     * handlers, authority validator and TLD policy into an immutable plan
+     * when {@link #build()} is called. The validator may then be shared
+     * by all threads.</p>
      *
-     * @param flag Flag value to check.
+     * <pre>
+     *   UrlValidator urlValidator = UrlValidator.builder()
+     *           .schemes("http", "https")
+     *           .allowLocalUrls()
+     *           .noFragments()
+     *           .build();
+     * </pre>
      *
-     * @return whether the specified flag value is off.
+     * <p>A builder is not thread-safe, but may be reused; later changes do
+     * not affect validators already built.</p>
      */
-    private boolean isOff(long flag) {
-        return (this.options & flag) == 0;
+    public static final class Builder {
+
+        private String[] schemes;
+
+        private long options;
+
+        private RegexValidator authorityValidator;
+
+        private final Map<String, SchemeHandler> schemeHandlers = new LinkedHashMap<String, SchemeHandler>();
+
+        private boolean compile;
+
+        private ValidationMetrics metrics;
+
+        private CredentialPolicy credentialPolicy = CredentialPolicy.REJECT;
+
+        private long[] allowedPorts;
+
+        private String name;
+
+        private Builder() {
+        }
+
+        /**
+         * Sets the valid schemes, by default "http", "https" and "ftp".
+         * @param schemes the valid schemes, matched case-insensitively
+         * @return this builder
+         */
+        public Builder schemes(String... schemes) {
+            this.schemes = schemes == null ? null : schemes.clone();
+            return this;
+        }
+
+        /**
+         * Lets any well formed scheme pass validation (ALLOW_ALL_SCHEMES).
+         * @return this builder
+         */
+        public Builder allowAllSchemes() {
+            return options(ALLOW_ALL_SCHEMES);
+        }
+
+        /**
+         * Allows "//" in the path (ALLOW_2_SLASHES).
+         * @return this builder
+         */
+        public Builder allow2Slashes() {
+            return options(ALLOW_2_SLASHES);
+        }
+
+        /**
+         * Rejects URLs with a fragment (NO_FRAGMENTS).
+         * @return this builder
+         */
+        public Builder noFragments() {
+            return options(NO_FRAGMENTS);
+        }
+
+        /**
+         * Accepts local host names and the local TLDs (ALLOW_LOCAL_URLS).
+         * @return this builder
+         */
+        public Builder allowLocalUrls() {
+            return options(ALLOW_LOCAL_URLS);
+        }
+
+        /**
+         * Turns on options given as a bitmask of the public constants.
+         * @param options the options to add
+         * @return this builder
+         */
+        public Builder options(long options) {
+            this.options |= options;
+            return this;
+        }
+
+        /**
+         * Sets a validator for authorities, tried before the built in checks.
+         * @param authorityValidator the authority validator, may be <code>null</code>
+         * @return this builder
+         */
+        public Builder authorityValidator(RegexValidator authorityValidator) {
+            this.authorityValidator = authorityValidator;
+            return this;
+        }
+
+        /**
+         * Registers the handler of a scheme.
+         * @param scheme the scheme, matched case-insensitively
+         * @param handler the handler of its URLs
+         * @return this builder
+         */
+        public Builder schemeHandler(String scheme, SchemeHandler handler) {
+            if (scheme == null || handler == null) {
+                throw new IllegalArgumentException("Scheme and handler are required");
+            }
+            schemeHandlers.put(scheme, handler);
+            return this;
+        }
+
+        /**
+         * Generates a class specialized for the configuration when the
+         * validator is built, with the allowed schemes, options and
+         * handlers as constants. This costs a class definition per
+         * validator, so is meant for a few validators that are used
+         * heavily. Verdicts are the same as without it.
+         * @return this builder
+         */
+        public Builder compile() {
+            this.compile = true;
+            return this;
+        }
+
+        /**
+         * Sets what to do with URLs whose authority carries user info, by
+         * default {@link CredentialPolicy#REJECT}. The user info is found
+         * in the same scan as the authority, so URLs without it pay
+         * nothing whatever the policy.
+         * @param credentialPolicy the policy
+         * @return this builder
+         */
+        public Builder credentialPolicy(CredentialPolicy credentialPolicy) {
+            if (credentialPolicy == null) {
+                throw new IllegalArgumentException("Credential policy must not be null");
+            }
+            this.credentialPolicy = credentialPolicy;
+            return this;
+        }
+
+        /**
+         * Allows only the given ports, in addition to any allowed before.
+         * By default every port from 0 to 65535 is allowed. URLs without
+         * a port are checked with the default port of their scheme: 80
+         * for http, 443 for https and 21 for ftp; those of other schemes
+         * are not checked.
+         * @param ports the ports
+         * @return this builder
+         */
+        public Builder allowedPorts(int... ports) {
+            for (int i = 0; i < ports.length; i++) {
+                allowedPortRange(ports[i], ports[i]);
+            }
+            return this;
+        }
+
+        /**
+         * Allows only the given range of ports, in addition to any
+         * allowed before.
+         * @param from the first port
+         * @param to the last port, inclusive
+         * @return this builder
+         * @see #allowedPorts(int...)
+         */
+        public Builder allowedPortRange(int from, int to) {
+            if (allowedPorts == null) {
+                allowedPorts = new long[(PortSet.MAX_PORT + 1) / 64];
+            }
+            PortSet.add(allowedPorts, from, to);
+            return this;
+        }
+
+        /**
+         * Records every validation, its verdict and latency, in the given
+         * metrics. Metrics are off by default.
+         * @param metrics where to record, may be shared, or <code>null</code>
+         * for none
+         * @return this builder
+         */
+        public Builder metrics(ValidationMetrics metrics) {
+            this.metrics = metrics;
+            return this;
+        }
+
+        /**
+         * Names the validator. A named validator records metrics, in a new
+         * {@link ValidationMetrics} unless one was given, and
+         * {@link #build()} registers them as a {@link ValidatorMetricsMBean},
+         * replacing metrics registered earlier under the same name.
+         * @param name the name of the validator, may be <code>null</code>
+         * @return this builder
+         */
+        public Builder name(String name) {
+            this.name = name;
+            return this;
+        }
+
+        /**
+         * Resolves the configuration into a validator.
+         * @return the validator
+         * @throws IllegalStateException if the metrics of a named
+         * validator cannot be registered
+         */
+        public UrlValidator build() {
+            ValidationMetrics metrics = this.metrics;
+            if (name != null && metrics == null) {
+                metrics = new ValidationMetrics();
+            }
+            UrlValidator urlValidator =
+                    new UrlValidator(schemes, authorityValidator, options, schemeHandlers, credentialPolicy,
+                            allowedPorts == null ? null : new PortSet(allowedPorts), metrics, compile);
+            if (name != null) {
+                ValidatorMetrics.register(name, metrics);
+            }
+            return urlValidator;
+        }
     }
 }
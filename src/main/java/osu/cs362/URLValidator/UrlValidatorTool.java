@@ -0,0 +1,451 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PushbackInputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>Validates files of newline-delimited URLs from the command line.</p>
+ *
+ * <pre>
+ *   java -jar osu.jar [options] [file ...]
+ * </pre>
+ *
+ * <p>Files are read in the order given, or standard input if there are
+ * none or a file is <code>-</code>. Input is read in chunks of whole
+ * lines that are validated in parallel and written out in input order;
+ * only a few chunks per thread are held at once, so inputs of any size
+ * can be validated. A <code>\r</code> before a newline is ignored. Gzip
+ * input is recognized by its magic number and inflated on the same
+ * threads, several members at a time (see {@link ParallelGzipInputStream}).</p>
+ *
+ * <p>Options:</p>
+ * <ul>
+ *   <li><code>-s, --schemes a,b,c</code> - allowed schemes, default http,https,ftp</li>
+ *   <li><code>--allow-all-schemes</code>, <code>--allow-2-slashes</code>,
+ *       <code>--no-fragments</code>, <code>--allow-local-urls</code> - the
+ *       {@link UrlValidator} options</li>
+ *   <li><code>-t, --threads n</code> - validating threads, default one per processor</li>
+ *   <li><code>-o, --output verdict|valid|invalid|none</code> - what to write to
+ *       standard output: each line after its verdict and a tab (the default),
+ *       only the valid lines, only the invalid lines, or nothing</li>
+ *   <li><code>--valid-file f</code>, <code>--invalid-file f</code> - also write
+ *       the valid or invalid lines to a file</li>
+ *   <li><code>--chunk-size n</code> - bytes read per chunk, default 1 MiB</li>
+ * </ul>
+ *
+ * <p>A report of lines and megabytes per second, the rejections by
+ * verdict and by rejection point, and the peak heap use is printed to
+ * standard error at the end. The exit status is 0 if every line is
+ * valid, 1 if some are not and 2 on a usage or I/O error.</p>
+ */
+public final class UrlValidatorTool {
+
+    /** Default number of bytes read per chunk. */
+    static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+    private static final byte[][] VERDICT_COLUMNS;
+
+    static {
+        Verdict[] verdicts = Verdict.values();
+        VERDICT_COLUMNS = new byte[verdicts.length][];
+        for (int i = 0; i < verdicts.length; i++) {
+            VERDICT_COLUMNS[i] = (verdicts[i].name() + "\t").getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+
+    private static final String USAGE = "usage: UrlValidatorTool [-s schemes] [--allow-all-schemes]"
+            + " [--allow-2-slashes] [--no-fragments] [--allow-local-urls] [-t threads]"
+            + " [-o verdict|valid|invalid|none] [--valid-file f] [--invalid-file f]"
+            + " [--chunk-size n] [file ...]";
+
+    /** What to write for each line. */
+    enum Output {
+        VERDICT, VALID, INVALID, NONE
+    }
+
+    private final UrlValidator validator;
+
+    private final ValidationMetrics metrics = new ValidationMetrics();
+
+    private final Output output;
+
+    private final boolean splitValid;
+
+    private final boolean splitInvalid;
+
+    private final long[] verdictCounts = new long[Verdict.values().length];
+
+    private long lines;
+
+    private long bytes;
+
+    private UrlValidatorTool(UrlValidator.Builder builder, Output output, boolean splitValid, boolean splitInvalid) {
+        this.validator = builder.metrics(metrics).compile().build();
+        this.output = output;
+        this.splitValid = splitValid;
+        this.splitInvalid = splitInvalid;
+    }
+
+    /**
+     * Runs the tool and exits with its status.
+     * @param args the command line
+     */
+    public static void main(String[] args) {
+        System.exit(run(args, System.in, System.out, System.err));
+    }
+
+    /**
+     * Runs the tool.
+     * @param args the command line
+     * @param in standard input
+     * @param out standard output
+     * @param err where the report and errors go
+     * @return the exit status
+     */
+    static int run(String[] args, InputStream in, PrintStream out, PrintStream err) {
+        UrlValidator.Builder builder = UrlValidator.builder();
+        Output output = Output.VERDICT;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int chunkSize = DEFAULT_CHUNK_SIZE;
+        String validFile = null;
+        String invalidFile = null;
+        List<String> files = new ArrayList<String>();
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                if ("-s".equals(arg) || "--schemes".equals(arg)) {
+                    builder.schemes(value(args, ++i).split(","));
+                } else if ("--allow-all-schemes".equals(arg)) {
+                    builder.allowAllSchemes();
+                } else if ("--allow-2-slashes".equals(arg)) {
+                    builder.allow2Slashes();
+                } else if ("--no-fragments".equals(arg)) {
+                    builder.noFragments();
+                } else if ("--allow-local-urls".equals(arg)) {
+                    builder.allowLocalUrls();
+                } else if ("-t".equals(arg) || "--threads".equals(arg)) {
+                    threads = positive(value(args, ++i));
+                } else if ("-o".equals(arg) || "--output".equals(arg)) {
+                    output = Output.valueOf(value(args, ++i).toUpperCase(Locale.ENGLISH));
+                } else if ("--valid-file".equals(arg)) {
+                    validFile = value(args, ++i);
+                } else if ("--invalid-file".equals(arg)) {
+                    invalidFile = value(args, ++i);
+                } else if ("--chunk-size".equals(arg)) {
+                    chunkSize = positive(value(args, ++i));
+                } else if ("-h".equals(arg) || "--help".equals(arg)) {
+                    out.println(USAGE);
+                    return 0;
+                } else if (arg.startsWith("-") && arg.length() > 1) {
+                    throw new IllegalArgumentException("Unknown option " + arg);
+                } else {
+                    files.add(arg);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return 2;
+        }
+        if (files.isEmpty()) {
+            files.add("-");
+        }
+
+        UrlValidatorTool tool = new UrlValidatorTool(builder, output, validFile != null, invalidFile != null);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        OutputStream valid = null;
+        OutputStream invalid = null;
+        long start = System.nanoTime();
+        try {
+            valid = validFile == null ? null : new BufferedOutputStream(new FileOutputStream(validFile), 1 << 16);
+            invalid = invalidFile == null ? null
+                    : new BufferedOutputStream(new FileOutputStream(invalidFile), 1 << 16);
+            OutputStream stdout = new BufferedOutputStream(out, 1 << 16);
+            Sink sink = new Sink(stdout, valid, invalid);
+            for (String file : files) {
+                InputStream input = "-".equals(file) ? in : new FileInputStream(file);
+                try {
+                    tool.validate(decode(input, executor, threads), chunkSize, executor, 2 * threads, sink);
+                } finally {
+                    if (input != in) {
+                        input.close();
+                    }
+                }
+            }
+            stdout.flush();
+        } catch (IOException e) {
+            err.println(e.getMessage());
+            return 2;
+        } catch (ExecutionException e) {
+            err.println(e.getCause());
+            return 2;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 2;
+        } finally {
+            executor.shutdownNow();
+            closeQuietly(valid);
+            closeQuietly(invalid);
+        }
+        tool.report(err, System.nanoTime() - start);
+        return tool.verdictCounts[Verdict.VALID.ordinal()] == tool.lines ? 0 : 1;
+    }
+
+    /**
+     * Returns the input, inflated if it is gzip.
+     */
+    private static InputStream decode(InputStream in, ExecutorService executor, int threads) throws IOException {
+        PushbackInputStream input = new PushbackInputStream(in, 2);
+        byte[] magic = new byte[2];
+        int n = 0;
+        for (int k; n < magic.length && (k = input.read(magic, n, magic.length - n)) > 0;) {
+            n += k;
+        }
+        input.unread(magic, 0, n);
+        if (ParallelGzipInputStream.isGzip(magic, n)) {
+            return new ParallelGzipInputStream(input, executor, threads, ParallelGzipInputStream.DEFAULT_WINDOW_SIZE);
+        }
+        return input;
+    }
+
+    private static String value(String[] args, int i) {
+        if (i >= args.length) {
+            throw new IllegalArgumentException(args[i - 1] + " needs a value");
+        }
+        return args[i];
+    }
+
+    private static int positive(String value) {
+        int n = Integer.parseInt(value);
+        if (n < 1) {
+            throw new IllegalArgumentException("Not a positive number: " + value);
+        }
+        return n;
+    }
+
+    private static void closeQuietly(OutputStream out) {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException e) {
+                // reported by the writes, if it matters
+            }
+        }
+    }
+
+    /**
+     * Validates one input, keeping at most <code>window</code> chunks in
+     * flight.
+     */
+    private void validate(InputStream in, int chunkSize, ExecutorService executor, int window, Sink sink)
+            throws IOException, InterruptedException, ExecutionException {
+        ArrayDeque<Future<Chunk>> pending = new ArrayDeque<Future<Chunk>>();
+        byte[] buffer = new byte[chunkSize];
+        int length = 0;
+        boolean end = false;
+        while (!end) {
+            int n = in.read(buffer, length, buffer.length - length);
+            if (n < 0) {
+                end = true;
+            } else {
+                length += n;
+                if (length < buffer.length) {
+                    continue;
+                }
+            }
+            int split = end ? length : lastLineEnd(buffer, length);
+            if (split < 0) {
+                // a line longer than the chunk
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                continue;
+            }
+            if (split > 0) {
+                byte[] lines = Arrays.copyOf(buffer, split);
+                pending.add(executor.submit(new Chunk(lines)));
+                if (pending.size() >= window) {
+                    write(pending.poll().get(), sink);
+                }
+            }
+            length -= split;
+            System.arraycopy(buffer, split, buffer, 0, length);
+        }
+        while (!pending.isEmpty()) {
+            write(pending.poll().get(), sink);
+        }
+    }
+
+    private static int lastLineEnd(byte[] buffer, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (buffer[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private void write(Chunk chunk, Sink sink) throws IOException {
+        lines += chunk.lines;
+        bytes += chunk.bytes.length;
+        for (int i = 0; i < verdictCounts.length; i++) {
+            verdictCounts[i] += chunk.verdictCounts[i];
+        }
+        if (chunk.out != null) {
+            chunk.out.writeTo(sink.out);
+        }
+        if (chunk.valid != null) {
+            chunk.valid.writeTo(sink.valid);
+        }
+        if (chunk.invalid != null) {
+            chunk.invalid.writeTo(sink.invalid);
+        }
+    }
+
+    private void report(PrintStream err, long nanos) {
+        double seconds = nanos / 1e9;
+        err.printf("%d lines, %.1f MB in %.3f s: %.0f lines/s, %.1f MB/s%n",
+                lines, bytes / 1e6, seconds, lines / seconds, bytes / 1e6 / seconds);
+        Verdict[] verdicts = Verdict.values();
+        err.printf("%-12s %12d%n", "valid", verdictCounts[Verdict.VALID.ordinal()]);
+        for (int i = 0; i < verdicts.length; i++) {
+            if (verdicts[i] != Verdict.VALID && verdictCounts[i] > 0) {
+                err.printf("%-12s %12d%n", verdicts[i].name().toLowerCase(Locale.ENGLISH), verdictCounts[i]);
+            }
+        }
+        ValidationMetrics.Reject[] rejects = ValidationMetrics.Reject.values();
+        for (int i = 0; i < rejects.length; i++) {
+            long count = metrics.getRejectCount(rejects[i]);
+            if (count > 0) {
+                err.printf("  rejected at %-12s %12d%n", rejects[i].name().toLowerCase(Locale.ENGLISH), count);
+            }
+        }
+        long peak = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        err.printf("peak heap %.1f MB%n", peak / 1e6);
+    }
+
+    /**
+     * Where the output of each chunk goes.
+     */
+    private static final class Sink {
+
+        final OutputStream out;
+
+        final OutputStream valid;
+
+        final OutputStream invalid;
+
+        Sink(OutputStream out, OutputStream valid, OutputStream invalid) {
+            this.out = out;
+            this.valid = valid;
+            this.invalid = invalid;
+        }
+    }
+
+    /**
+     * Whole lines of input, validated by one task.
+     */
+    private final class Chunk implements Callable<Chunk> {
+
+        final byte[] bytes;
+
+        final long[] verdictCounts = new long[Verdict.values().length];
+
+        long lines;
+
+        ByteArrayOutputStream out;
+
+        ByteArrayOutputStream valid;
+
+        ByteArrayOutputStream invalid;
+
+        Chunk(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        public Chunk call() {
+            if (output != Output.NONE) {
+                out = new ByteArrayOutputStream(output == Output.VERDICT ? bytes.length + bytes.length / 4 : 1024);
+            }
+            if (splitValid) {
+                valid = new ByteArrayOutputStream(bytes.length);
+            }
+            if (splitInvalid) {
+                invalid = new ByteArrayOutputStream(1024);
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            ByteSequence line = new ByteSequence();
+            UrlComponents url = new UrlComponents();
+            int from = 0;
+            while (from < bytes.length) {
+                int newline = from;
+                while (newline < bytes.length && bytes[newline] != '\n') {
+                    newline++;
+                }
+                int end = newline > from && bytes[newline - 1] == '\r' ? newline - 1 : newline;
+                Verdict verdict = validator.validate(line.set(buffer, from, end - from), url);
+                verdictCounts[verdict.ordinal()]++;
+                lines++;
+                ByteArrayOutputStream copy = verdict.isValid() ? valid : invalid;
+                if (copy != null) {
+                    copy.write(bytes, from, end - from);
+                    copy.write('\n');
+                }
+                if (output == Output.VERDICT) {
+                    byte[] column = VERDICT_COLUMNS[verdict.ordinal()];
+                    out.write(column, 0, column.length);
+                }
+                if (output == Output.VERDICT
+                        || output == (verdict.isValid() ? Output.VALID : Output.INVALID)) {
+                    out.write(bytes, from, end - from);
+                    out.write('\n');
+                }
+                from = newline + 1;
+            }
+            return this;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/**
+ * <p>Flight Recorder event for one validation by a {@link UrlValidator},
+ * {@link DomainValidator} or {@link RegexValidator}.</p>
+ *
+ * <p>Only validations longer than the threshold are committed, 10 ms by
+ * default. The threshold is set like that of any other event, in a
+ * <code>.jfc</code> file or with
+ * <code>Recording.enable(ValidationEvent.NAME).withThreshold(...)</code>.
+ * While no recording has the event enabled, validation only pays for
+ * the <code>isEnabled()</code> test.</p>
+ */
+@Name(ValidationEvent.NAME)
+@Label("URL Validation")
+@Category("URL Validator")
+@Description("A URL, domain or regular expression validation that took longer than the threshold")
+@Threshold("10 ms")
+@StackTrace(false)
+final class ValidationEvent extends jdk.jfr.Event {
+
+    static final String NAME = "osu.cs362.URLValidator.Validation";
+
+    @Label("Validator")
+    @Description("The class that validated the input")
+    String validator;
+
+    @Label("Input Length")
+    @Description("The number of characters validated")
+    int inputLength;
+
+    @Label("Stage")
+    @Description("VALID, or where the input was rejected")
+    String stage;
+}
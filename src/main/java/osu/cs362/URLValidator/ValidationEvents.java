@@ -0,0 +1,105 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+import java.util.concurrent.atomic.LongAdder;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * <p>Emits {@link ValidationEvent}s and keeps the counts behind
+ * {@link ValidationStatisticsEvent}.</p>
+ *
+ * <p>This class is only loaded once a recording enables
+ * {@link ValidationEvent}, so the periodic event is not registered in
+ * processes that never record.</p>
+ */
+final class ValidationEvents {
+
+    static final int URL_VALIDATOR = 0;
+    static final int DOMAIN_VALIDATOR = 1;
+    static final int REGEX_VALIDATOR = 2;
+
+    private static final String[] VALIDATORS = {"UrlValidator", "DomainValidator", "RegexValidator"};
+
+    private static final LongAdder[] VALIDATIONS = new LongAdder[VALIDATORS.length];
+
+    private static final LongAdder[] REJECTED = new LongAdder[VALIDATORS.length];
+
+    /** When the statistics were last emitted, guarded by the class. */
+    private static long lastEmitted = System.nanoTime();
+
+    static {
+        for (int i = 0; i < VALIDATORS.length; i++) {
+            VALIDATIONS[i] = new LongAdder();
+            REJECTED[i] = new LongAdder();
+        }
+        FlightRecorder.addPeriodicEvent(ValidationStatisticsEvent.class, new Runnable() {
+            public void run() {
+                emitStatistics();
+            }
+        });
+    }
+
+    private ValidationEvents() {
+    }
+
+    /**
+     * Ends an event begun before a validation, counts the validation and
+     * commits the event if it took longer than the threshold.
+     * @param event the event
+     * @param validator URL_VALIDATOR, DOMAIN_VALIDATOR or REGEX_VALIDATOR
+     * @param input the validated input, may be <code>null</code>
+     * @param valid whether the input was valid
+     * @param stage VALID, or where the input was rejected
+     */
+    static void end(ValidationEvent event, int validator, CharSequence input, boolean valid, String stage) {
+        event.end();
+        VALIDATIONS[validator].increment();
+        if (!valid) {
+            REJECTED[validator].increment();
+        }
+        if (event.shouldCommit()) {
+            event.validator = VALIDATORS[validator];
+            event.inputLength = input == null ? 0 : input.length();
+            event.stage = stage;
+            event.commit();
+        }
+    }
+
+    private static synchronized void emitStatistics() {
+        long now = System.nanoTime();
+        double seconds = (now - lastEmitted) / 1e9;
+        lastEmitted = now;
+        for (int i = 0; i < VALIDATORS.length; i++) {
+            long validations = VALIDATIONS[i].sumThenReset();
+            long rejected = REJECTED[i].sumThenReset();
+            if (validations == 0) {
+                continue;
+            }
+            ValidationStatisticsEvent event = new ValidationStatisticsEvent();
+            event.validator = VALIDATORS[i];
+            event.validations = validations;
+            event.rejected = rejected;
+            event.throughput = seconds > 0 ? validations / seconds : 0;
+            event.commit();
+        }
+    }
+}
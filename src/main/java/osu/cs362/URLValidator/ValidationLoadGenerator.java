@@ -0,0 +1,271 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Measures the throughput and latency of a {@link ValidationServer}
+ * by posting batches of URLs over several keep-alive connections.</p>
+ *
+ * <pre>
+ *   java osu.cs362.URLValidator.ValidationLoadGenerator [connections [requests [urls [host port]]]]
+ * </pre>
+ *
+ * <p>Each connection sends <code>requests</code> requests of
+ * <code>urls</code> URLs one after another, waiting for each response,
+ * and the time from sending a request to reading its last verdict is
+ * recorded in a {@link LatencyHistogram}. Without a host and port an
+ * in-process server is started on the loopback address, which measures
+ * the server and the client on the same processors.</p>
+ */
+public final class ValidationLoadGenerator {
+
+    private final InetSocketAddress address;
+
+    private final byte[] request;
+
+    private final int urls;
+
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    private final AtomicLong verdicts = new AtomicLong();
+
+    private final AtomicLong errors = new AtomicLong();
+
+    private long elapsedNanos;
+
+    /**
+     * Create a load generator posting random URLs, about a quarter of
+     * them invalid.
+     * @param address the server
+     * @param urls the number of URLs in each request
+     */
+    public ValidationLoadGenerator(InetSocketAddress address, int urls) {
+        this.address = address;
+        this.urls = urls;
+        Random random = new Random(362);
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < urls; i++) {
+            switch (random.nextInt(8)) {
+                case 0:
+                    body.append("gopher://www.example").append(random.nextInt(1000)).append(".com/");
+                    break;
+                case 1:
+                    body.append("http://www.example").append(random.nextInt(1000)).append(".com/a//b");
+                    break;
+                default:
+                    body.append("http://www.example").append(random.nextInt(1000)).append(".com/p/")
+                            .append(Long.toHexString(random.nextLong()));
+            }
+            body.append('\n');
+        }
+        byte[] content = body.toString().getBytes(StandardCharsets.US_ASCII);
+        byte[] head = ("POST " + ValidationServer.PATH + " HTTP/1.1\r\nHost: " + address.getHostString()
+                + "\r\nContent-Type: text/plain\r\nContent-Length: " + content.length + "\r\n\r\n")
+                .getBytes(StandardCharsets.US_ASCII);
+        this.request = new byte[head.length + content.length];
+        System.arraycopy(head, 0, request, 0, head.length);
+        System.arraycopy(content, 0, request, head.length, content.length);
+    }
+
+    /**
+     * Runs the load and waits for it to finish.
+     * @param connections the number of connections, each on a thread of its own
+     * @param requests the number of requests sent over each connection
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void run(int connections, final int requests) throws InterruptedException {
+        Thread[] threads = new Thread[connections];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        send(requests);
+                    } catch (IOException e) {
+                        errors.incrementAndGet();
+                    }
+                }
+            }, "url-validation-load-" + i);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < threads.length; i++) {
+            threads[i].start();
+        }
+        for (int i = 0; i < threads.length; i++) {
+            threads[i].join();
+        }
+        elapsedNanos += System.nanoTime() - start;
+    }
+
+    private void send(int requests) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.setTcpNoDelay(true);
+            socket.connect(address);
+            OutputStream out = socket.getOutputStream();
+            InputStream in = new BufferedInputStream(socket.getInputStream(), 64 * 1024);
+            for (int i = 0; i < requests; i++) {
+                long start = System.nanoTime();
+                out.write(request);
+                out.flush();
+                long lines = readResponse(in);
+                latency.record(System.nanoTime() - start);
+                verdicts.addAndGet(lines);
+                if (lines != urls) {
+                    errors.incrementAndGet();
+                    return;
+                }
+            }
+        } finally {
+            socket.close();
+        }
+    }
+
+    /**
+     * Reads a chunked response.
+     * @return the number of verdicts, or -1 if the status is not 200
+     */
+    private static long readResponse(InputStream in) throws IOException {
+        String status = readLine(in);
+        while (readLine(in).length() > 0) {
+            // skip the headers
+        }
+        if (!status.startsWith("HTTP/1.1 200 ")) {
+            return -1;
+        }
+        long lines = 0;
+        for (;;) {
+            int size = Integer.parseInt(readLine(in), 16);
+            if (size == 0) {
+                readLine(in);
+                return lines;
+            }
+            for (int i = 0; i < size; i++) {
+                int b = in.read();
+                if (b < 0) {
+                    throw new IOException("Response cut short");
+                }
+                if (b == '\n') {
+                    lines++;
+                }
+            }
+            readLine(in);
+        }
+    }
+
+    private static String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        for (int b = in.read(); b != '\n'; b = in.read()) {
+            if (b < 0) {
+                throw new IOException("Response cut short");
+            }
+            if (b != '\r') {
+                line.append((char) b);
+            }
+        }
+        return line.toString();
+    }
+
+    /**
+     * Returns the latency of the requests.
+     * @return the histogram of request latencies, in nanoseconds
+     */
+    public LatencyHistogram getLatencyHistogram() {
+        return latency;
+    }
+
+    /**
+     * Returns the number of verdicts read.
+     * @return the verdict count
+     */
+    public long getVerdictCount() {
+        return verdicts.get();
+    }
+
+    /**
+     * Returns the number of connections that failed or got a wrong
+     * number of verdicts.
+     * @return the error count
+     */
+    public long getErrorCount() {
+        return errors.get();
+    }
+
+    /**
+     * Returns the time spent in {@link #run(int, int)}.
+     * @return the elapsed nanoseconds
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Runs the load and prints the throughput and latency percentiles.
+     * @param args the connections, requests per connection, URLs per
+     * request and optionally the host and port of a running server
+     * @throws Exception if the server cannot be started or reached
+     */
+    public static void main(String[] args) throws Exception {
+        int connections = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int urls = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        ValidationServer server = null;
+        InetSocketAddress address;
+        if (args.length > 4) {
+            address = new InetSocketAddress(args[3], Integer.parseInt(args[4]));
+        } else {
+            server = ValidationServer.start(UrlValidator.builder().compile().build(),
+                    new InetSocketAddress("127.0.0.1", 0));
+            address = server.getAddress();
+        }
+        try {
+            ValidationLoadGenerator generator = new ValidationLoadGenerator(address, urls);
+            // warm up both ends before measuring
+            generator.run(connections, Math.max(1, requests / 10));
+            generator = new ValidationLoadGenerator(address, urls);
+            generator.run(connections, requests);
+
+            LatencyHistogram latency = generator.getLatencyHistogram();
+            double seconds = generator.getElapsedNanos() / 1e9;
+            System.out.printf("%d connections, %d requests of %d URLs in %.2f s%n",
+                    connections, latency.getCount(), urls, seconds);
+            System.out.printf("throughput %.0f URLs/s, %.0f requests/s%n",
+                    generator.getVerdictCount() / seconds, latency.getCount() / seconds);
+            System.out.printf("latency p50 %.1f us, p99 %.1f us, p99.9 %.1f us%n",
+                    latency.getValueAtPercentile(50) / 1e3, latency.getValueAtPercentile(99) / 1e3,
+                    latency.getValueAtPercentile(99.9) / 1e3);
+            if (generator.getErrorCount() > 0) {
+                System.out.println("errors " + generator.getErrorCount());
+            }
+        } finally {
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,241 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+import java.io.Serializable;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Counts of what {@link UrlValidator}s reject and a histogram of how
+ * long validation takes.</p>
+ *
+ * <p>Metrics are off unless an instance is given to
+ * {@link UrlValidator.Builder#metrics(ValidationMetrics)}; a validator
+ * without one only tests a null field. One instance may be shared by
+ * several validators and threads. Counters are <code>LongAdder</code>s,
+ * so recording never blocks and contended updates do not spin on one
+ * word.</p>
+ *
+ * <pre>
+ *   ValidationMetrics metrics = new ValidationMetrics();
+ *   UrlValidator urlValidator = UrlValidator.builder().metrics(metrics).build();
+ *   ...
+ *   long badPorts = metrics.getRejectCount(ValidationMetrics.Reject.PORT);
+ *   long p99 = metrics.getLatencyHistogram().getValueAtPercentile(99);
+ * </pre>
+ */
+public final class ValidationMetrics implements Serializable {
+
+    private static final long serialVersionUID = 2904787917004436515L;
+
+    /**
+     * The points at which a URL is rejected. Checks that cannot tell
+     * what part of a component is wrong, such as those of subclasses and
+     * of scheme handlers other than the hierarchical one, are counted
+     * against the whole component.
+     */
+    public enum Reject {
+
+        /** The value is <code>null</code>, empty or has no URL structure. */
+        MALFORMED,
+
+        /** The value holds non-ASCII characters. */
+        NON_ASCII,
+
+        /** The scheme is missing, malformed or not allowed. */
+        SCHEME,
+
+        /** The authority is missing or malformed. */
+        AUTHORITY,
+
+        /** The host name is neither a valid domain nor an IP address. */
+        HOST,
+
+        /** The host looks like an IPv4 address, but is not a valid one. */
+        IP,
+
+        /** The port is malformed. */
+        PORT,
+
+        /** Characters follow the port. */
+        EXTRA,
+
+        /** The user info is malformed. */
+        USER_INFO,
+
+        /** The path is malformed. */
+        PATH,
+
+        /** The path holds "//" and ALLOW_2_SLASHES is off. */
+        DOUBLE_SLASH,
+
+        /** The path climbs above its root with "..". */
+        DOT_DOT,
+
+        /**
+         * A '%' in the path or query is not followed by two hex digits.
+         * Queries are rejected whatever their escapes; this only tells
+         * which of those rejections had a malformed one.
+         */
+        PERCENT_ENCODING,
+
+        /** The query is malformed. */
+        QUERY,
+
+        /** The fragment is malformed or fragments are not allowed. */
+        FRAGMENT;
+
+        /**
+         * Returns the rejection point of a verdict.
+         * @param verdict an invalid verdict
+         * @return the rejection point of the whole component
+         */
+        static Reject of(Verdict verdict) {
+            switch (verdict) {
+            case NON_ASCII:
+                return NON_ASCII;
+            case SCHEME:
+                return SCHEME;
+            case AUTHORITY:
+                return AUTHORITY;
+            case PATH:
+                return PATH;
+            case QUERY:
+                return QUERY;
+            case FRAGMENT:
+                return FRAGMENT;
+            default:
+                return MALFORMED;
+            }
+        }
+    }
+
+    private static final Reject[] REJECTS = Reject.values();
+
+    private final LongAdder validations = new LongAdder();
+
+    private final LongAdder[] rejects = new LongAdder[REJECTS.length];
+
+    private final LongAdder flagged = new LongAdder();
+
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    /**
+     * Create metrics with all counts zero.
+     */
+    public ValidationMetrics() {
+        for (int i = 0; i < rejects.length; i++) {
+            rejects[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Records one validation.
+     * @param verdict the verdict
+     * @param reject the rejection point found by the checks, or
+     * <code>null</code> to take it from the verdict
+     * @param flagged whether a valid URL was flagged
+     * @param nanos how long the validation took
+     */
+    void record(Verdict verdict, Reject reject, boolean flagged, long nanos) {
+        validations.increment();
+        if (verdict != Verdict.VALID) {
+            rejects[(reject != null ? reject : Reject.of(verdict)).ordinal()].increment();
+        } else if (flagged) {
+            this.flagged.increment();
+        }
+        latencies.record(nanos);
+    }
+
+    /**
+     * Returns the number of URLs validated.
+     * @return the count
+     */
+    public long getValidationCount() {
+        return validations.sum();
+    }
+
+    /**
+     * Returns the number of URLs rejected at the given point.
+     * @param reject the rejection point
+     * @return the count
+     */
+    public long getRejectCount(Reject reject) {
+        return rejects[reject.ordinal()].sum();
+    }
+
+    /**
+     * Returns the number of URLs rejected.
+     * @return the count
+     */
+    public long getRejectCount() {
+        long count = 0;
+        for (int i = 0; i < rejects.length; i++) {
+            count += rejects[i].sum();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of valid URLs flagged by {@link CredentialPolicy#FLAG}.
+     * @return the count
+     */
+    public long getFlaggedCount() {
+        return flagged.sum();
+    }
+
+    /**
+     * Returns the histogram of validation latencies, in nanoseconds.
+     * @return the histogram
+     */
+    public LatencyHistogram getLatencyHistogram() {
+        return latencies;
+    }
+
+    /**
+     * Clears all counts.
+     */
+    public void reset() {
+        validations.reset();
+        for (int i = 0; i < rejects.length; i++) {
+            rejects[i].reset();
+        }
+        flagged.reset();
+        latencies.reset();
+    }
+
+    /**
+     * Provide a String representation of these metrics.
+     * @return A String representation of these metrics
+     */
+    public String toString() {
+        StringBuffer buffer = new StringBuffer();
+        buffer.append("ValidationMetrics{validations=").append(getValidationCount());
+        for (int i = 0; i < REJECTS.length; i++) {
+            long count = rejects[i].sum();
+            if (count > 0) {
+                buffer.append(",").append(REJECTS[i]).append("=").append(count);
+            }
+        }
+        buffer.append(",latency=").append(latencies);
+        buffer.append("}");
+        return buffer.toString();
+    }
+}
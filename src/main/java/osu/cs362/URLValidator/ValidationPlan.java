@@ -0,0 +1,180 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * <p>The configuration of a {@link UrlValidator}, resolved once when the
+ * validator is constructed.</p>
+ *
+ * <p>The option bitmask, scheme list and handler map are turned into the
+ * data the per-call path needs directly: a compiled scheme table with its
+ * handler dispatch array, the domain validator for the TLD policy and a
+ * few flags that replace the <code>isOn</code>/<code>isOff</code> tests.
+ * A plan is immutable and safe to share between threads.</p>
+ */
+final class ValidationPlan implements Serializable {
+
+    private static final long serialVersionUID = -5630812246618357734L;
+
+    /**
+     * If no schemes are provided, default to this set.
+     */
+    private static final String[] DEFAULT_SCHEMES = {"http", "https", "ftp"};
+
+    /**
+     * Schemes with handlers of their own.
+     */
+    private static final String[] BUILT_IN_SCHEMES = {"http", "https", "ftp", "file", "mailto", "data"};
+
+    /**
+     * The protected checks of UrlValidator a subclass may override.
+     */
+    private static final String[] CHECK_METHODS = {
+        "isValidScheme", "isValidAuthority", "isValidPath", "isValidQuery", "isValidFragment"
+    };
+
+    /** The option bitmask the plan was resolved from. */
+    final long options;
+
+    /** Allowed schemes, or the schemes with handlers under ALLOW_ALL_SCHEMES. */
+    final SchemeTable schemes;
+
+    /** Handler of each scheme in the table, indexed by scheme ID. */
+    final SchemeHandler[] handlers;
+
+    /** Handler of schemes not in the table, or null if they are rejected. */
+    final SchemeHandler unknownSchemeHandler;
+
+    /** Validates authorities before the built in checks, may be null. */
+    final RegexValidator authorityValidator;
+
+    /** Validates host names under the TLD policy (ALLOW_LOCAL_URLS). */
+    final DomainValidator domainValidator;
+
+    /** ALLOW_2_SLASHES. */
+    final boolean allowDoubleSlashes;
+
+    /** NO_FRAGMENTS. */
+    final boolean rejectFragments;
+
+    /** What to do with user info in authorities. */
+    final CredentialPolicy credentialPolicy;
+
+    /** The ports allowed, or null if all are. */
+    final PortSet allowedPorts;
+
+    /**
+     * Whether a subclass overrides one of the protected String checks, in
+     * which case components have to be extracted and passed to them.
+     */
+    final boolean legacyChecks;
+
+    /** Where validations are recorded, or null if metrics are off. */
+    final ValidationMetrics metrics;
+
+    ValidationPlan(String[] schemes, RegexValidator authorityValidator, long options,
+            Map<String, ? extends SchemeHandler> schemeHandlers, CredentialPolicy credentialPolicy,
+            PortSet allowedPorts, ValidationMetrics metrics, Class<?> validatorClass) {
+        this.options = options;
+        boolean allowAllSchemes = (options & UrlValidator.ALLOW_ALL_SCHEMES) != 0;
+
+        Map<String, SchemeHandler> handlers = new HashMap<String, SchemeHandler>();
+        if (schemeHandlers != null) {
+            for (Map.Entry<String, ? extends SchemeHandler> entry : schemeHandlers.entrySet()) {
+                handlers.put(entry.getKey().toLowerCase(Locale.ENGLISH), entry.getValue());
+            }
+        }
+
+        if (allowAllSchemes) {
+            // only schemes that get a handler of their own need an ID
+            Set<String> known = new LinkedHashSet<String>(Arrays.asList(BUILT_IN_SCHEMES));
+            known.addAll(handlers.keySet());
+            schemes = known.toArray(new String[known.size()]);
+        } else if (schemes == null) {
+            schemes = DEFAULT_SCHEMES;
+        }
+        this.schemes = new SchemeTable(schemes);
+
+        this.handlers = new SchemeHandler[this.schemes.size()];
+        for (int id = 0; id < this.handlers.length; id++) {
+            String scheme = this.schemes.getScheme(id);
+            SchemeHandler handler = handlers.get(scheme);
+            this.handlers[id] = handler != null ? handler : getBuiltInHandler(scheme);
+        }
+        this.unknownSchemeHandler = allowAllSchemes ? HierarchicalSchemeHandler.DEFAULT : null;
+
+        this.authorityValidator = authorityValidator;
+        this.domainValidator = DomainValidator.getInstance((options & UrlValidator.ALLOW_LOCAL_URLS) != 0);
+        this.allowDoubleSlashes = (options & UrlValidator.ALLOW_2_SLASHES) != 0;
+        this.rejectFragments = (options & UrlValidator.NO_FRAGMENTS) != 0;
+        this.credentialPolicy = credentialPolicy;
+        this.allowedPorts = allowedPorts;
+        this.legacyChecks = overridesChecks(validatorClass);
+        this.metrics = metrics;
+    }
+
+    /**
+     * Returns the handler used for a scheme that has none of its own.
+     * @param scheme The scheme, in lower case.
+     * @return the built in handler
+     */
+    private static SchemeHandler getBuiltInHandler(String scheme) {
+        if ("file".equals(scheme)) {
+            return HierarchicalSchemeHandler.FILE;
+        }
+        if ("mailto".equals(scheme)) {
+            return new MailtoSchemeHandler();
+        }
+        if ("data".equals(scheme)) {
+            return new DataSchemeHandler();
+        }
+        return HierarchicalSchemeHandler.DEFAULT;
+    }
+
+    /**
+     * Tests whether a subclass of UrlValidator overrides a protected check.
+     */
+    private static boolean overridesChecks(Class<?> validatorClass) {
+        for (Class<?> c = validatorClass; c != null && c != UrlValidator.class; c = c.getSuperclass()) {
+            for (int i = 0; i < CHECK_METHODS.length; i++) {
+                try {
+                    c.getDeclaredMethod(CHECK_METHODS[i], String.class);
+                    return true;
+                } catch (NoSuchMethodException e) {
+                    // not overridden here
+                }
+            }
+            try {
+                c.getDeclaredMethod("countToken", String.class, String.class);
+                return true;
+            } catch (NoSuchMethodException e) {
+                // not overridden here
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,453 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+/**
+ * <p>A small HTTP server validating URLs in bulk, for services that
+ * cannot call a {@link UrlValidator} directly.</p>
+ *
+ * <p><code>POST /validate</code> takes newline-delimited URLs in the body
+ * (a <code>\r</code> before the newline is ignored) and answers with one
+ * line per URL, holding the name of its {@link Verdict}. Empty lines are
+ * <code>MALFORMED</code>, as are lines longer than the buffer size. The
+ * body must have a <code>Content-Length</code>; the response is streamed
+ * with chunked encoding as the body is read.</p>
+ *
+ * <pre>
+ *   $ curl --data-binary @urls.txt http://127.0.0.1:8362/validate
+ *   VALID
+ *   SCHEME
+ *   ...
+ * </pre>
+ *
+ * <p>One thread serves every connection through a selector. Each
+ * connection has a direct buffer for reading and one for writing; URLs
+ * are validated where they were read, through a {@link ByteSequence}
+ * view, as soon as their line is complete. When the client does not read
+ * its verdicts fast enough the server stops reading its URLs, so memory
+ * use stays at two buffers per connection whatever the body size.
+ * Connections are kept alive and pipelined requests are answered in
+ * order.</p>
+ *
+ * @see ValidationLoadGenerator
+ */
+public final class ValidationServer extends SelectorServer {
+
+    /** The default size of each connection buffer, and the longest URL. */
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    /** The default port of {@link #main(String[])}. */
+    public static final int DEFAULT_PORT = 8362;
+
+    /** The path validating URLs. */
+    public static final String PATH = "/validate";
+
+    /** The response line of each verdict, by ordinal. */
+    private static final byte[][] VERDICT_LINES;
+
+    /** Room for the chunk size, the longest verdict line and the chunk trailers. */
+    private static final int RESERVE;
+
+    /** Room for the longest response head the server writes. */
+    private static final int HEAD_RESERVE = 256;
+
+    private static final byte[] CONTINUE = ascii("HTTP/1.1 100 Continue\r\n\r\n");
+
+    private static final byte[] LAST_CHUNK = ascii("0\r\n\r\n");
+
+    /** Width of the hex chunk size written before each chunk. */
+    private static final int CHUNK_SIZE_DIGITS = 6;
+
+    static {
+        Verdict[] verdicts = Verdict.values();
+        VERDICT_LINES = new byte[verdicts.length][];
+        int longest = 0;
+        for (int i = 0; i < verdicts.length; i++) {
+            VERDICT_LINES[i] = ascii(verdicts[i].name() + "\n");
+            longest = Math.max(longest, VERDICT_LINES[i].length);
+        }
+        RESERVE = CHUNK_SIZE_DIGITS + 2 + longest + 2 + LAST_CHUNK.length;
+    }
+
+    private final UrlValidator validator;
+
+    private final int bufferSize;
+
+    private ValidationServer(UrlValidator validator, int bufferSize, ServerSocketChannel server)
+            throws IOException {
+        super(server, "url-validation-server");
+        this.validator = validator;
+        this.bufferSize = bufferSize;
+    }
+
+    /**
+     * Starts serving on a thread of its own.
+     * @param validator the validator to run
+     * @param address where to listen, port 0 for any free port
+     * @return the running server
+     * @throws IOException if the address cannot be bound
+     */
+    public static ValidationServer start(UrlValidator validator, InetSocketAddress address) throws IOException {
+        return start(validator, address, DEFAULT_BUFFER_SIZE);
+    }
+
+    /**
+     * Starts serving on a thread of its own.
+     * @param validator the validator to run
+     * @param address where to listen, port 0 for any free port
+     * @param bufferSize the size of each connection buffer, which is also
+     * the longest request head and the longest URL accepted
+     * @return the running server
+     * @throws IOException if the address cannot be bound
+     */
+    public static ValidationServer start(UrlValidator validator, InetSocketAddress address, int bufferSize)
+            throws IOException {
+        if (validator == null) {
+            throw new IllegalArgumentException("Validator is required");
+        }
+        if (bufferSize < 2 * HEAD_RESERVE || bufferSize > 1 << 4 * CHUNK_SIZE_DIGITS) {
+            throw new IllegalArgumentException("Buffer size out of range: " + bufferSize);
+        }
+        ServerSocketChannel server = ServerSocketChannel.open();
+        try {
+            server.bind(address);
+            ValidationServer validationServer = new ValidationServer(validator, bufferSize, server);
+            validationServer.startServing();
+            return validationServer;
+        } catch (IOException e) {
+            server.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the address the server listens on.
+     * @return the bound address
+     * @throws IOException if the server is closed
+     */
+    public InetSocketAddress getAddress() throws IOException {
+        return (InetSocketAddress) server.getLocalAddress();
+    }
+
+    /**
+     * Runs a server on the loopback address until the process is killed.
+     * @param args the port, <code>8362</code> by default, and the host to
+     * listen on, <code>127.0.0.1</code> by default
+     * @throws IOException if the address cannot be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        String host = args.length > 1 ? args[1] : "127.0.0.1";
+        ValidationServer server = start(UrlValidator.builder().compile().build(), new InetSocketAddress(host, port));
+        System.out.println("Validating URLs at http://" + host + ":" + server.getAddress().getPort() + PATH);
+    }
+
+    Connection open(SocketChannel channel) throws IOException {
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, Boolean.TRUE);
+        return new HttpConnection(channel);
+    }
+
+    private static byte[] ascii(String text) {
+        return text.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Finds a byte in the buffer.
+     * @return the index of the byte, or -1
+     */
+    private static int indexOf(ByteBuffer buffer, byte b, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (buffer.get(i) == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /** Reading the request line and headers. */
+    private static final int HEAD = 0;
+
+    /** Validating the lines of a request body. */
+    private static final int BODY = 1;
+
+    /** Writing what is left of the output, then closing. */
+    private static final int CLOSING = 2;
+
+    /**
+     * The state of one HTTP connection. Bytes read are used from
+     * <code>start</code> to the position of <code>in</code>.
+     */
+    private final class HttpConnection extends Connection {
+
+        final ByteSequence line = new ByteSequence();
+
+        final UrlComponents url = new UrlComponents();
+
+        /** Index of the first byte of <code>in</code> not yet used. */
+        int start;
+
+        int state = HEAD;
+
+        /** Body bytes not yet validated. */
+        long remaining;
+
+        boolean keepAlive;
+
+        boolean chunked;
+
+        /** Whether the line being read has been discarded as too long. */
+        boolean skipping;
+
+        /** Index of the open chunk's size in <code>out</code>, or -1. */
+        int chunk = -1;
+
+        HttpConnection(SocketChannel channel) {
+            super(channel, bufferSize);
+        }
+
+        /**
+         * Tests whether there is too little room in the output buffer to go on.
+         */
+        boolean isWaitingForOutput() {
+            return out.remaining() < (state == HEAD ? HEAD_RESERVE : RESERVE);
+        }
+
+        boolean isClosing(boolean waiting) {
+            if (endOfInput && state != CLOSING && !waiting) {
+                // no further request, or one cut short
+                state = CLOSING;
+            }
+            return state == CLOSING;
+        }
+
+        /**
+         * Handles what has been read, as far as the output buffer allows.
+         */
+        void process() {
+            for (;;) {
+                if (state == HEAD) {
+                    if (!readHead()) {
+                        break;
+                    }
+                } else if (state == BODY) {
+                    if (!readBody()) {
+                        break;
+                    }
+                    closeChunk();
+                    if (chunked) {
+                        out.put(LAST_CHUNK);
+                    }
+                    state = keepAlive ? HEAD : CLOSING;
+                } else {
+                    break;
+                }
+            }
+            if (start > 0) {
+                in.flip();
+                in.position(start);
+                in.compact();
+                start = 0;
+            }
+        }
+
+        /**
+         * Parses a request head if all of it has been read.
+         * @return true if the request is answered or its body can be read
+         */
+        boolean readHead() {
+            if (isWaitingForOutput()) {
+                return false;
+            }
+            int end = -1;
+            for (int i = indexOf(in, (byte) '\n', start, in.position()); i >= 0;
+                    i = indexOf(in, (byte) '\n', i + 1, in.position())) {
+                int next = i + 1;
+                if (next < in.position() && in.get(next) == '\r') {
+                    next++;
+                }
+                if (next < in.position() && in.get(next) == '\n') {
+                    end = next + 1;
+                    break;
+                }
+            }
+            if (end < 0) {
+                if (start == 0 && !in.hasRemaining()) {
+                    respond(431, "Request Header Fields Too Large");
+                    return true;
+                }
+                return false;
+            }
+            String[] lines = new ByteSequence(in, start, end - start).toString().split("\r?\n");
+            start = end;
+
+            String[] request = lines[0].split(" ");
+            if (request.length != 3 || !request[2].startsWith("HTTP/1.")) {
+                respond(400, "Bad Request");
+                return true;
+            }
+            boolean http11 = !"HTTP/1.0".equals(request[2]);
+            keepAlive = http11;
+            chunked = http11;
+            long length = -1;
+            boolean expectContinue = false;
+            for (int i = 1; i < lines.length; i++) {
+                int colon = lines[i].indexOf(':');
+                if (colon <= 0) {
+                    continue;
+                }
+                String name = lines[i].substring(0, colon).trim().toLowerCase(Locale.ENGLISH);
+                String value = lines[i].substring(colon + 1).trim();
+                if ("content-length".equals(name)) {
+                    try {
+                        length = Long.parseLong(value);
+                    } catch (NumberFormatException e) {
+                        length = -2;
+                    }
+                } else if ("transfer-encoding".equals(name)) {
+                    length = -1;
+                } else if ("connection".equals(name)) {
+                    keepAlive = http11 ? !"close".equalsIgnoreCase(value) : "keep-alive".equalsIgnoreCase(value);
+                } else if ("expect".equals(name)) {
+                    expectContinue = "100-continue".equalsIgnoreCase(value);
+                }
+            }
+            keepAlive &= chunked;
+
+            String path = request[1];
+            int query = path.indexOf('?');
+            if (query >= 0) {
+                path = path.substring(0, query);
+            }
+            if (!PATH.equals(path)) {
+                respond(404, "Not Found");
+            } else if (!"POST".equals(request[0])) {
+                respond(405, "Method Not Allowed");
+            } else if (length == -1) {
+                respond(411, "Length Required");
+            } else if (length < 0) {
+                respond(400, "Bad Request");
+            } else {
+                if (expectContinue) {
+                    out.put(CONTINUE);
+                }
+                out.put(ascii("HTTP/1.1 200 OK\r\nContent-Type: text/plain; charset=us-ascii\r\n"
+                        + (chunked ? "Transfer-Encoding: chunked\r\n" : "")
+                        + (keepAlive ? "" : "Connection: close\r\n") + "\r\n"));
+                remaining = length;
+                skipping = false;
+                state = BODY;
+            }
+            return true;
+        }
+
+        /**
+         * Validates the complete lines of the body that have been read.
+         * @return true once the whole body has been validated
+         */
+        boolean readBody() {
+            long bodyEnd = start + remaining;
+            int limit = (int) Math.min(in.position(), bodyEnd);
+            int from = start;
+            boolean lineComplete = true;
+            while (!isWaitingForOutput()) {
+                int newline = indexOf(in, (byte) '\n', from, limit);
+                int end;
+                int next;
+                if (newline >= 0) {
+                    end = newline;
+                    next = newline + 1;
+                } else if (limit == bodyEnd && (from < limit || skipping)) {
+                    // the last line has no newline
+                    end = limit;
+                    next = limit;
+                } else {
+                    lineComplete = false;
+                    break;
+                }
+                Verdict verdict;
+                if (skipping) {
+                    skipping = false;
+                    verdict = Verdict.MALFORMED;
+                } else {
+                    if (end > from && in.get(end - 1) == '\r') {
+                        end--;
+                    }
+                    verdict = validator.validate(line.set(in, from, end - from), url);
+                }
+                if (chunked && chunk < 0) {
+                    chunk = out.position();
+                    out.position(chunk + CHUNK_SIZE_DIGITS + 2);
+                }
+                out.put(VERDICT_LINES[verdict.ordinal()]);
+                from = next;
+            }
+            remaining -= from - start;
+            start = from;
+            if (remaining == 0 && !skipping) {
+                return true;
+            }
+            if (!lineComplete && start == 0 && !in.hasRemaining()) {
+                // a line longer than the buffer: drop what was read of it
+                skipping = true;
+                remaining -= in.position();
+                in.clear();
+                return remaining == 0 ? readBody() : false;
+            }
+            closeChunk();
+            return false;
+        }
+
+        /**
+         * Writes the size of the open chunk and ends it.
+         */
+        void closeChunk() {
+            if (chunk < 0) {
+                return;
+            }
+            int size = out.position() - chunk - CHUNK_SIZE_DIGITS - 2;
+            for (int i = CHUNK_SIZE_DIGITS - 1; i >= 0; i--) {
+                out.put(chunk + i, (byte) Character.forDigit(size & 0xF, 16));
+                size >>>= 4;
+            }
+            out.put(chunk + CHUNK_SIZE_DIGITS, (byte) '\r');
+            out.put(chunk + CHUNK_SIZE_DIGITS + 1, (byte) '\n');
+            out.put((byte) '\r');
+            out.put((byte) '\n');
+            chunk = -1;
+        }
+
+        /**
+         * Answers with an empty response and closes the connection.
+         */
+        void respond(int status, String reason) {
+            out.put(ascii("HTTP/1.1 " + status + " " + reason
+                    + "\r\nContent-Length: 0\r\nConnection: close\r\n\r\n"));
+            state = CLOSING;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Frequency;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Period;
+import jdk.jfr.StackTrace;
+
+/**
+ * <p>Periodic Flight Recorder event with the number of validations each
+ * validator class ran since the last one, counted while
+ * {@link ValidationEvent} is enabled.</p>
+ */
+@Name(ValidationStatisticsEvent.NAME)
+@Label("URL Validation Statistics")
+@Category("URL Validator")
+@Description("Validations and rejections since the previous event, per validator class")
+@Period("1 s")
+@StackTrace(false)
+final class ValidationStatisticsEvent extends jdk.jfr.Event {
+
+    static final String NAME = "osu.cs362.URLValidator.ValidationStatistics";
+
+    @Label("Validator")
+    String validator;
+
+    @Label("Validations")
+    long validations;
+
+    @Label("Rejected")
+    long rejected;
+
+    @Label("Throughput")
+    @Description("Validations per second since the previous event")
+    @Frequency
+    double throughput;
+}
@@ -0,0 +1,347 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.List;
+
+import osu.cs362.URLValidator.ClassFileWriter.Code;
+import osu.cs362.URLValidator.ClassFileWriter.Label;
+
+import static osu.cs362.URLValidator.ClassFileWriter.*;
+
+/**
+ * <p>Generates a class specialized for one {@link ValidationPlan}.</p>
+ *
+ * <p>The interpreted path looks schemes up in a {@link SchemeTable} and
+ * reads the options of the plan on every call. The generated class
+ * instead compares the scheme against the allowed schemes as constants,
+ * switches on the scheme ID to its handler, and calls the checks of
+ * hierarchical URLs with the options, authority validator and domain
+ * validator as constants, which the JIT folds once the checks are inlined.
+ * Handlers other than {@link HierarchicalSchemeHandler} are held in static
+ * final fields, so their calls are monomorphic.</p>
+ *
+ * <p>Each class is defined with
+ * <code>MethodHandles.Lookup.defineHiddenClassWithClassData</code>, so it
+ * is unloaded together with its validator. Roughly:</p>
+ * <pre>
+ *   Verdict validate(UrlValidator validator, CharSequence value, UrlComponents url) {
+ *       Verdict verdict = UrlValidator.parse(value, url);
+ *       if (verdict != VALID) return verdict;
+ *       int end = url.schemeEnd;
+ *       int id;
+ *       if (end == 4 &amp;&amp; (value.charAt(0) | 0x20) == 'h' &amp;&amp; ...) id = 0;
+ *       ...
+ *       else return SCHEME;
+ *       url.schemeId = id;
+ *       switch (id) {
+ *       case 0: return UrlValidator.validateHierarchy(url, false, false, true, REJECT, null, DOMAIN_VALIDATOR, null);
+ *       case 3: return HANDLER_3.validate(validator, url);
+ *       ...
+ *       }
+ *   }
+ * </pre>
+ */
+final class ValidatorCompiler {
+
+    private static final String PACKAGE = "osu/cs362/URLValidator/";
+
+    private static final String CLASS_NAME = PACKAGE + "CompiledUrlValidator";
+
+    private static final String OBJECT = "java/lang/Object";
+
+    private static final String URL_VALIDATOR = PACKAGE + "UrlValidator";
+
+    private static final String URL_COMPONENTS = PACKAGE + "UrlComponents";
+
+    private static final String VERDICT = PACKAGE + "Verdict";
+
+    private static final String SCHEME_HANDLER = PACKAGE + "SchemeHandler";
+
+    private static final String REGEX_VALIDATOR = PACKAGE + "RegexValidator";
+
+    private static final String DOMAIN_VALIDATOR = PACKAGE + "DomainValidator";
+
+    private static final String CREDENTIAL_POLICY = PACKAGE + "CredentialPolicy";
+
+    private static final String PORT_SET = PACKAGE + "PortSet";
+
+    private static final String VALIDATE_DESCRIPTOR = "(L" + URL_VALIDATOR + ";Ljava/lang/CharSequence;L"
+            + URL_COMPONENTS + ";)L" + VERDICT + ";";
+
+    private static final String HIERARCHY_DESCRIPTOR = "(L" + URL_COMPONENTS + ";ZZZL" + CREDENTIAL_POLICY
+            + ";L" + REGEX_VALIDATOR + ";L" + DOMAIN_VALIDATOR + ";L" + PORT_SET + ";)L" + VERDICT + ";";
+
+    private static final String HANDLER_DESCRIPTOR = "(L" + URL_VALIDATOR + ";L" + URL_COMPONENTS
+            + ";)L" + VERDICT + ";";
+
+    /* Local variables of the generated validate method. */
+    private static final int VALIDATOR = 1;
+    private static final int VALUE = 2;
+    private static final int URL = 3;
+    private static final int VERDICT_LOCAL = 4;
+    private static final int SCHEME_END = 5;
+    private static final int SCHEME_ID = 6;
+
+    private final ValidationPlan plan;
+
+    private final ClassFileWriter writer;
+
+    /** Values of the static fields, in the order they are declared. */
+    private final List<Object> fieldValues = new ArrayList<Object>();
+
+    private final List<String[]> fieldTypes = new ArrayList<String[]>();
+
+    private ValidatorCompiler(ValidationPlan plan) {
+        this.plan = plan;
+        this.writer = new ClassFileWriter(ACC_FINAL, CLASS_NAME, OBJECT, PACKAGE + "CompiledValidator");
+    }
+
+    /**
+     * Generates a validator for the plan.
+     * @param plan the plan to specialize for, which must not need the
+     * protected checks of a subclass
+     * @return the generated validator
+     * @throws IllegalStateException if the class cannot be defined
+     */
+    static CompiledValidator compile(ValidationPlan plan) {
+        if (plan.legacyChecks) {
+            throw new IllegalArgumentException("Plan calls overridden checks");
+        }
+        ValidatorCompiler compiler = new ValidatorCompiler(plan);
+        byte[] bytes = compiler.generate();
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup()
+                    .defineHiddenClassWithClassData(bytes, compiler.fieldValues.toArray(), true);
+            return (CompiledValidator) lookup.findConstructor(lookup.lookupClass(),
+                    MethodType.methodType(void.class)).invoke();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot define validator class", e);
+        }
+    }
+
+    private byte[] generate() {
+        Code init = writer.method(0, "<init>", "()V", 1, 1);
+        init.local(ALOAD, 0).invoke(INVOKESPECIAL, OBJECT, "<init>", "()V").op(RETURN).end();
+
+        generateValidate();
+        generateStaticInitializer();
+        return writer.toByteArray();
+    }
+
+    /**
+     * Adds a static final field holding the value.
+     * @return the name of the field
+     */
+    private String constantField(String name, String internalType, Object value) {
+        writer.field(ACC_PRIVATE | ACC_STATIC | ACC_FINAL, name, "L" + internalType + ";");
+        fieldTypes.add(new String[] {name, internalType});
+        fieldValues.add(value);
+        return name;
+    }
+
+    private void generateStaticInitializer() {
+        Code code = writer.method(ACC_STATIC, "<clinit>", "()V", 3, 1);
+        code.invoke(INVOKESTATIC, "java/lang/invoke/MethodHandles", "lookup",
+                "()Ljava/lang/invoke/MethodHandles$Lookup;")
+            .pushString("_")
+            .pushClass("[Ljava/lang/Object;")
+            .invoke(INVOKESTATIC, "java/lang/invoke/MethodHandles", "classData",
+                "(Ljava/lang/invoke/MethodHandles$Lookup;Ljava/lang/String;Ljava/lang/Class;)Ljava/lang/Object;")
+            .type(CHECKCAST, "[Ljava/lang/Object;")
+            .local(ASTORE, 0);
+        for (int i = 0; i < fieldTypes.size(); i++) {
+            String[] field = fieldTypes.get(i);
+            code.local(ALOAD, 0).push(i).op(AALOAD)
+                .type(CHECKCAST, field[1])
+                .field(PUTSTATIC, CLASS_NAME, field[0], "L" + field[1] + ";");
+        }
+        code.op(RETURN).end();
+    }
+
+    private void generateValidate() {
+        Code code = writer.method(ACC_PUBLIC, "validate", VALIDATE_DESCRIPTOR, 8, 7);
+        Label parsed = new Label();
+        Label unknown = new Label();
+        Label invalid = new Label();
+        Label found = new Label();
+
+        code.local(ALOAD, VALUE).local(ALOAD, URL)
+            .invoke(INVOKESTATIC, URL_VALIDATOR, "parse", "(Ljava/lang/CharSequence;L" + URL_COMPONENTS
+                    + ";)L" + VERDICT + ";")
+            .local(ASTORE, VERDICT_LOCAL)
+            .local(ALOAD, VERDICT_LOCAL).field(GETSTATIC, VERDICT, "VALID", "L" + VERDICT + ";")
+            .jump(IF_ACMPEQ, parsed)
+            .local(ALOAD, VERDICT_LOCAL).op(ARETURN)
+            .bind(parsed)
+            .local(ALOAD, URL).field(GETFIELD, URL_COMPONENTS, "schemeEnd", "I")
+            .local(ISTORE, SCHEME_END)
+            .local(ILOAD, SCHEME_END).jump(IFLT, invalid);
+
+        generateSchemeMatch(code, unknown, found);
+
+        code.bind(unknown);
+        boolean allowUnknown = plan.unknownSchemeHandler != null;
+        if (allowUnknown) {
+            code.local(ALOAD, VALUE).push(0).local(ILOAD, SCHEME_END)
+                .invoke(INVOKESTATIC, PACKAGE + "SchemeTable", "isValidSyntax", "(Ljava/lang/CharSequence;II)Z")
+                .jump(IFEQ, invalid)
+                .push(SchemeTable.UNKNOWN).local(ISTORE, SCHEME_ID)
+                .jump(GOTO, found);
+        }
+        code.bind(invalid)
+            .field(GETSTATIC, VERDICT, "SCHEME", "L" + VERDICT + ";").op(ARETURN);
+
+        code.bind(found)
+            .local(ALOAD, URL).local(ILOAD, SCHEME_ID).field(PUTFIELD, URL_COMPONENTS, "schemeId", "I");
+        generateDispatch(code, allowUnknown, invalid);
+        code.end();
+    }
+
+    /**
+     * Emits the comparison of the scheme with each allowed scheme, grouped
+     * by length. Letters are compared case-insensitively by setting bit 5,
+     * which only maps the upper case letter to the lower case one.
+     */
+    private void generateSchemeMatch(Code code, Label unknown, Label found) {
+        SchemeTable schemes = plan.schemes;
+        int maxLength = 0;
+        for (int id = 0; id < schemes.size(); id++) {
+            maxLength = Math.max(maxLength, schemes.getScheme(id).length());
+        }
+        for (int length = 1; length <= maxLength; length++) {
+            List<Integer> ids = new ArrayList<Integer>();
+            for (int id = 0; id < schemes.size(); id++) {
+                if (schemes.getScheme(id).length() == length) {
+                    ids.add(Integer.valueOf(id));
+                }
+            }
+            if (ids.isEmpty()) {
+                continue;
+            }
+
+            Label nextLength = new Label();
+            code.local(ILOAD, SCHEME_END).push(length).jump(IF_ICMPNE, nextLength);
+            for (Integer id : ids) {
+                String scheme = schemes.getScheme(id.intValue());
+                Label nextScheme = new Label();
+                for (int i = 0; i < length; i++) {
+                    char c = scheme.charAt(i);
+                    code.local(ALOAD, VALUE).push(i)
+                        .invoke(INVOKEINTERFACE, "java/lang/CharSequence", "charAt", "(I)C");
+                    if (c >= 'a' && c <= 'z') {
+                        code.push(0x20).op(IOR);
+                    }
+                    code.push(c).jump(IF_ICMPNE, nextScheme);
+                }
+                code.push(id.intValue()).local(ISTORE, SCHEME_ID).jump(GOTO, found);
+                code.bind(nextScheme);
+            }
+            code.jump(GOTO, unknown);
+            code.bind(nextLength);
+        }
+        code.jump(GOTO, unknown);
+    }
+
+    /**
+     * Emits the switch from the scheme ID to its handler. Hierarchical
+     * handlers are replaced by a direct call to the checks with the
+     * options of the plan as constants.
+     */
+    private void generateDispatch(Code code, boolean allowUnknown, Label invalid) {
+        SchemeHandler[] handlers = plan.handlers;
+        int low = allowUnknown ? SchemeTable.UNKNOWN : 0;
+        Label[] targets = new Label[handlers.length - low];
+        Label[] hierarchy = new Label[2];
+        List<Label> handlerLabels = new ArrayList<Label>();
+        List<String> handlerFields = new ArrayList<String>();
+
+        for (int id = low; id < handlers.length; id++) {
+            SchemeHandler handler = id < 0 ? plan.unknownSchemeHandler : handlers[id];
+            if (handler.getClass() == HierarchicalSchemeHandler.class) {
+                int empty = ((HierarchicalSchemeHandler) handler).allowsEmptyAuthority() ? 1 : 0;
+                if (hierarchy[empty] == null) {
+                    hierarchy[empty] = new Label();
+                }
+                targets[id - low] = hierarchy[empty];
+            } else {
+                Label label = new Label();
+                targets[id - low] = label;
+                handlerLabels.add(label);
+                String name = id < 0 ? "UNKNOWN_HANDLER" : "HANDLER_" + id;
+                handlerFields.add(constantField(name, SCHEME_HANDLER, handler));
+            }
+        }
+
+        if (targets.length == 0) {
+            code.jump(GOTO, invalid);
+            return;
+        }
+        code.local(ILOAD, SCHEME_ID).tableSwitch(low, invalid, targets);
+
+        String authorityValidator = plan.authorityValidator == null ? null
+                : constantField("AUTHORITY_VALIDATOR", REGEX_VALIDATOR, plan.authorityValidator);
+        String allowedPorts = plan.allowedPorts == null ? null
+                : constantField("ALLOWED_PORTS", PORT_SET, plan.allowedPorts);
+        String domainValidator = null;
+        for (int empty = 0; empty < hierarchy.length; empty++) {
+            if (hierarchy[empty] == null) {
+                continue;
+            }
+            if (domainValidator == null) {
+                domainValidator = constantField("DOMAIN_VALIDATOR", DOMAIN_VALIDATOR, plan.domainValidator);
+            }
+            code.bind(hierarchy[empty])
+                .local(ALOAD, URL)
+                .push(empty == 1)
+                .push(plan.allowDoubleSlashes)
+                .push(plan.rejectFragments)
+                .field(GETSTATIC, CREDENTIAL_POLICY, plan.credentialPolicy.name(), "L" + CREDENTIAL_POLICY + ";");
+            if (authorityValidator == null) {
+                code.op(ACONST_NULL);
+            } else {
+                code.field(GETSTATIC, CLASS_NAME, authorityValidator, "L" + REGEX_VALIDATOR + ";");
+            }
+            code.field(GETSTATIC, CLASS_NAME, domainValidator, "L" + DOMAIN_VALIDATOR + ";");
+            if (allowedPorts == null) {
+                code.op(ACONST_NULL);
+            } else {
+                code.field(GETSTATIC, CLASS_NAME, allowedPorts, "L" + PORT_SET + ";");
+            }
+            code.invoke(INVOKESTATIC, URL_VALIDATOR, "validateHierarchy", HIERARCHY_DESCRIPTOR)
+                .op(ARETURN);
+        }
+
+        for (int i = 0; i < handlerLabels.size(); i++) {
+            code.bind(handlerLabels.get(i))
+                .field(GETSTATIC, CLASS_NAME, handlerFields.get(i), "L" + SCHEME_HANDLER + ";")
+                .local(ALOAD, VALIDATOR).local(ALOAD, URL)
+                .invoke(INVOKEINTERFACE, SCHEME_HANDLER, "validate", HANDLER_DESCRIPTOR)
+                .op(ARETURN);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+import java.lang.management.ManagementFactory;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * <p>The {@link ValidationMetrics} of a named {@link UrlValidator}, as a
+ * standard MBean registered with the platform MBean server under
+ * <code>osu.cs362.URLValidator:type=ValidatorMetrics,name=&lt;name&gt;</code>.</p>
+ *
+ * <p>Validators are registered by
+ * {@link UrlValidator.Builder#name(String)}. Registered validators are
+ * also what {@link PrometheusEndpoint} renders. Reading an attribute sums
+ * the <code>LongAdder</code>s of the metrics, which never blocks
+ * validating threads.</p>
+ */
+public final class ValidatorMetrics implements ValidatorMetricsMBean {
+
+    /**
+     * The JMX domain of the MBeans.
+     */
+    public static final String DOMAIN = "osu.cs362.URLValidator";
+
+    /** Shortest time getThroughput averages over, in nanoseconds. */
+    static final long THROUGHPUT_WINDOW = 10L * 1000 * 1000 * 1000;
+
+    private static final ConcurrentMap<String, ValidatorMetrics> REGISTERED =
+            new ConcurrentHashMap<String, ValidatorMetrics>();
+
+    private final String name;
+
+    private final ValidationMetrics metrics;
+
+    private final ObjectName objectName;
+
+    /** Validation count and time the current window started at, guarded by this. */
+    private long windowCount;
+    private long windowNanos;
+
+    /** Validations per second in the last completed window, guarded by this. */
+    private double throughput;
+
+    private ValidatorMetrics(String name, ValidationMetrics metrics) throws JMException {
+        this.name = name;
+        this.metrics = metrics;
+        this.objectName = new ObjectName(DOMAIN + ":type=ValidatorMetrics,name=" + ObjectName.quote(name));
+        this.windowCount = metrics.getValidationCount();
+        this.windowNanos = System.nanoTime();
+    }
+
+    /**
+     * Registers metrics under a name, replacing metrics registered earlier
+     * under the same name.
+     * @param name the name of the validator
+     * @param metrics the metrics of the validator
+     * @return the registered MBean
+     * @throws IllegalStateException if the MBean cannot be registered
+     */
+    public static ValidatorMetrics register(String name, ValidationMetrics metrics) {
+        if (name == null || metrics == null) {
+            throw new IllegalArgumentException("Name and metrics are required");
+        }
+        try {
+            ValidatorMetrics mbean = new ValidatorMetrics(name, metrics);
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            synchronized (REGISTERED) {
+                if (server.isRegistered(mbean.objectName)) {
+                    server.unregisterMBean(mbean.objectName);
+                }
+                server.registerMBean(mbean, mbean.objectName);
+                REGISTERED.put(name, mbean);
+            }
+            return mbean;
+        } catch (JMException e) {
+            throw new IllegalStateException("Cannot register metrics of " + name, e);
+        }
+    }
+
+    /**
+     * Unregisters these metrics, if they are still registered.
+     */
+    public void unregister() {
+        synchronized (REGISTERED) {
+            if (REGISTERED.remove(name, this)) {
+                try {
+                    ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+                } catch (JMException e) {
+                    // already gone
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the registered metrics.
+     * @return the registered metrics, in no particular order
+     */
+    static Collection<ValidatorMetrics> getRegistered() {
+        return Collections.unmodifiableCollection(REGISTERED.values());
+    }
+
+    /**
+     * Returns the name the MBean is registered under.
+     * @return the object name
+     */
+    public ObjectName getObjectName() {
+        return objectName;
+    }
+
+    /**
+     * Returns the metrics behind this MBean.
+     * @return the metrics
+     */
+    public ValidationMetrics getMetrics() {
+        return metrics;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getValidationCount() {
+        return metrics.getValidationCount();
+    }
+
+    public long getRejectCount() {
+        return metrics.getRejectCount();
+    }
+
+    public double getThroughput() {
+        return getThroughput(System.nanoTime());
+    }
+
+    /**
+     * getThroughput at a given time. A window ends at the first read at
+     * least {@link #THROUGHPUT_WINDOW} after it started; every read until
+     * the next one ends returns the same rate, however many clients poll.
+     * @param now the time, from <code>System.nanoTime()</code>
+     * @return the throughput of the last completed window
+     */
+    synchronized double getThroughput(long now) {
+        long elapsed = now - windowNanos;
+        if (elapsed >= THROUGHPUT_WINDOW) {
+            long count = metrics.getValidationCount();
+            throughput = Math.max(0, count - windowCount) / (elapsed / 1e9);
+            windowCount = count;
+            windowNanos = now;
+        }
+        return throughput;
+    }
+
+    public Map<String, Long> getRejectCounts() {
+        Map<String, Long> counts = new LinkedHashMap<String, Long>();
+        ValidationMetrics.Reject[] rejects = ValidationMetrics.Reject.values();
+        for (int i = 0; i < rejects.length; i++) {
+            counts.put(rejects[i].name(), Long.valueOf(metrics.getRejectCount(rejects[i])));
+        }
+        return counts;
+    }
+
+    public long getLatencyP50() {
+        return metrics.getLatencyHistogram().getValueAtPercentile(50);
+    }
+
+    public long getLatencyP90() {
+        return metrics.getLatencyHistogram().getValueAtPercentile(90);
+    }
+
+    public long getLatencyP99() {
+        return metrics.getLatencyHistogram().getValueAtPercentile(99);
+    }
+
+    public long getLatencyP999() {
+        return metrics.getLatencyHistogram().getValueAtPercentile(99.9);
+    }
+
+    public void reset() {
+        metrics.reset();
+    }
+
+    /**
+     * Provide a String representation of these metrics.
+     * @return A String representation of these metrics
+     */
+    public String toString() {
+        return "ValidatorMetrics{name=" + name + "," + metrics + "}";
+    }
+}
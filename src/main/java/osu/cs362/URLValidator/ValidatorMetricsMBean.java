@@ -0,0 +1,93 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+
+import java.util.Map;
+
+/**
+ * JMX management interface of the {@link ValidationMetrics} of a named
+ * {@link UrlValidator}. Latencies are in nanoseconds.
+ *
+ * @see ValidatorMetrics
+ */
+public interface ValidatorMetricsMBean {
+
+    /**
+     * Returns the name the validator was registered under.
+     * @return the name
+     */
+    String getName();
+
+    /**
+     * Returns the number of URLs validated.
+     * @return the count
+     */
+    long getValidationCount();
+
+    /**
+     * Returns the number of URLs rejected.
+     * @return the count
+     */
+    long getRejectCount();
+
+    /**
+     * Returns the validations per second over the last completed window
+     * of at least ten seconds, or 0 during the first. Reading it does not
+     * change what other clients read; for a rate over a window of your
+     * own, sample {@link #getValidationCount()} instead.
+     * @return the throughput
+     */
+    double getThroughput();
+
+    /**
+     * Returns the number of URLs rejected at each rejection point.
+     * @return counts by {@link ValidationMetrics.Reject} name
+     */
+    Map<String, Long> getRejectCounts();
+
+    /**
+     * Returns the median validation latency.
+     * @return the latency in nanoseconds
+     */
+    long getLatencyP50();
+
+    /**
+     * Returns the 90th percentile of validation latency.
+     * @return the latency in nanoseconds
+     */
+    long getLatencyP90();
+
+    /**
+     * Returns the 99th percentile of validation latency.
+     * @return the latency in nanoseconds
+     */
+    long getLatencyP99();
+
+    /**
+     * Returns the 99.9th percentile of validation latency.
+     * @return the latency in nanoseconds
+     */
+    long getLatencyP999();
+
+    /**
+     * Clears all counts.
+     */
+    void reset();
+}
@@ -0,0 +1,156 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.ShortVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link ScanKernel} on the <code>jdk.incubator.vector</code> API, checking
+ * a full preferred-width vector (16 to 64 bytes) per step.
+ *
+ * <p>Only loaded reflectively by {@link ScanKernel#forName(String)} once the
+ * incubator module is known to be present. Characters are copied a chunk at
+ * a time into a per-thread buffer, since a <code>CharSequence</code> cannot
+ * be loaded into a vector directly.</p>
+ */
+final class VectorScanKernel extends ScanKernel {
+
+    private static final VectorSpecies<Byte> BYTES = ByteVector.SPECIES_PREFERRED;
+
+    private static final VectorSpecies<Short> SHORTS = ShortVector.SPECIES_PREFERRED;
+
+    private static final int CHUNK = 512;
+
+    private static final ThreadLocal<char[]> BUFFERS = ThreadLocal.withInitial(() -> new char[CHUNK]);
+
+    private final ScanKernel swar = new ScanKernel.Swar();
+
+    public String getName() {
+        return "vector";
+    }
+
+    public boolean isAscii(CharSequence value, int from, int to) {
+        if (to - from < 2 * SHORTS.length()) {
+            return swar.isAscii(value, from, to);
+        }
+        char[] buffer = BUFFERS.get();
+        for (int pos = from; pos < to; pos += CHUNK) {
+            int length = Math.min(CHUNK, to - pos);
+            fill(value, pos, length, buffer);
+            int bound = SHORTS.loopBound(length);
+            int i = 0;
+            for (; i < bound; i += SHORTS.length()) {
+                ShortVector v = ShortVector.fromCharArray(SHORTS, buffer, i);
+                if (v.and((short) 0xFF80).compare(VectorOperators.NE, (short) 0).anyTrue()) {
+                    return false;
+                }
+            }
+            for (; i < length; i++) {
+                if (buffer[i] > 127) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public boolean isAscii(byte[] value, int from, int to) {
+        if (to - from < 2 * BYTES.length()) {
+            return swar.isAscii(value, from, to);
+        }
+        int bound = from + BYTES.loopBound(to - from);
+        int i = from;
+        for (; i < bound; i += BYTES.length()) {
+            if (ByteVector.fromArray(BYTES, value, i).lt((byte) 0).anyTrue()) {
+                return false;
+            }
+        }
+        return scalarIsAscii(value, i, to);
+    }
+
+    public boolean allInClass(CharSequence value, int from, int to, CharClass members) {
+        if (!members.isWide() || to - from < 2 * SHORTS.length()) {
+            return swar.allInClass(value, from, to, members);
+        }
+        short min = (short) members.min;
+        short max = (short) members.max;
+        char[] holes = members.holes;
+        char[] buffer = BUFFERS.get();
+        for (int pos = from; pos < to; pos += CHUNK) {
+            int length = Math.min(CHUNK, to - pos);
+            fill(value, pos, length, buffer);
+            int bound = SHORTS.loopBound(length);
+            int i = 0;
+            for (; i < bound; i += SHORTS.length()) {
+                // chars of 0x8000 and up are negative lanes, so fall below min
+                ShortVector v = ShortVector.fromCharArray(SHORTS, buffer, i);
+                VectorMask<Short> outside = v.lt(min).or(v.compare(VectorOperators.GT, max));
+                for (int h = 0; h < holes.length; h++) {
+                    outside = outside.or(v.eq((short) holes[h]));
+                }
+                if (outside.anyTrue()) {
+                    return false;
+                }
+            }
+            for (; i < length; i++) {
+                if (!members.contains(buffer[i])) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    public boolean allInClass(byte[] value, int from, int to, CharClass members) {
+        if (!members.isWide() || to - from < 2 * BYTES.length()) {
+            return swar.allInClass(value, from, to, members);
+        }
+        byte min = (byte) members.min;
+        byte max = (byte) members.max;
+        char[] holes = members.holes;
+        int bound = from + BYTES.loopBound(to - from);
+        int i = from;
+        for (; i < bound; i += BYTES.length()) {
+            // non-ASCII bytes are negative lanes, so fall below min
+            ByteVector v = ByteVector.fromArray(BYTES, value, i);
+            VectorMask<Byte> outside = v.lt(min).or(v.compare(VectorOperators.GT, max));
+            for (int h = 0; h < holes.length; h++) {
+                outside = outside.or(v.eq((byte) holes[h]));
+            }
+            if (outside.anyTrue()) {
+                return false;
+            }
+        }
+        return scalarAllInClass(value, i, to, members);
+    }
+
+    private static void fill(CharSequence value, int from, int length, char[] buffer) {
+        if (value instanceof String) {
+            ((String) value).getChars(from, from + length, buffer, 0);
+        } else {
+            for (int i = 0; i < length; i++) {
+                buffer[i] = value.charAt(from + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/**
+ * The outcome of validating a URL: either {@link #VALID} or the first
+ * component that was rejected.
+ *
+ * @see UrlValidator#validate(CharSequence)
+ */
+public enum Verdict {
+
+    /** The URL is valid. */
+    VALID,
+
+    /** The value is <code>null</code>, empty or has no URL structure. */
+    MALFORMED,
+
+    /** The value holds non-ASCII characters. */
+    NON_ASCII,
+
+    /** The scheme is missing, malformed or not allowed. */
+    SCHEME,
+
+    /** The authority is missing or malformed. */
+    AUTHORITY,
+
+    /** The path is malformed. */
+    PATH,
+
+    /** The query is malformed. */
+    QUERY,
+
+    /** The fragment is malformed or fragments are not allowed. */
+    FRAGMENT;
+
+    /**
+     * Tests whether this verdict accepts the URL.
+     * @return true for {@link #VALID}
+     */
+    public boolean isValid() {
+        return this == VALID;
+    }
+}
@@ -0,0 +1,159 @@
+package osu.cs362.URLValidator;
+
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+/**
+ * <p>A streaming xxHash64, seed 0, fed one byte at a time.</p>
+ *
+ * <p>Gives the same value as the reference implementation over the
+ * bytes passed to {@link #update(int)}, without them being held in an
+ * array. Instances are reusable after {@link #reset()} and are not safe
+ * to share between threads.</p>
+ */
+final class XxHash64 {
+
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+    private long v1;
+    private long v2;
+    private long v3;
+    private long v4;
+
+    /** Whole 8 byte words of the stripe being read. */
+    private final long[] words = new long[4];
+
+    private int wordCount;
+
+    /** Bytes of the word being read, little-endian. */
+    private long word;
+
+    private int byteCount;
+
+    private long length;
+
+    XxHash64() {
+        reset();
+    }
+
+    /**
+     * Starts a new hash.
+     */
+    void reset() {
+        v1 = PRIME1 + PRIME2;
+        v2 = PRIME2;
+        v3 = 0;
+        v4 = -PRIME1;
+        wordCount = 0;
+        word = 0;
+        byteCount = 0;
+        length = 0;
+    }
+
+    /**
+     * Adds a byte.
+     * @param b the byte, in the low 8 bits
+     */
+    void update(int b) {
+        word |= (b & 0xFFL) << (byteCount << 3);
+        length++;
+        if (++byteCount == 8) {
+            words[wordCount++] = word;
+            word = 0;
+            byteCount = 0;
+            if (wordCount == 4) {
+                v1 = round(v1, words[0]);
+                v2 = round(v2, words[1]);
+                v3 = round(v3, words[2]);
+                v4 = round(v4, words[3]);
+                wordCount = 0;
+            }
+        }
+    }
+
+    /**
+     * Returns the hash of the bytes added since the last reset.
+     * @return the hash
+     */
+    long getValue() {
+        long h;
+        if (length >= 32) {
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = merge(h, v1);
+            h = merge(h, v2);
+            h = merge(h, v3);
+            h = merge(h, v4);
+        } else {
+            h = PRIME5;
+        }
+        h += length;
+
+        for (int i = 0; i < wordCount; i++) {
+            h ^= round(0, words[i]);
+            h = Long.rotateLeft(h, 27) * PRIME1 + PRIME4;
+        }
+        long rest = word;
+        int n = byteCount;
+        if (n >= 4) {
+            h ^= (rest & 0xFFFFFFFFL) * PRIME1;
+            h = Long.rotateLeft(h, 23) * PRIME2 + PRIME3;
+            rest >>>= 32;
+            n -= 4;
+        }
+        for (; n > 0; n--) {
+            h ^= (rest & 0xFF) * PRIME5;
+            h = Long.rotateLeft(h, 11) * PRIME1;
+            rest >>>= 8;
+        }
+
+        h ^= h >>> 33;
+        h *= PRIME2;
+        h ^= h >>> 29;
+        h *= PRIME3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    /**
+     * Returns the hash of characters taken as bytes.
+     * @param value characters below U+0100
+     * @return the hash
+     */
+    static long hash(CharSequence value) {
+        XxHash64 hash = new XxHash64();
+        for (int i = 0; i < value.length(); i++) {
+            hash.update(value.charAt(i));
+        }
+        return hash.getValue();
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * PRIME2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * PRIME1;
+    }
+
+    private static long merge(long acc, long value) {
+        acc ^= round(0, value);
+        return acc * PRIME1 + PRIME4;
+    }
+}
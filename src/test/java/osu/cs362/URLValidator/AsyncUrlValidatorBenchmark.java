@@ -0,0 +1,81 @@
+package osu.cs362.URLValidator;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/*
+ * Throughput of AsyncUrlValidator with 100k concurrent callers, each
+ * validating one URL and waiting for the verdict. Callers are virtual
+ * threads when the runtime has them, otherwise async calls issued by a
+ * few platform threads. Not a unit test, run it by hand:
+ *
+ *   mvn test-compile
+ *   java -cp target/classes:target/test-classes osu.cs362.URLValidator.AsyncUrlValidatorBenchmark
+ */
+public class AsyncUrlValidatorBenchmark {
+
+    static int CALLERS = 100000;
+    static int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        String[] urls = new String[CALLERS];
+        Random r = new Random(362);
+        for (int i = 0; i < urls.length; i++) {
+            urls[i] = "http://www.example" + r.nextInt(1000) + ".com/p/" + Long.toHexString(r.nextLong());
+        }
+        UrlValidator urlValidator = UrlValidator.builder().compile().build();
+        AsyncUrlValidator validator = new AsyncUrlValidator(urlValidator);
+        boolean virtual = AsyncUrlValidator.isVirtualThreadsAvailable();
+        System.out.println("callers: " + CALLERS + (virtual ? " virtual threads" : " async calls"));
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (String url : urls) {
+                urlValidator.validate(url);
+            }
+            double sync = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            if (virtual) {
+                runOnVirtualThreads(validator, urls);
+            } else {
+                runAsync(validator, urls);
+            }
+            double async = (System.nanoTime() - start) / 1e9;
+
+            start = System.nanoTime();
+            validator.validateAll(Arrays.asList(urls)).join();
+            double batch = (System.nanoTime() - start) / 1e9;
+
+            System.out.printf("round %d: sync %8.0f/s  callers %8.0f/s  batch %8.0f/s%n",
+                    round, CALLERS / sync, CALLERS / async, CALLERS / batch);
+        }
+        validator.close();
+    }
+
+    static void runOnVirtualThreads(final AsyncUrlValidator validator, String[] urls) throws Exception {
+        ExecutorService callers = (ExecutorService) Executors.class
+                .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        final CountDownLatch done = new CountDownLatch(urls.length);
+        for (final String url : urls) {
+            callers.execute(new Runnable() {
+                public void run() {
+                    validator.validate(url).join();
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        callers.shutdown();
+    }
+
+    static void runAsync(AsyncUrlValidator validator, String[] urls) {
+        List<CompletableFuture<Verdict>> verdicts = new ArrayList<CompletableFuture<Verdict>>(urls.length);
+        for (String url : urls) {
+            verdicts.add(validator.validate(url));
+        }
+        for (CompletableFuture<Verdict> verdict : verdicts) {
+            verdict.join();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package osu.cs362.URLValidator;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AsyncUrlValidatorTest {
+
+    @Test
+    public void testValidate() {
+        AsyncUrlValidator validator = new AsyncUrlValidator(UrlValidator.getInstance());
+        try {
+            assertEquals(Verdict.VALID, validator.validate("http://www.google.com/").join());
+            assertEquals(Verdict.SCHEME, validator.validate("gopher://www.google.com/").join());
+            assertEquals(Verdict.MALFORMED, validator.validate(null).join());
+        } finally {
+            validator.close();
+        }
+    }
+
+    @Test
+    public void testValidateAllKeepsOrder() {
+        UrlValidator urlValidator = new UrlValidator();
+        List<String> urls = new ArrayList<String>();
+        for (int i = 0; i < AsyncUrlValidator.BATCH_CHUNK * 10 + 7; i++) {
+            urls.add(i % 3 == 0 ? "http://www.google.com/" + i : "http://www.google.com:" + (i * 100) + "/");
+        }
+        AsyncUrlValidator validator = new AsyncUrlValidator(urlValidator);
+        try {
+            List<Verdict> verdicts = validator.validateAll(urls).join();
+            assertEquals(urls.size(), verdicts.size());
+            for (int i = 0; i < urls.size(); i++) {
+                assertEquals(urls.get(i), urlValidator.validate(urls.get(i)), verdicts.get(i));
+            }
+            assertTrue(validator.validateAll(new ArrayList<String>()).join().isEmpty());
+        } finally {
+            validator.close();
+        }
+    }
+
+    @Test
+    public void testFailureCancelsBatch() throws InterruptedException {
+        final CountDownLatch started = new CountDownLatch(1);
+        SchemeHandler failing = new SchemeHandler() {
+            public Verdict validate(UrlValidator validator, UrlComponents url) {
+                started.countDown();
+                throw new IllegalStateException("handler failed");
+            }
+        };
+        ValidationMetrics metrics = new ValidationMetrics();
+        UrlValidator urlValidator = UrlValidator.builder()
+                .schemes("http", "x")
+                .schemeHandler("x", failing)
+                .metrics(metrics)
+                .build();
+        List<String> urls = new ArrayList<String>();
+        urls.add("x:y");
+        for (int i = 0; i < AsyncUrlValidator.BATCH_CHUNK * 100; i++) {
+            urls.add("http://www.google.com/");
+        }
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        AsyncUrlValidator validator = new AsyncUrlValidator(urlValidator, pool);
+        try {
+            CompletableFuture<List<Verdict>> verdicts = validator.validateAll(urls);
+            try {
+                verdicts.join();
+                fail("batch should fail");
+            } catch (CompletionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+            assertEquals(0, started.getCount());
+        } finally {
+            validator.close();
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        }
+        // the chunks queued behind the failing one were cancelled or skipped
+        long validated = metrics.getValidationCount();
+        assertTrue(String.valueOf(validated), validated < AsyncUrlValidator.BATCH_CHUNK * 10);
+    }
+
+    @Test
+    public void testValidateData() {
+        AsyncUrlValidator validator = new AsyncUrlValidator(UrlValidator.getInstance());
+        try {
+            assertTrue(validator.validateData(Channels.newChannel(
+                    new ByteArrayInputStream("data:text/plain;base64,SGVsbG8=".getBytes()))).join());
+            assertFalse(validator.validateData(Channels.newChannel(
+                    new ByteArrayInputStream("data:text/plain;base64,SGVsb".getBytes()))).join());
+        } finally {
+            validator.close();
+        }
+    }
+}
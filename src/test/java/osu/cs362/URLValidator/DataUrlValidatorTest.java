@@ -0,0 +1,97 @@
+package osu.cs362.URLValidator;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+
+public class DataUrlValidatorTest {
+
+    DataUrlValidator dataUrlValidator = DataUrlValidator.getInstance();
+
+    /*
+     * Channel producing "data:;base64," and then count base64 digits,
+     * without ever holding the payload in memory
+     */
+    static class PayloadChannel implements ReadableByteChannel {
+        byte[] header = "data:;base64,".getBytes();
+        long remaining;
+        long position;
+        boolean open = true;
+
+        PayloadChannel(long count) {
+            remaining = header.length + count;
+        }
+
+        public int read(ByteBuffer dst) {
+            if (remaining == 0) {
+                return -1;
+            }
+            int n = 0;
+            while (dst.hasRemaining() && remaining > 0) {
+                byte b = position < header.length ? header[(int) position] : (byte) "QUJD".charAt((int) (position % 4));
+                dst.put(b);
+                position++;
+                remaining--;
+                n++;
+            }
+            return n;
+        }
+
+        public boolean isOpen() {
+            return open;
+        }
+
+        public void close() {
+            open = false;
+        }
+    }
+
+    @Test
+    public void testCharSequence() {
+        ResultPair[] urls = {
+            new ResultPair("data:,Hello%2C%20World!", true),
+            new ResultPair("DATA:,Hello", true),
+            new ResultPair("data:text/plain;base64,SGVsbG8sIFdvcmxkIQ==#frag", true),
+            new ResultPair("data:image/png;name=a%20b;base64,iVBORw0KGgo=", true),
+            new ResultPair("data:text/plain;charset=;base64,SGVsbG8=", false),
+            new ResultPair("data:text/plain;base64;charset=x,SGVsbG8=", false),
+            new ResultPair("data:;base64,SGVs=G8=", false),
+            new ResultPair("data:;base64,S===", false),
+            new ResultPair("data:,a#b\nc", false),
+            new ResultPair("data:,é", false),
+            new ResultPair("dat:,a", false),
+            new ResultPair("http://www.google.com", false)
+        };
+        for (int i = 0; i < urls.length; i++) {
+            assertEquals(urls[i].item, urls[i].valid, dataUrlValidator.isValid(urls[i].item));
+        }
+    }
+
+    @Test
+    public void testChannel() throws IOException {
+        ReadableByteChannel channel = Channels.newChannel(new ByteArrayInputStream("data:,a%20b".getBytes()));
+        assertTrue(dataUrlValidator.isValid(channel));
+        channel = Channels.newChannel(new ByteArrayInputStream(new byte[] {'d', 'a', 't', 'a', ':', ',', (byte) 0xE9}));
+        assertFalse(dataUrlValidator.isValid(channel));
+
+        // 16MB of payload through an 8KB buffer
+        assertTrue(dataUrlValidator.isValid(new PayloadChannel(16L << 20)));
+        assertFalse(dataUrlValidator.isValid(new PayloadChannel((16L << 20) + 1)));
+    }
+
+    @Test
+    public void testLargeUrl() {
+        StringBuilder url = new StringBuilder("data:application/octet-stream;base64,");
+        while (url.length() < (4 << 20)) {
+            url.append("QUJD");
+        }
+        UrlValidator urlValidator = new UrlValidator(new String[] {"data"});
+        assertEquals(Verdict.VALID, urlValidator.validate(url));
+        url.setCharAt(url.length() / 2, '*');
+        assertEquals(Verdict.PATH, urlValidator.validate(url));
+    }
+}
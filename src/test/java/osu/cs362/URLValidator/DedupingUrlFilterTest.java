@@ -0,0 +1,120 @@
+package osu.cs362.URLValidator;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class DedupingUrlFilterTest {
+
+    private static final UrlValidator VALIDATOR = UrlValidator.getInstance();
+
+    @Test
+    public void testOffer() {
+        DedupingUrlFilter filter = new DedupingUrlFilter(VALIDATOR, 1000, 0.01, false);
+        assertEquals(DedupingUrlFilter.Result.NEW, filter.offer("http://www.google.com/a"));
+        assertEquals(DedupingUrlFilter.Result.SEEN, filter.offer("http://www.google.com/a"));
+        // compared by canonical form
+        assertEquals(DedupingUrlFilter.Result.SEEN, filter.offer("HTTP://WWW.Google.com:80/b/../a"));
+        assertEquals(DedupingUrlFilter.Result.NEW, filter.offer("http://www.google.com/b"));
+        assertEquals(DedupingUrlFilter.Result.INVALID, filter.offer("gopher://www.google.com/a"));
+        assertEquals(DedupingUrlFilter.Result.INVALID, filter.offer(null));
+
+        assertEquals(6, filter.getUrlCount());
+        assertEquals(2, filter.getNewCount());
+        assertEquals(2, filter.getSeenCount());
+        assertEquals(2, filter.getInvalidCount());
+        assertFalse(filter.isExact());
+        assertTrue(Double.isNaN(filter.getMeasuredFalsePositiveRate()));
+        assertEquals(filter.getBitCount() / 8, filter.getMemoryUsed());
+        assertEquals(0, filter.getBitCount() % 64);
+        assertTrue(filter.toString().contains("new=2"));
+    }
+
+    @Test
+    public void testSizing() {
+        // 1% needs about 9.6 bits and 7 hashes per URL
+        DedupingUrlFilter filter = new DedupingUrlFilter(VALIDATOR, 100000, 0.01, true);
+        assertEquals(958506, filter.getBitCount(), 64);
+        assertEquals(7, filter.getHashCount());
+        assertEquals(filter.getBitCount() / 8 + 262144 * 8, filter.getMemoryUsed());
+    }
+
+    @Test
+    public void testFalsePositives() {
+        int n = 20000;
+        DedupingUrlFilter bloomOnly = new DedupingUrlFilter(VALIDATOR, n, 0.02, false);
+        DedupingUrlFilter exact = new DedupingUrlFilter(VALIDATOR, n, 0.02, true);
+        UrlComponents url = new UrlComponents();
+        for (int i = 0; i < n; i++) {
+            String value = "http://www.google.com/" + i;
+            bloomOnly.offer(value, url);
+            assertEquals(value, DedupingUrlFilter.Result.NEW, exact.offer(value, url));
+        }
+        assertEquals(n, exact.getNewCount());
+        assertEquals(n, bloomOnly.getNewCount() + bloomOnly.getSeenCount());
+
+        double measured = exact.getMeasuredFalsePositiveRate();
+        assertEquals(exact.getFalsePositiveCount(), bloomOnly.getSeenCount());
+        // the rate climbs to 2% as the filter fills, so the average is lower
+        assertTrue(String.valueOf(measured), measured > 0 && measured < 0.02);
+        double estimated = exact.getEstimatedFalsePositiveRate();
+        assertTrue(String.valueOf(estimated), estimated > 0.01 && estimated < 0.03);
+
+        for (int i = 0; i < n; i++) {
+            assertEquals(DedupingUrlFilter.Result.SEEN, exact.offer("http://www.google.com/" + i, url));
+        }
+    }
+
+    @Test
+    public void testConcurrentWriters() throws InterruptedException {
+        final int n = 20000;
+        final DedupingUrlFilter filter = new DedupingUrlFilter(VALIDATOR, n, 0.05, true);
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            final int offset = t * n / 8;
+            threads[t] = new Thread() {
+                public void run() {
+                    UrlComponents url = new UrlComponents();
+                    for (int i = 0; i < n; i++) {
+                        filter.offer("http://www.google.com/" + (offset + i) % n, url);
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (int t = 0; t < threads.length; t++) {
+            threads[t].join();
+        }
+        assertEquals(n, filter.getNewCount());
+        assertEquals(3 * n, filter.getSeenCount());
+    }
+
+    @Test
+    public void testExactSetFull() {
+        DedupingUrlFilter filter = new DedupingUrlFilter(VALIDATOR, 4, 0.5, true);
+        int i = 0;
+        try {
+            for (; i < 100; i++) {
+                filter.add(i + 1);
+            }
+            fail();
+        } catch (IllegalStateException e) {
+            assertEquals(6, i);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadRate() {
+        new DedupingUrlFilter(VALIDATOR, 10, 1, false);
+    }
+
+    @Test
+    public void testOffHeapLongArray() {
+        OffHeapLongArray array = new OffHeapLongArray(3);
+        assertEquals(0, array.getVolatile(2));
+        assertTrue(array.compareAndSet(2, 0, -7));
+        assertFalse(array.compareAndSet(2, 0, 5));
+        assertEquals(-7, array.getVolatile(2));
+        assertEquals(24, array.getMemoryUsed());
+    }
+}
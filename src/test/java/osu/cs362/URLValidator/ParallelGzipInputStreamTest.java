@@ -0,0 +1,187 @@
+package osu.cs362.URLValidator;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class ParallelGzipInputStreamTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @After
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private static byte[] text(Random random, int lines) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            text.append("http://www.example").append(random.nextInt(1000)).append(".com/")
+                    .append(Long.toHexString(random.nextLong())).append('\n');
+        }
+        return text.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static byte[] gzip(byte[] data, int from, int to) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GZIPOutputStream out = new GZIPOutputStream(bytes);
+        out.write(data, from, to - from);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes a member with every optional header field, as gzip(1) may.
+     */
+    private static byte[] gzipWithHeaderFields(byte[] data) {
+        Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+        deflater.setInput(data);
+        deflater.finish();
+        byte[] deflated = new byte[data.length + 1024];
+        int n = deflater.deflate(deflated);
+        deflater.end();
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[] {0x1F, (byte) 0x8B, 8, 2 | 4 | 8 | 16, 0, 0, 0, 0, 0, 3}, 0, 10);
+        out.write(new byte[] {3, 0, 'a', 'b', 'c'}, 0, 5);
+        out.write(new byte[] {'u', 'r', 'l', 's', 0, 'h', 'i', 0, 0x12, 0x34}, 0, 10);
+        out.write(deflated, 0, n);
+        int[] trailer = {(int) crc.getValue(), data.length};
+        for (int value : trailer) {
+            for (int i = 0; i < 4; i++) {
+                out.write(value >>> 8 * i);
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte[] part : parts) {
+            out.write(part, 0, part.length);
+        }
+        return out.toByteArray();
+    }
+
+    private byte[] inflate(byte[] gzip, int windowSize) throws IOException {
+        InputStream in = new ParallelGzipInputStream(new ByteArrayInputStream(gzip), executor, 3, windowSize);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1000];
+        for (int n; (n = in.read(buffer)) > 0;) {
+            out.write(buffer, 0, n);
+        }
+        assertEquals(-1, in.read());
+        in.close();
+        return out.toByteArray();
+    }
+
+    @Test
+    public void testMultiMember() throws IOException {
+        Random random = new Random(362);
+        byte[] text = text(random, 20000);
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        for (int from = 0; from < text.length;) {
+            int to = Math.min(text.length, from + 1 + random.nextInt(40000));
+            byte[] member = gzip(text, from, to);
+            gzip.write(member, 0, member.length);
+            from = to;
+        }
+        byte[] members = gzip.toByteArray();
+        assertArrayEquals(text, inflate(members, ParallelGzipInputStream.DEFAULT_WINDOW_SIZE));
+        // members crossing the window are streamed by the reader
+        assertArrayEquals(text, inflate(members, 20000));
+        assertArrayEquals(text, inflate(members, 4096));
+    }
+
+    @Test
+    public void testSingleMember() throws IOException {
+        byte[] text = text(new Random(1), 30000);
+        assertArrayEquals(text, inflate(gzip(text, 0, text.length), 8192));
+        assertArrayEquals(new byte[0], inflate(gzip(text, 0, 0), 8192));
+    }
+
+    @Test
+    public void testHeaderFields() throws IOException {
+        byte[] first = text(new Random(2), 100);
+        byte[] second = text(new Random(3), 100);
+        byte[] gzip = concat(gzipWithHeaderFields(first), gzip(second, 0, second.length), gzipWithHeaderFields(first));
+        assertArrayEquals(concat(first, second, first), inflate(gzip, 1 << 16));
+        assertArrayEquals(concat(first, second, first), inflate(gzip, 1024));
+    }
+
+    @Test
+    public void testTrailingGarbageIsIgnored() throws IOException {
+        byte[] text = text(new Random(4), 100);
+        byte[] gzip = concat(gzip(text, 0, text.length), new byte[100]);
+        assertArrayEquals(text, inflate(gzip, 1 << 16));
+    }
+
+    @Test
+    public void testFalseHeaderInData() throws IOException {
+        // stored data holding what looks like a member header
+        byte[] text = concat("abc".getBytes(StandardCharsets.US_ASCII), gzip(new byte[0], 0, 0), new byte[50]);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        GZIPOutputStream out = new GZIPOutputStream(bytes) {
+            {
+                def.setLevel(Deflater.NO_COMPRESSION);
+            }
+        };
+        out.write(text);
+        out.close();
+        byte[] member = bytes.toByteArray();
+        assertArrayEquals(concat(text, text), inflate(concat(member, member), 1 << 16));
+    }
+
+    @Test
+    public void testCorruptMember() throws IOException {
+        byte[] text = text(new Random(5), 1000);
+        byte[] gzip = gzip(text, 0, text.length);
+        gzip[gzip.length - 6] ^= 1;
+        try {
+            inflate(gzip, 1 << 16);
+            fail("CRC mismatch");
+        } catch (ZipException e) {
+            // expected
+        }
+        try {
+            inflate(gzip, 1024);
+            fail("CRC mismatch");
+        } catch (ZipException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testTruncated() throws IOException {
+        byte[] text = text(new Random(6), 1000);
+        byte[] gzip = gzip(text, 0, text.length);
+        try {
+            inflate(Arrays.copyOf(gzip, gzip.length - 20), 1 << 16);
+            fail("Truncated");
+        } catch (EOFException e) {
+            // expected
+        }
+    }
+
+    @Test(expected = ZipException.class)
+    public void testNotGzip() throws IOException {
+        inflate("http://www.google.com/\n".getBytes(StandardCharsets.US_ASCII), 1 << 16);
+    }
+}
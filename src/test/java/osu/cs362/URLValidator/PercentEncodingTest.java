@@ -0,0 +1,78 @@
+package osu.cs362.URLValidator;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+import org.junit.Test;
+
+public class PercentEncodingTest {
+
+    @Test
+    public void testValidation() {
+        UrlValidator urlValidator = UrlValidator.getInstance();
+        assertEquals(Verdict.VALID, urlValidator.validate("http://www.google.com/%41%2f%2F"));
+        assertEquals(Verdict.VALID, urlValidator.validate("http://www.google.com/a%20b/%e2%82%ac"));
+        String[] invalid = {
+            "http://www.google.com/%", "http://www.google.com/%4", "http://www.google.com/%4/",
+            "http://www.google.com/%zz", "http://www.google.com/%4g", "http://www.google.com/%%41"
+        };
+        UrlComponents url = new UrlComponents();
+        for (int i = 0; i < invalid.length; i++) {
+            assertEquals(invalid[i], Verdict.PATH, urlValidator.validate(invalid[i], url));
+            assertEquals(invalid[i], ValidationMetrics.Reject.PERCENT_ENCODING, url.reject);
+        }
+        assertEquals(Verdict.QUERY, urlValidator.validate("http://www.google.com/?a=%zz", url));
+        assertEquals(ValidationMetrics.Reject.PERCENT_ENCODING, url.reject);
+        assertFalse(urlValidator.isValid("http://www.google.com/?a=%zz\n"));
+        // queries are rejected however they are escaped
+        assertEquals(Verdict.QUERY, urlValidator.validate("http://www.google.com/?a=%41", url));
+        assertFalse(ValidationMetrics.Reject.PERCENT_ENCODING == url.reject);
+        assertEquals(Verdict.QUERY, urlValidator.validate("http://www.google.com/?", url));
+    }
+
+    @Test
+    public void testIsValidEncoding() {
+        assertTrue(PercentDecoder.isValidEncoding("", 0, 0));
+        assertTrue(PercentDecoder.isValidEncoding("a%00b%Ff", 0, 8));
+        assertFalse(PercentDecoder.isValidEncoding("a%0", 0, 3));
+        // only the range is checked
+        assertTrue(PercentDecoder.isValidEncoding("%41%", 0, 3));
+        assertEquals(-1, PercentDecoder.hexValue('g'));
+        assertEquals(-1, PercentDecoder.hexValue('٠'));
+        assertEquals(15, PercentDecoder.hexValue('F'));
+    }
+
+    @Test
+    public void testDecodeTo() throws IOException {
+        UrlComponents url = new UrlComponents();
+        assertTrue(url.parse("http://go.com/a%20b/%E2%82%AC+?q=%C3%A9+x&r=%zz"));
+        StringBuilder out = new StringBuilder();
+        url.decodePathTo(out);
+        assertEquals("/a b/€+", out.toString());
+        out.setLength(0);
+        url.decodeQueryTo(out);
+        assertEquals("q=é+x&r=%zz", out.toString());
+
+        ByteBuffer bytes = ByteBuffer.allocate(64);
+        assertEquals(9, url.decodePathTo(bytes));
+        assertEquals((byte) 0xE2, bytes.get(5));
+        bytes.clear();
+        assertEquals(12, url.decodeQueryTo(bytes));
+
+        assertTrue(url.parse("http://go.com/%41%42%43"));
+        bytes = ByteBuffer.allocate(8);
+        try {
+            url.decodePathTo(bytes);
+            fail();
+        } catch (BufferOverflowException e) {
+            assertEquals(0, bytes.position());
+        }
+        out.setLength(0);
+        url.decodeQueryTo(out);
+        assertEquals(0, out.length());
+        assertEquals(0, url.decodeQueryTo(bytes));
+    }
+}
@@ -0,0 +1,169 @@
+package osu.cs362.URLValidator;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+public class PortTest {
+
+    private static final String[] VALID = {
+        "http://www.google.com:0/",
+        "http://www.google.com:80",
+        "http://www.google.com:8080/a",
+        "http://www.google.com:65535/",
+        "http://www.google.com:00080/",
+        "http://1.2.3.4:443/"
+    };
+
+    private static final String[] INVALID = {
+        "http://www.google.com:/",
+        "http://www.google.com:65536/",
+        "http://www.google.com:99999999999/",
+        "http://www.google.com:-1/",
+        "http://www.google.com:8a/",
+        "http://www.google.com: 80/"
+    };
+
+    @Test
+    public void testRange() {
+        UrlValidator urlValidator = UrlValidator.getInstance();
+        for (int i = 0; i < VALID.length; i++) {
+            assertEquals(VALID[i], Verdict.VALID, urlValidator.validate(VALID[i]));
+        }
+        for (int i = 0; i < INVALID.length; i++) {
+            assertEquals(INVALID[i], Verdict.AUTHORITY, urlValidator.validate(INVALID[i]));
+        }
+    }
+
+    @Test
+    public void testRejectReason() {
+        ValidationMetrics metrics = new ValidationMetrics();
+        UrlValidator urlValidator = UrlValidator.builder().metrics(metrics).build();
+        assertFalse(urlValidator.isValid("http://www.google.com:65536/"));
+        assertFalse(urlValidator.isValid("http://www.google.com:/"));
+        assertEquals(2, metrics.getRejectCount(ValidationMetrics.Reject.PORT));
+    }
+
+    @Test
+    public void testAllowedPorts() {
+        UrlValidator urlValidator = UrlValidator.builder()
+                .allowedPorts(443, 8443)
+                .allowedPortRange(9000, 9010)
+                .build();
+        assertTrue(urlValidator.isValid("https://www.google.com/"));
+        assertTrue(urlValidator.isValid("http://www.google.com:8443/"));
+        assertTrue(urlValidator.isValid("http://www.google.com:9005/"));
+        assertTrue(urlValidator.isValid("http://www.google.com:0443/"));
+        // checked with the default port of the scheme
+        assertFalse(urlValidator.isValid("http://www.google.com/"));
+        assertFalse(urlValidator.isValid("https://www.google.com:80/"));
+        assertFalse(urlValidator.isValid("http://www.google.com:9011/"));
+    }
+
+    @Test
+    public void testAllowedPortsWithoutDefault() {
+        UrlValidator urlValidator = UrlValidator.builder()
+                .allowAllSchemes()
+                .allowedPorts(22)
+                .build();
+        assertTrue(urlValidator.isValid("svn+ssh://www.google.com:22/"));
+        assertFalse(urlValidator.isValid("svn+ssh://www.google.com:2222/"));
+        // no default port to check
+        assertTrue(urlValidator.isValid("svn+ssh://www.google.com/"));
+    }
+
+    @Test
+    public void testAuthorityValidatorKeepsAllowedPorts() {
+        UrlValidator urlValidator = UrlValidator.builder()
+                .authorityValidator(new RegexValidator("^internal(:\\d+)?$"))
+                .allowedPorts(443, 8443)
+                .build();
+        assertTrue(urlValidator.isValid("https://internal/"));
+        assertTrue(urlValidator.isValid("http://internal:8443/"));
+        assertFalse(urlValidator.isValid("http://internal/"));
+        assertFalse(urlValidator.isValid("https://internal:8080/"));
+        assertFalse(urlValidator.isValid("https://internal:99999/"));
+    }
+
+    @Test
+    public void testOverriddenChecksKeepAllowedPorts() {
+        long[] bits = new long[(PortSet.MAX_PORT + 1) / 64];
+        PortSet.add(bits, 443, 443);
+        PortSet allowedPorts = new PortSet(bits);
+        UrlValidator fast = new UrlValidator(null, null, 0, null, CredentialPolicy.REJECT, allowedPorts, null, false);
+        UrlValidator legacy = new UrlValidator(null, null, 0, null, CredentialPolicy.REJECT, allowedPorts, null, false) {
+            protected boolean isValidFragment(String fragment) {
+                return super.isValidFragment(fragment);
+            }
+        };
+        assertFalse(fast.getPlan().legacyChecks);
+        assertTrue(legacy.getPlan().legacyChecks);
+        String[] urls = {"https://www.google.com/", "http://www.google.com/", "http://www.google.com:443/",
+            "https://www.google.com:80/", "ftp://www.google.com/a"};
+        for (int i = 0; i < urls.length; i++) {
+            assertEquals(urls[i], fast.validate(urls[i]), legacy.validate(urls[i]));
+        }
+        assertEquals(Verdict.AUTHORITY, legacy.validate("http://www.google.com/"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidRange() {
+        UrlValidator.builder().allowedPortRange(10, 65536);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testReversedRange() {
+        UrlValidator.builder().allowedPortRange(10, 9);
+    }
+
+    @Test
+    public void testPortSet() {
+        long[] bits = new long[(PortSet.MAX_PORT + 1) / 64];
+        PortSet.add(bits, 80, 80);
+        PortSet.add(bits, 63, 65);
+        PortSet.add(bits, 65535, 65535);
+        PortSet ports = new PortSet(bits);
+        bits[0] = -1L;
+        assertTrue(ports.contains(64));
+        assertTrue(ports.contains(PortSet.MAX_PORT));
+        assertFalse(ports.contains(0));
+        assertEquals("PortSet{63-65,80,65535}", ports.toString());
+    }
+
+    @Test
+    public void testDefaultPort() {
+        assertEquals(443, SchemeTable.getDefaultPort("HTTPS", 0, 5));
+        assertEquals(21, SchemeTable.getDefaultPort("xftp", 1, 4));
+        assertEquals(-1, SchemeTable.getDefaultPort("file", 0, 4));
+    }
+
+    @Test
+    public void testCanonicalPort() {
+        UrlValidator urlValidator = UrlValidator.getInstance();
+        assertEquals("http://www.google.com/", urlValidator.canonicalize("http://www.google.com:080/"));
+        assertEquals("https://www.google.com:8443/", urlValidator.canonicalize("https://www.google.com:08443/"));
+        assertEquals("ftp://www.google.com:0/", urlValidator.canonicalize("ftp://www.google.com:000/"));
+    }
+
+    @Test
+    public void testCompiled() {
+        List<String> urls = new ArrayList<String>();
+        for (int i = 0; i < VALID.length; i++) {
+            urls.add(VALID[i]);
+            urls.add(VALID[i].replace("http:", "https:"));
+        }
+        for (int i = 0; i < INVALID.length; i++) {
+            urls.add(INVALID[i]);
+        }
+        UrlValidator.Builder builder = UrlValidator.builder().allowedPorts(80, 443).allowedPortRange(8000, 8999);
+        UrlValidator interpreted = builder.build();
+        UrlValidator compiled = builder.compile().build();
+        assertTrue(compiled.isCompiled());
+        for (String url : urls) {
+            assertEquals(url, interpreted.validate(url), compiled.validate(url));
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package osu.cs362.URLValidator;
+
+import static org.junit.Assert.*;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+public class QueryRewriterTest {
+
+    private static final String[][] TRACKING = {
+        {"http://go.com/?b=2&utm_source=x&a=1", "a=1&b=2"},
+        {"http://go.com/?utm_source=x&utm_medium=y", ""},
+        {"http://go.com/?q=x&gclid=123&fbclid=4#top", "q=x"},
+        {"http://go.com/?a=3&b&a=1&&a=2&", "a=3&a=1&a=2&b"},
+        {"http://go.com/?ab=1&a=2&a0=3&=4", "=4&a=2&a0=3&ab=1"},
+        {"http://go.com/?utm=1&utm_=2&gclidx=3&_ga=4&UTM_SOURCE=5", "UTM_SOURCE=5&gclidx=3&utm=1"},
+        {"http://go.com/?q=é&é=1", "q=é&é=1"},
+        {"http://go.com/", ""},
+        {"http://go.com/?", ""}
+    };
+
+    private static UrlComponents parse(String value) {
+        UrlComponents url = new UrlComponents();
+        assertTrue(url.parse(value));
+        return url;
+    }
+
+    @Test
+    public void testTracking() {
+        QueryRewriter rewriter = QueryRewriter.getInstance();
+        for (int i = 0; i < TRACKING.length; i++) {
+            StringBuilder out = new StringBuilder("?");
+            rewriter.rewrite(parse(TRACKING[i][0]), out);
+            assertEquals(TRACKING[i][0], "?" + TRACKING[i][1], out.toString());
+        }
+    }
+
+    @Test
+    public void testByteBuffer() {
+        QueryRewriter rewriter = QueryRewriter.getInstance();
+        ByteBuffer out = ByteBuffer.allocate(64);
+        assertEquals(2, rewriter.rewrite(parse(TRACKING[0][0]), out));
+        out.flip();
+        assertEquals("a=1&b=2", StandardCharsets.ISO_8859_1.decode(out).toString());
+
+        out = ByteBuffer.allocate(10);
+        try {
+            rewriter.rewrite(parse("http://go.com/?aaaaaa=bbbbbbb"), out);
+            fail();
+        } catch (BufferOverflowException e) {
+            assertEquals(0, out.position());
+        }
+    }
+
+    @Test
+    public void testBuilder() {
+        QueryRewriter rewriter = QueryRewriter.builder()
+                .removeNames("session", "s")
+                .removePrefixes("x-")
+                .keepOrder()
+                .build();
+        assertTrue(rewriter.isRemoved("s"));
+        assertTrue(rewriter.isRemoved("x-"));
+        assertTrue(rewriter.isRemoved("x-id"));
+        assertFalse(rewriter.isRemoved("se"));
+        assertFalse(rewriter.isRemoved("sessions"));
+        assertFalse(rewriter.isRemoved("x"));
+        assertFalse(rewriter.isRemoved(""));
+
+        StringBuilder out = new StringBuilder();
+        assertEquals(2, rewriter.rewrite(parse("http://go.com/?z=1&session=2&x-a=3&a=4&s"), out));
+        assertEquals("z=1&a=4", out.toString());
+
+        out.setLength(0);
+        QueryRewriter.builder().build().rewrite(parse("http://go.com/?z=1&utm_a=2"), out);
+        assertEquals("utm_a=2&z=1", out.toString());
+    }
+
+    @Test
+    public void testReusedComponents() {
+        UrlComponents url = new UrlComponents();
+        StringBuilder query = new StringBuilder();
+        for (int n = 0; n < 100; n++) {
+            query.append(n == 0 ? "http://go.com/?" : "&").append("p").append(99 - n).append("=").append(n);
+        }
+        assertTrue(url.parse(query.toString()));
+        StringBuilder out = new StringBuilder();
+        assertEquals(100, QueryRewriter.getInstance().rewrite(url, out));
+        assertTrue(out.toString(), out.toString().startsWith("p0=99&p1=98&p10=89&"));
+
+        assertTrue(url.parse("http://go.com/?b&a"));
+        out.setLength(0);
+        assertEquals(2, QueryRewriter.getInstance().rewrite(url, out));
+        assertEquals("a&b", out.toString());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testEmptyName() {
+        QueryRewriter.builder().removeNames("");
+    }
+}
@@ -0,0 +1,110 @@
+package osu.cs362.URLValidator;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+
+public class QueryViewTest {
+
+    private static UrlComponents parse(String value) {
+        UrlComponents url = new UrlComponents();
+        assertTrue(url.parse(value));
+        return url;
+    }
+
+    @Test
+    public void testGet() {
+        QueryView query = parse("http://go.com/p?q=a%20b+c&page=2&flag&&x=1=2&q=second#q=frag").getQueryView();
+        assertEquals(5, query.size());
+        assertEquals("a b c", query.get("q"));
+        assertEquals("2", query.get("page"));
+        assertEquals("", query.get("flag"));
+        assertEquals("1=2", query.get("x"));
+        assertNull(query.get("frag"));
+        assertTrue(query.contains("flag"));
+        assertFalse(query.contains("fla"));
+        assertEquals(Arrays.asList("a b c", "second"), query.getAll("q"));
+        assertEquals(3, query.indexOf("x"));
+    }
+
+    @Test
+    public void testOffsets() {
+        String value = "http://go.com/?ab=cd&e";
+        QueryView query = parse(value).getQueryView();
+        assertEquals(value.indexOf("ab"), query.getNameStart(0));
+        assertEquals(value.indexOf("="), query.getNameEnd(0));
+        assertEquals(value.indexOf("cd"), query.getValueStart(0));
+        assertEquals(value.indexOf("&"), query.getValueEnd(0));
+        assertEquals(value.length(), query.getNameEnd(1));
+        assertEquals(value.length(), query.getValueStart(1));
+        try {
+            query.getName(2);
+            fail();
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testDecodedNames() {
+        QueryView query = parse("http://go.com/?na%6De=1&a+b=2&%E2%82%AC=3&bad=%zz%4").getQueryView();
+        assertEquals("1", query.get("name"));
+        assertEquals("2", query.get("a b"));
+        assertEquals("3", query.get("€"));
+        assertEquals("%zz%4", query.get("bad"));
+        assertEquals("name", query.getName(0));
+    }
+
+    @Test
+    public void testPercentDecoder() {
+        String[][] cases = {
+            {"%41%62c", "Abc"},
+            {"%C3%A9", "é"},
+            {"%F0%9F%98%80", "😀"},
+            {"%C3", "�"},
+            {"%C3x", "�x"},
+            {"%C0%80", "��"},
+            {"%ED%A0%80", "�"},
+            {"%", "%"},
+            {"a+b", "a b"}
+        };
+        for (int i = 0; i < cases.length; i++) {
+            StringBuilder out = new StringBuilder();
+            PercentDecoder.decode(cases[i][0], 0, cases[i][0].length(), true, out);
+            assertEquals(cases[i][0], cases[i][1], out.toString());
+        }
+    }
+
+    @Test
+    public void testIteration() {
+        List<String> pairs = new ArrayList<String>();
+        for (QueryView.Parameter parameter : parse("http://go.com/?a=1&b=%32").getQueryView()) {
+            pairs.add(parameter.getIndex() + ":" + parameter);
+        }
+        assertEquals(Arrays.asList("0:a=1", "1:b=2"), pairs);
+        assertFalse(parse("http://go.com/").getQueryView().iterator().hasNext());
+    }
+
+    @Test
+    public void testReusedWithComponents() {
+        UrlComponents url = new UrlComponents();
+        UrlValidator urlValidator = UrlValidator.getInstance();
+        // the query is rejected, its spans are kept
+        assertEquals(Verdict.QUERY, urlValidator.validate("http://go.com/?a=1", url));
+        QueryView query = url.getQueryView();
+        assertEquals("1", query.get("a"));
+
+        assertEquals(Verdict.QUERY, urlValidator.validate("http://go.com/?b=2&a=3", url));
+        assertSame(query, url.getQueryView());
+        assertEquals(2, query.size());
+        assertEquals("3", query.get("a"));
+
+        // the rewriter reorders the shared index, the view indexes again
+        QueryRewriter.getInstance().rewrite(url, new StringBuilder());
+        assertEquals("b", query.getName(0));
+    }
+}
@@ -0,0 +1,89 @@
+package osu.cs362.URLValidator;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+import java.util.*;
+
+/*
+ * Scan kernel tests: every wide kernel must agree with the scalar kernel,
+ * especially around word and vector boundaries and in the tails.
+ */
+public class ScanKernelTest {
+
+    CharClass QUERY = CharClass.ALNUM.union(CharClass.of("-._~!$&'()*+,;=:@/?%"));
+
+    private List<ScanKernel> getKernels() {
+        List<ScanKernel> kernels = new ArrayList<ScanKernel>();
+        String[] names = {"scalar", "swar", "vector"};
+        for (int i = 0; i < names.length; i++) {
+            ScanKernel kernel = ScanKernel.forName(names[i]);
+            if (kernel != null) {
+                kernels.add(kernel);
+            }
+        }
+        return kernels;
+    }
+
+    @Test
+    public void testKernelSelected() {
+        assertNotNull(ScanKernel.getInstance());
+        assertNotNull(ScanKernel.forName("scalar"));
+        assertNotNull(ScanKernel.forName("swar"));
+        assertNull(ScanKernel.forName("bogus"));
+    }
+
+    @Test
+    public void testCharClass() {
+        assertTrue(QUERY.contains('a'));
+        assertTrue(QUERY.contains('%'));
+        assertFalse(QUERY.contains(' '));
+        assertFalse(QUERY.contains('#'));
+        assertFalse(QUERY.contains(0xE9));
+        assertFalse(QUERY.contains(-1));
+        assertTrue(QUERY.isWide());
+        assertFalse(CharClass.of("aeiou").union(CharClass.of("AEIOU")).union(CharClass.DIGIT).isWide());
+    }
+
+    @Test
+    public void testKernelsAgree() {
+        Random r = new Random(362);
+        List<ScanKernel> kernels = getKernels();
+        ScanKernel scalar = kernels.get(0);
+        CharClass[] classes = {CharClass.ASCII, CharClass.ALNUM, QUERY,
+            CharClass.of("aeiou").union(CharClass.of("AEIOU")).union(CharClass.DIGIT)};
+        String members = "abcXYZ019-._~!$&'()*+,;=:@/?%";
+
+        for (int n = 0; n < 2000; n++) {
+            int length = r.nextInt(300);
+            char[] chars = new char[length];
+            for (int i = 0; i < length; i++) {
+                chars[i] = members.charAt(r.nextInt(members.length()));
+            }
+            if (length > 0 && r.nextBoolean()) {
+                char[] bad = {' ', '#', '"', '\n', '\u007F', 'é', 'Ā', '耀', '￿'};
+                chars[r.nextInt(length)] = bad[r.nextInt(bad.length)];
+            }
+            String value = new String(chars);
+            byte[] bytes = new byte[length];
+            for (int i = 0; i < length; i++) {
+                bytes[i] = (byte) chars[i];
+            }
+            int from = length == 0 ? 0 : r.nextInt(length);
+            int to = from + r.nextInt(length - from + 1);
+
+            for (ScanKernel kernel : kernels) {
+                String message = kernel.getName() + " on \"" + value + "\" [" + from + "," + to + ")";
+                assertEquals(message, scalar.isAscii(value, from, to), kernel.isAscii(value, from, to));
+                assertEquals(message, scalar.isAscii(bytes, from, to), kernel.isAscii(bytes, from, to));
+                for (int c = 0; c < classes.length; c++) {
+                    assertEquals(message + " " + classes[c],
+                            scalar.allInClass(value, from, to, classes[c]),
+                            kernel.allInClass(value, from, to, classes[c]));
+                    assertEquals(message + " " + classes[c],
+                            scalar.allInClass(bytes, from, to, classes[c]),
+                            kernel.allInClass(bytes, from, to, classes[c]));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package osu.cs362.URLValidator;
+
+import static org.junit.Assert.*;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+import java.util.*;
+import static org.hamcrest.core.IsEqual.equalTo;
+
+public class SchemeHandlerTest {
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    private void check(UrlValidator urlValidator, ResultPair[] urls) {
+        for (int i = 0; i < urls.length; i++) {
+            collector.checkThat("Expected result to be " + urls[i].valid + " for " + urls[i].item,
+                    urlValidator.isValid(urls[i].item), equalTo(urls[i].valid));
+        }
+    }
+
+    @Test
+    public void testComponents() {
+        UrlComponents url = new UrlComponents();
+        UrlValidator urlValidator = new UrlValidator();
+        assertEquals(Verdict.VALID, urlValidator.validate("http://www.google.com:80/a/b#top", url));
+        assertEquals("http", url.getScheme());
+        assertEquals("www.google.com:80", url.getAuthority());
+        assertEquals("/a/b", url.getPath());
+        assertNull(url.getQuery());
+        assertEquals("top", url.getFragment());
+        assertEquals(0, url.getSchemeId());
+
+        urlValidator.validate("ftp:/a?q=1", url);
+        assertEquals("ftp", url.getScheme());
+        assertNull(url.getAuthority());
+        assertEquals("/a", url.getPath());
+        assertEquals("q=1", url.getQuery());
+        assertNull(url.getFragment());
+
+        assertEquals(Verdict.SCHEME, urlValidator.validate("gopher://www.google.com", url));
+        assertEquals(Verdict.AUTHORITY, urlValidator.validate("http://www.google.c", url));
+        assertEquals(Verdict.MALFORMED, urlValidator.validate("http://www.google.com/#a\nb", url));
+        assertEquals(Verdict.NON_ASCII, urlValidator.validate("http://www.google.com/é", url));
+        assertEquals(Verdict.MALFORMED, urlValidator.validate(null, url));
+    }
+
+    @Test
+    public void testMailto() {
+        UrlValidator urlValidator = new UrlValidator(new String[] {"mailto"});
+        ResultPair[] urls = {
+            new ResultPair("mailto:smalleyt@oregonstate.edu", true),
+            new ResultPair("MAILTO:smalleyt@oregonstate.edu", true),
+            new ResultPair("mailto:a@oregonstate.edu,b.c@google.com", true),
+            new ResultPair("mailto:a%20b@google.com", true),
+            new ResultPair("mailto:a@[216.58.195.238]", true),
+            new ResultPair("mailto:?to=a@google.com&subject=hi%20there", true),
+            new ResultPair("mailto:a@google.com?subject=hi", true),
+            new ResultPair("mailto:", true),
+            new ResultPair("mailto:smalleyt", false),
+            new ResultPair("mailto:@oregonstate.edu", false),
+            new ResultPair("mailto:.a@oregonstate.edu", false),
+            new ResultPair("mailto:a..b@oregonstate.edu", false),
+            new ResultPair("mailto:a@oregonstate.eedu", false),
+            new ResultPair("mailto:a%2@google.com", false),
+            new ResultPair("mailto:a@google.com?subject", false),
+            new ResultPair("mailto://a@google.com", false)
+        };
+        check(urlValidator, urls);
+    }
+
+    @Test
+    public void testData() {
+        UrlValidator urlValidator = new UrlValidator(null, null, UrlValidator.ALLOW_ALL_SCHEMES);
+        ResultPair[] urls = {
+            new ResultPair("data:,Hello%2C%20World!", true),
+            new ResultPair("data:text/plain;base64,SGVsbG8sIFdvcmxkIQ==", true),
+            new ResultPair("data:text/html;charset=US-ASCII,%3Ch1%3EHi%3C%2Fh1%3E", true),
+            new ResultPair("data:;base64,SGVsbG8=", true),
+            new ResultPair("data:text/plain,a?b=c", true),
+            new ResultPair("data:text/plain", false),
+            new ResultPair("data:text,hi", false),
+            new ResultPair("data:text/plain;charset,hi", false),
+            new ResultPair("data:text/plain;base64,SGV<sbG8=", false),
+            new ResultPair("data:;base64,SGVsbG8", true),
+            new ResultPair("data:;base64,SGVsbG8=x", false),
+            new ResultPair("data:;base64,SGVsbG8%3D", true),
+            new ResultPair("data:;base64,SGVsb", false),
+            new ResultPair("data:,100%", false),
+            new ResultPair("data://text/plain,hi", false)
+        };
+        check(urlValidator, urls);
+    }
+
+    @Test
+    public void testFile() {
+        UrlValidator urlValidator = new UrlValidator(new String[] {"file"});
+        assertTrue(urlValidator.isValid("file:///etc/hosts"));
+        assertTrue(urlValidator.isValid("FILE:///etc/hosts"));
+        assertTrue(urlValidator.isValid("file://www.google.com/etc/hosts"));
+        assertFalse(urlValidator.isValid("file:/etc/hosts"));
+    }
+
+    @Test
+    public void testCustomHandler() {
+        Map<String, SchemeHandler> handlers = new HashMap<String, SchemeHandler>();
+        handlers.put("URN", new SchemeHandler() {
+            public Verdict validate(UrlValidator validator, UrlComponents url) {
+                String path = url.getPath();
+                return path.matches("[a-zA-Z0-9][a-zA-Z0-9-]{0,31}:\\S+") ? Verdict.VALID : Verdict.PATH;
+            }
+        });
+        handlers.put("http", HierarchicalSchemeHandler.FILE);
+
+        UrlValidator urlValidator = new UrlValidator(null, null, UrlValidator.ALLOW_ALL_SCHEMES, handlers);
+        assertTrue(urlValidator.isValid("urn:isbn:0451450523"));
+        assertFalse(urlValidator.isValid("urn:isbn"));
+        assertTrue(urlValidator.isValid("http:///index.html"));
+        assertTrue(urlValidator.isValid("gopher://www.google.com"));
+
+        urlValidator = new UrlValidator(new String[] {"http"}, null, 0L, handlers);
+        assertFalse(urlValidator.isValid("urn:isbn:0451450523"));
+    }
+}
@@ -0,0 +1,60 @@
+package osu.cs362.URLValidator;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class SchemeTableTest {
+
+    @Test
+    public void testLookup() {
+        SchemeTable table = new SchemeTable(new String[] {"http", "HTTPS", "ftp", "http", "ht tp", "svn+ssh"});
+        assertEquals(4, table.size());
+        assertEquals(0, table.lookup("http"));
+        assertEquals(1, table.lookup("https"));
+        assertEquals(2, table.lookup("FTP"));
+        assertEquals(3, table.lookup("Svn+SSH"));
+        assertEquals(SchemeTable.UNKNOWN, table.lookup("ht tp"));
+        assertEquals(SchemeTable.UNKNOWN, table.lookup("htt"));
+        assertEquals(SchemeTable.UNKNOWN, table.lookup("httpss"));
+        assertEquals(SchemeTable.UNKNOWN, table.lookup("gopher"));
+        assertEquals("https", table.getScheme(1));
+    }
+
+    @Test
+    public void testLookupSpan() {
+        SchemeTable table = new SchemeTable(new String[] {"http", "https"});
+        String url = "HTTPS://www.google.com";
+        assertEquals(1, table.lookup(url, 0, 5));
+        assertEquals(0, table.lookup(url, 0, 4));
+        assertEquals(SchemeTable.UNKNOWN, table.lookup(url, 1, 5));
+    }
+
+    @Test
+    public void testSyntax() {
+        ResultPair[] schemes = {
+            new ResultPair("http", true),
+            new ResultPair("h3-x.y+z", true),
+            new ResultPair("H", true),
+            new ResultPair("", false),
+            new ResultPair("1ab", false),
+            new ResultPair("ht tp", false),
+            new ResultPair("ht_tp", false)
+        };
+        for (int i = 0; i < schemes.length; i++) {
+            assertEquals(schemes[i].item, schemes[i].valid,
+                    SchemeTable.isValidSyntax(schemes[i].item, 0, schemes[i].item.length()));
+        }
+    }
+
+    @Test
+    public void testCaseInsensitiveUrls() {
+        UrlValidator urlValidator = new UrlValidator();
+        assertTrue(urlValidator.isValid("HTTP://www.google.com"));
+        assertTrue(urlValidator.isValid("Ftp://www.google.com/"));
+        assertFalse(urlValidator.isValid("gopher://www.google.com"));
+
+        urlValidator = new UrlValidator(new String[] {"HTTPS"});
+        assertTrue(urlValidator.isValid("https://www.google.com"));
+        assertFalse(urlValidator.isValid("http://www.google.com"));
+    }
+}
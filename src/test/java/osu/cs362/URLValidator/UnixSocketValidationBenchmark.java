@@ -0,0 +1,61 @@
+package osu.cs362.URLValidator;
+
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*
+ * Not a unit test, run it by hand:
+ *   java -cp target/classes:target/test-classes osu.cs362.URLValidator.UnixSocketValidationBenchmark
+ *
+ * Measures round trips per second of one URL at a time over a UNIX domain
+ * socket, against pipelined batches and in-process validation.
+ */
+public class UnixSocketValidationBenchmark {
+
+    private static final int URLS = 200000;
+
+    private static final int ROUNDS = 5;
+
+    public static void main(String[] args) throws Exception {
+        List<String> urls = new ArrayList<String>(URLS);
+        Random r = new Random(362);
+        for (int i = 0; i < URLS; i++) {
+            urls.add("http://www.example" + r.nextInt(1000) + ".com/p/" + Long.toHexString(r.nextLong()));
+        }
+        UrlValidator urlValidator = UrlValidator.builder().compile().build();
+        Path directory = Files.createTempDirectory("url-validator");
+        UnixSocketValidationServer server = UnixSocketValidationServer.start(urlValidator,
+                UnixDomainSocketAddress.of(directory.resolve("validator.sock")));
+        UnixSocketValidationClient client = UnixSocketValidationClient.connect(server.getAddress());
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                for (String url : urls) {
+                    urlValidator.validate(url);
+                }
+                double local = (System.nanoTime() - start) / 1e9;
+
+                start = System.nanoTime();
+                for (String url : urls) {
+                    client.validate(url);
+                }
+                double roundTrips = (System.nanoTime() - start) / 1e9;
+
+                start = System.nanoTime();
+                client.validateAll(urls);
+                double pipelined = (System.nanoTime() - start) / 1e9;
+
+                System.out.printf("round %d: in-process %9.0f/s  round trips %8.0f/s (%.2f us)  pipelined %9.0f/s%n",
+                        round, URLS / local, URLS / roundTrips, roundTrips * 1e6 / URLS, URLS / pipelined);
+            }
+        } finally {
+            client.close();
+            server.close();
+            Files.deleteIfExists(directory);
+        }
+    }
+}
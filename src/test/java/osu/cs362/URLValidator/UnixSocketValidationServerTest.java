@@ -0,0 +1,115 @@
+package osu.cs362.URLValidator;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.net.UnixDomainSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class UnixSocketValidationServerTest {
+
+    private static final String[] URLS = {
+        "http://www.google.com/",
+        "gopher://www.google.com/",
+        "http://www.google.com/a//b",
+        "",
+        null,
+        "http://www.göogle.com/",
+        "http://www.\u0430pple.com/",
+        "ftp://255.255.255.255:80/t123",
+        "http:/www.google.com",
+        "http://www.google.com/#top"
+    };
+
+    private final UrlValidator urlValidator = new UrlValidator();
+
+    private Path directory;
+
+    private UnixSocketValidationServer server;
+
+    @Before
+    public void start() throws IOException {
+        directory = Files.createTempDirectory("url-validator");
+        server = UnixSocketValidationServer.start(urlValidator,
+                UnixDomainSocketAddress.of(directory.resolve("validator.sock")));
+    }
+
+    @After
+    public void stop() throws IOException {
+        server.close();
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    public void testValidate() throws IOException {
+        UnixSocketValidationClient client = UnixSocketValidationClient.connect(server.getAddress());
+        try {
+            for (String url : URLS) {
+                assertEquals(url, urlValidator.validate(url), client.validate(url));
+            }
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testPipelined() throws IOException {
+        List<String> urls = new ArrayList<String>();
+        for (int i = 0; i < 3 * UnixSocketValidationClient.WINDOW + 17; i++) {
+            String url = URLS[i % URLS.length];
+            urls.add(url == null || i % 2 == 0 ? url : url + i);
+        }
+        UnixSocketValidationClient first = UnixSocketValidationClient.connect(server.getAddress());
+        UnixSocketValidationClient second = UnixSocketValidationClient.connect(server.getAddress());
+        try {
+            List<Verdict> verdicts = first.validateAll(urls);
+            assertEquals(urls.size(), verdicts.size());
+            for (int i = 0; i < urls.size(); i++) {
+                assertEquals(urls.get(i), urlValidator.validate(urls.get(i)), verdicts.get(i));
+            }
+            assertEquals(Arrays.asList(Verdict.VALID, Verdict.SCHEME),
+                    second.validateAll(Arrays.asList("http://www.google.com/", "x://")));
+            assertEquals(verdicts, first.validateAll(urls));
+        } finally {
+            first.close();
+            second.close();
+        }
+    }
+
+    @Test
+    public void testLongUrl() throws IOException {
+        StringBuilder url = new StringBuilder("http://www.google.com/");
+        while (url.length() < UnixSocketValidationServer.MAX_LENGTH) {
+            url.append('a');
+        }
+        UnixSocketValidationClient client = UnixSocketValidationClient.connect(server.getAddress());
+        try {
+            assertEquals(Verdict.VALID, client.validate(url));
+            url.append('a');
+            try {
+                client.validate(url);
+                fail("URL is too long");
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void testCloseDeletesSocket() throws IOException {
+        Path socket = server.getAddress().getPath();
+        assertTrue(Files.exists(socket));
+        server.close();
+        assertFalse(Files.exists(socket));
+    }
+}
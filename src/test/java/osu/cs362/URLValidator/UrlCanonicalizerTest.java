@@ -0,0 +1,146 @@
+package osu.cs362.URLValidator;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.*;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ErrorCollector;
+
+public class UrlCanonicalizerTest {
+
+    @Rule
+    public ErrorCollector collector = new ErrorCollector();
+
+    private static final String[][] CANONICAL = {
+        {"http://www.google.com/", "http://www.google.com/"},
+        {"HTTP://WWW.Google.COM/Path", "http://www.google.com/Path"},
+        {"http://www.google.com", "http://www.google.com/"},
+        {"http://www.google.com:80/a", "http://www.google.com/a"},
+        {"https://www.google.com:443/", "https://www.google.com/"},
+        {"https://www.google.com:80/", "https://www.google.com:80/"},
+        {"ftp://www.google.com:21", "ftp://www.google.com/"},
+        {"http://www.google.com:8/", "http://www.google.com:8/"},
+        {"http://www.google.com/a/./b", "http://www.google.com/a/b"},
+        {"http://www.google.com/a/.", "http://www.google.com/a/"},
+        {"http://www.google.com/a/b/c/./../../g", "http://www.google.com/a/g"},
+        {"http://www.google.com/a/b/..", "http://www.google.com/a/"},
+        {"http://www.google.com/a/.b/c.", "http://www.google.com/a/.b/c."},
+        {"http://www.google.com/a%2fb%7E", "http://www.google.com/a%2Fb%7E"},
+        {"http://www.google.com/a#", "http://www.google.com/a"},
+        {"http://www.google.com/a#Top%3a", "http://www.google.com/a#Top%3A"},
+        {"file:///etc/../hosts", "file:///hosts"},
+        {"MAILTO:User@Example.com", "mailto:User@Example.com"}
+    };
+
+    @Test
+    public void testCanonicalize() {
+        UrlValidator urlValidator = UrlValidator.builder().schemes("http", "https", "ftp", "file", "mailto").build();
+        UrlComponents url = new UrlComponents();
+        StringBuilder canonical = new StringBuilder();
+        ByteBuffer bytes = ByteBuffer.allocate(100);
+        for (int i = 0; i < CANONICAL.length; i++) {
+            canonical.setLength(0);
+            Verdict verdict = urlValidator.canonicalize(CANONICAL[i][0], url, canonical);
+            if (verdict != Verdict.VALID) {
+                collector.addError(new AssertionError(CANONICAL[i][0] + " is " + verdict));
+                continue;
+            }
+            collector.checkThat(CANONICAL[i][0], canonical.toString(), equalTo(CANONICAL[i][1]));
+
+            bytes.clear();
+            urlValidator.canonicalize(CANONICAL[i][0], url, bytes);
+            String fromBytes = new String(bytes.array(), 0, bytes.position(), StandardCharsets.US_ASCII);
+            collector.checkThat(CANONICAL[i][0], fromBytes, equalTo(CANONICAL[i][1]));
+
+            // the canonical form is its own canonical form
+            collector.checkThat(CANONICAL[i][1], urlValidator.canonicalize(CANONICAL[i][1]),
+                    equalTo(CANONICAL[i][1]));
+        }
+    }
+
+    @Test
+    public void testFingerprint() {
+        UrlValidator urlValidator = UrlValidator.builder().schemes("http", "https", "ftp", "file", "mailto").build();
+        UrlComponents url = new UrlComponents();
+        for (int i = 0; i < CANONICAL.length; i++) {
+            assertEquals(Verdict.VALID, urlValidator.fingerprint(CANONICAL[i][0], url));
+            assertEquals(CANONICAL[i][0], XxHash64.hash(CANONICAL[i][1]), url.getFingerprint());
+        }
+        urlValidator.fingerprint("HTTP://www.Google.com:80/a/b/../c", url);
+        long fingerprint = url.getFingerprint();
+        urlValidator.fingerprint("http://www.google.com/a/c", url);
+        assertEquals(fingerprint, url.getFingerprint());
+        urlValidator.fingerprint("http://www.google.com/a/C", url);
+        assertTrue(fingerprint != url.getFingerprint());
+        assertEquals(Verdict.SCHEME, urlValidator.fingerprint("gopher://www.google.com/", url));
+
+        // long paths outgrow the segment scratch space
+        StringBuilder path = new StringBuilder("http://www.google.com");
+        for (int i = 0; i < 100; i++) {
+            path.append("/s").append(i);
+        }
+        assertEquals(Verdict.VALID, urlValidator.fingerprint(path, url));
+        assertEquals(XxHash64.hash(path), url.getFingerprint());
+    }
+
+    @Test
+    public void testXxHash64() {
+        // reference values of xxHash64, seed 0
+        assertEquals(0xEF46DB3751D8E999L, XxHash64.hash(""));
+        assertEquals(0xD24EC4F1A98C6E5BL, XxHash64.hash("a"));
+        assertEquals(0x44BC2CF5AD770999L, XxHash64.hash("abc"));
+        assertEquals(0xFBCEA83C8A378BF1L, XxHash64.hash("Nobody inspects the spammish repetition"));
+
+        XxHash64 hash = new XxHash64();
+        hash.update('x');
+        hash.reset();
+        for (int i = 0; i < 3; i++) {
+            hash.update("abc".charAt(i));
+        }
+        assertEquals(0x44BC2CF5AD770999L, hash.getValue());
+    }
+
+    @Test
+    public void testQueryAndFragment() {
+        // straight from the components, as the validator rejects queries
+        String[][] pairs = {
+            {"http://a.com/p?", "http://a.com/p"},
+            {"http://a.com/p?#", "http://a.com/p"},
+            {"http://a.com/p?q=%c3%a9#F", "http://a.com/p?q=%C3%A9#F"},
+            {"http://a.com/p?q=100%", "http://a.com/p?q=100%"},
+            {"http://a.com/p?#f", "http://a.com/p#f"}
+        };
+        UrlComponents url = new UrlComponents();
+        for (int i = 0; i < pairs.length; i++) {
+            assertTrue(url.parse(pairs[i][0]));
+            StringBuilder canonical = new StringBuilder();
+            UrlCanonicalizer.canonicalize(url, canonical);
+            assertEquals(pairs[i][0], pairs[i][1], canonical.toString());
+        }
+    }
+
+    @Test
+    public void testInvalidIsLeftOut() {
+        UrlValidator urlValidator = new UrlValidator();
+        StringBuilder canonical = new StringBuilder("x");
+        assertEquals(Verdict.SCHEME, urlValidator.canonicalize("gopher://a.com/", new UrlComponents(), canonical));
+        assertEquals("x", canonical.toString());
+        assertNull(urlValidator.canonicalize((String) null));
+        assertEquals("http://www.google.com/", urlValidator.canonicalize("HTTP://www.google.com:80"));
+    }
+
+    @Test(expected = BufferOverflowException.class)
+    public void testBufferTooSmall() {
+        ByteBuffer bytes = ByteBuffer.allocate(21);
+        try {
+            new UrlValidator().canonicalize("http://www.google.com", new UrlComponents(), bytes);
+        } finally {
+            assertEquals(0, bytes.position());
+        }
+    }
+}
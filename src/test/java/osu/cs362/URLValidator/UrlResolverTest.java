@@ -0,0 +1,125 @@
+package osu.cs362.URLValidator;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class UrlResolverTest {
+
+    /** RFC 3986 section 5.4, against "http://a/b/c/d;p?q". */
+    private static final String[][] EXAMPLES = {
+        {"g:h", "g:h"},
+        {"g", "http://a/b/c/g"},
+        {"./g", "http://a/b/c/g"},
+        {"g/", "http://a/b/c/g/"},
+        {"/g", "http://a/g"},
+        {"//g", "http://g"},
+        {"?y", "http://a/b/c/d;p?y"},
+        {"g?y", "http://a/b/c/g?y"},
+        {"#s", "http://a/b/c/d;p?q#s"},
+        {"g#s", "http://a/b/c/g#s"},
+        {"g?y#s", "http://a/b/c/g?y#s"},
+        {";x", "http://a/b/c/;x"},
+        {"g;x", "http://a/b/c/g;x"},
+        {"g;x?y#s", "http://a/b/c/g;x?y#s"},
+        {"", "http://a/b/c/d;p?q"},
+        {".", "http://a/b/c/"},
+        {"./", "http://a/b/c/"},
+        {"..", "http://a/b/"},
+        {"../", "http://a/b/"},
+        {"../g", "http://a/b/g"},
+        {"../..", "http://a/"},
+        {"../../", "http://a/"},
+        {"../../g", "http://a/g"},
+        {"../../../g", "http://a/g"},
+        {"../../../../g", "http://a/g"},
+        {"/./g", "http://a/g"},
+        {"/../g", "http://a/g"},
+        {"g.", "http://a/b/c/g."},
+        {".g", "http://a/b/c/.g"},
+        {"g..", "http://a/b/c/g.."},
+        {"..g", "http://a/b/c/..g"},
+        {"./../g", "http://a/b/g"},
+        {"./g/.", "http://a/b/c/g/"},
+        {"g/./h", "http://a/b/c/g/h"},
+        {"g/../h", "http://a/b/c/h"},
+        {"g;x=1/./y", "http://a/b/c/g;x=1/y"},
+        {"g;x=1/../y", "http://a/b/c/y"},
+        {"g?y/./x", "http://a/b/c/g?y/./x"},
+        {"g?y/../x", "http://a/b/c/g?y/../x"},
+        {"g#s/./x", "http://a/b/c/g#s/./x"},
+        {"g#s/../x", "http://a/b/c/g#s/../x"},
+        {"http:g", "http:g"}
+    };
+
+    private static UrlComponents parse(String value) {
+        UrlComponents url = new UrlComponents();
+        assertTrue(url.parse(value));
+        return url;
+    }
+
+    @Test
+    public void testRfc3986Examples() {
+        UrlComponents base = parse("http://a/b/c/d;p?q");
+        StringBuilder target = new StringBuilder();
+        for (int i = 0; i < EXAMPLES.length; i++) {
+            target.setLength(0);
+            UrlResolver.resolve(base, parse(EXAMPLES[i][0]), target);
+            assertEquals(EXAMPLES[i][0], EXAMPLES[i][1], target.toString());
+        }
+    }
+
+    @Test
+    public void testEmptyBasePath() {
+        StringBuilder target = new StringBuilder();
+        UrlResolver.resolve(parse("http://a"), parse("g"), target);
+        assertEquals("http://a/g", target.toString());
+    }
+
+    @Test
+    public void testRemoveDotSegments() {
+        String[][] paths = {
+            {"/a/b/c/./../../g", "/a/g"},
+            {"mid/content=5/../6", "mid/6"},
+            {"/..", "/"},
+            {"/a/..", "/"},
+            {"/a/.", "/a/"},
+            {"..", ""}
+        };
+        for (int i = 0; i < paths.length; i++) {
+            StringBuilder path = new StringBuilder("x").append(paths[i][0]);
+            UrlResolver.removeDotSegments(path, 1);
+            assertEquals(paths[i][0], "x" + paths[i][1], path.toString());
+        }
+    }
+
+    @Test
+    public void testResolveAndValidate() {
+        UrlValidator urlValidator = UrlValidator.getInstance();
+        UrlComponents base = new UrlComponents();
+        assertTrue(urlValidator.validate("http://www.google.com/a/b/c", base).isValid());
+        StringBuilder target = new StringBuilder();
+        UrlComponents url = new UrlComponents();
+
+        assertEquals(Verdict.VALID, urlValidator.resolve(base, "../d#top", target, url));
+        assertEquals("http://www.google.com/a/d#top", target.toString());
+        assertEquals("/a/d", url.getPath());
+
+        assertEquals(Verdict.VALID, urlValidator.resolve(base, "//www.apache.org", target, url));
+        assertEquals("http://www.apache.org", target.toString());
+
+        assertEquals(Verdict.SCHEME, urlValidator.resolve(base, "gopher://www.google.com/", target, url));
+        assertEquals(Verdict.PATH, urlValidator.resolve(base, "d e", target, url));
+        assertEquals(Verdict.MALFORMED, urlValidator.resolve(base, null, target, url));
+        assertEquals(0, target.length());
+
+        assertEquals("https://www.google.com/x", urlValidator.resolve("https://www.google.com/a/", "../x"));
+        assertNull(urlValidator.resolve("/a/", "x"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSharedComponents() {
+        UrlComponents base = parse("http://www.google.com/");
+        UrlValidator.getInstance().resolve(base, "x", new StringBuilder(), base);
+    }
+}
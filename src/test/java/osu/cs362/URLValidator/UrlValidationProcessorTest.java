@@ -0,0 +1,228 @@
+package osu.cs362.URLValidator;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+public class UrlValidationProcessorTest {
+
+    /**
+     * Requests <code>step</code> verdicts at a time and records them.
+     */
+    static class Collector implements Flow.Subscriber<Verdict> {
+
+        final List<Verdict> verdicts = Collections.synchronizedList(new ArrayList<Verdict>());
+
+        final CountDownLatch done = new CountDownLatch(1);
+
+        final int step;
+
+        volatile Flow.Subscription subscription;
+
+        volatile Throwable error;
+
+        int pending;
+
+        Collector(int step) {
+            this.step = step;
+        }
+
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            pending = step;
+            subscription.request(step);
+        }
+
+        public void onNext(Verdict verdict) {
+            verdicts.add(verdict);
+            if (--pending == 0) {
+                pending = step;
+                subscription.request(step);
+            }
+        }
+
+        public void onError(Throwable throwable) {
+            error = throwable;
+            done.countDown();
+        }
+
+        public void onComplete() {
+            done.countDown();
+        }
+    }
+
+    private static List<String> urls(int count) {
+        List<String> urls = new ArrayList<String>();
+        for (int i = 0; i < count; i++) {
+            urls.add(i % 5 == 0 ? "gopher://www.google.com/" + i : "http://www.google.com/" + i);
+        }
+        return urls;
+    }
+
+    private void checkOrder(UrlValidationProcessor processor, int step) throws InterruptedException {
+        List<String> urls = urls(5000);
+        SubmissionPublisher<CharSequence> publisher = new SubmissionPublisher<CharSequence>();
+        Collector collector = new Collector(step);
+        processor.subscribe(collector);
+        publisher.subscribe(processor);
+        for (String url : urls) {
+            publisher.submit(url);
+        }
+        publisher.close();
+        assertTrue(collector.done.await(30, TimeUnit.SECONDS));
+        assertNull(collector.error);
+        assertEquals(urls.size(), collector.verdicts.size());
+        for (int i = 0; i < urls.size(); i++) {
+            assertEquals(urls.get(i), i % 5 == 0 ? Verdict.SCHEME : Verdict.VALID, collector.verdicts.get(i));
+        }
+    }
+
+    @Test
+    public void testInline() throws InterruptedException {
+        checkOrder(new UrlValidationProcessor(new UrlValidator()), 7);
+    }
+
+    @Test
+    public void testSynchronousPublisher() throws InterruptedException {
+        final List<String> urls = urls(100);
+        // delivers on the requesting thread, completing after the last URL
+        Flow.Publisher<CharSequence> publisher = new Flow.Publisher<CharSequence>() {
+            public void subscribe(final Flow.Subscriber<? super CharSequence> subscriber) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    int next;
+
+                    public void request(long n) {
+                        for (long i = 0; i < n && next < urls.size(); i++) {
+                            subscriber.onNext(urls.get(next++));
+                        }
+                        if (next == urls.size()) {
+                            next++;
+                            subscriber.onComplete();
+                        }
+                    }
+
+                    public void cancel() {
+                    }
+                });
+            }
+        };
+        UrlValidationProcessor processor = new UrlValidationProcessor(new UrlValidator(), 8, 1, null);
+        Collector collector = new Collector(Integer.MAX_VALUE) {
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(Long.MAX_VALUE);
+            }
+        };
+        processor.subscribe(collector);
+        publisher.subscribe(processor);
+        assertTrue(collector.done.await(1, TimeUnit.SECONDS));
+        assertNull(collector.error);
+        assertEquals(urls.size(), collector.verdicts.size());
+        assertEquals(Verdict.SCHEME, collector.verdicts.get(95));
+        assertEquals(Verdict.VALID, collector.verdicts.get(99));
+    }
+
+    @Test
+    public void testParallelKeepsOrder() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            checkOrder(new UrlValidationProcessor(new UrlValidator(), 16, 4, executor), 1);
+            checkOrder(new UrlValidationProcessor(new UrlValidator(), 100, 3, executor), 1000);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testBackPressure() throws InterruptedException {
+        final AtomicLong requested = new AtomicLong();
+        final AtomicLong delivered = new AtomicLong();
+        final UrlValidationProcessor processor = new UrlValidationProcessor(new UrlValidator(), 8, 2, null);
+        Flow.Publisher<CharSequence> endless = new Flow.Publisher<CharSequence>() {
+            public void subscribe(final Flow.Subscriber<? super CharSequence> subscriber) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    public void request(long n) {
+                        requested.addAndGet(n);
+                    }
+
+                    public void cancel() {
+                    }
+                });
+            }
+        };
+        endless.subscribe(processor);
+        Collector collector = new Collector(10) {
+            public void onNext(Verdict verdict) {
+                verdicts.add(verdict);
+            }
+        };
+        processor.subscribe(collector);
+        // deliver whatever is requested until the subscriber has its 10
+        long deadline = System.currentTimeMillis() + 10000;
+        while (collector.verdicts.size() < 10 && System.currentTimeMillis() < deadline) {
+            long n = requested.get() - delivered.get();
+            for (long i = 0; i < n; i++) {
+                processor.onNext("http://www.google.com/");
+                delivered.incrementAndGet();
+            }
+            Thread.sleep(10);
+        }
+        Thread.sleep(100);
+        assertEquals(10, collector.verdicts.size());
+        // 10 taken downstream plus at most batchSize * parallelism * 2 buffered
+        assertTrue(String.valueOf(requested.get()), requested.get() <= 10 + 8 * 2 * 2);
+        collector.subscription.cancel();
+    }
+
+    @Test
+    public void testValidationFailure() throws InterruptedException {
+        SchemeHandler failing = new SchemeHandler() {
+            public Verdict validate(UrlValidator validator, UrlComponents url) {
+                throw new IllegalStateException("handler failed");
+            }
+        };
+        UrlValidator urlValidator = UrlValidator.builder().schemes("http", "x").schemeHandler("x", failing).build();
+        UrlValidationProcessor processor = new UrlValidationProcessor(urlValidator);
+        SubmissionPublisher<CharSequence> publisher = new SubmissionPublisher<CharSequence>();
+        Collector collector = new Collector(100);
+        processor.subscribe(collector);
+        publisher.subscribe(processor);
+        publisher.submit("http://www.google.com/");
+        publisher.submit("x:y");
+        publisher.submit("http://www.google.com/");
+        assertTrue(collector.done.await(10, TimeUnit.SECONDS));
+        assertTrue(collector.error instanceof IllegalStateException);
+        publisher.close();
+    }
+
+    @Test
+    public void testSecondSubscriberIsRejected() throws InterruptedException {
+        UrlValidationProcessor processor = new UrlValidationProcessor(new UrlValidator());
+        processor.subscribe(new Collector(1));
+        Collector second = new Collector(1);
+        processor.subscribe(second);
+        assertTrue(second.done.await(1, TimeUnit.SECONDS));
+        assertTrue(second.error instanceof IllegalStateException);
+    }
+
+    @Test
+    public void testBadRequest() throws InterruptedException {
+        UrlValidationProcessor processor = new UrlValidationProcessor(new UrlValidator());
+        Collector collector = new Collector(1);
+        processor.subscribe(collector);
+        collector.subscription.request(0);
+        assertTrue(collector.done.await(1, TimeUnit.SECONDS));
+        assertTrue(collector.error instanceof IllegalArgumentException);
+    }
+}
@@ -0,0 +1,108 @@
+package osu.cs362.URLValidator;
+
+import java.util.*;
+
+/*
+ * Micro benchmark of the scan kernels and the whole validator, split by URL
+ * length bucket. Not a unit test, run it by hand:
+ *
+ *   mvn test-compile
+ *   java --add-modules jdk.incubator.vector -cp target/classes:target/test-classes \
+ *       osu.cs362.URLValidator.UrlValidatorBenchmark
+ */
+public class UrlValidatorBenchmark {
+
+    //length buckets: short links, typical pages, tracking/signed links, huge
+    static int[][] BUCKETS = {{16, 64}, {65, 512}, {513, 4096}, {4097, 16384}};
+
+    static int URLS_PER_BUCKET = 1000;
+    static int WARMUP_ROUNDS = 5;
+    static int ROUNDS = 10;
+
+    static CharClass QUERY = CharClass.ALNUM.union(CharClass.of("-._~!$&'()*+,;=:@/?%"));
+
+    public static void main(String[] args) {
+        Random r = new Random(362);
+        System.out.println("selected kernel: " + ScanKernel.getInstance().getName());
+        for (int b = 0; b < BUCKETS.length; b++) {
+            String[] urls = getUrls(r, BUCKETS[b][0], BUCKETS[b][1]);
+            long chars = 0;
+            for (String url : urls) {
+                chars += url.length();
+            }
+            System.out.printf("-- bucket %d-%d chars --%n", BUCKETS[b][0], BUCKETS[b][1]);
+            String[] names = {"scalar", "swar", "vector"};
+            for (String name : names) {
+                ScanKernel kernel = ScanKernel.forName(name);
+                if (kernel == null) {
+                    System.out.printf("%-8s unavailable%n", name);
+                    continue;
+                }
+                double ns = time(kernel, urls);
+                System.out.printf("%-8s %8.1f ns/url %8.2f GB/s%n", name, ns, chars / (ns * urls.length));
+            }
+            UrlValidator urlValidator = new UrlValidator(UrlValidator.ALLOW_2_SLASHES);
+            double ns = time(urlValidator, urls);
+            System.out.printf("%-8s %8.1f ns/url%n", "isValid", ns);
+            urlValidator = UrlValidator.builder().allow2Slashes().compile().build();
+            ns = time(urlValidator, urls);
+            System.out.printf("%-8s %8.1f ns/url%n", "compiled", ns);
+        }
+    }
+
+    static String[] getUrls(Random r, int min, int max) {
+        String[] urls = new String[URLS_PER_BUCKET];
+        for (int i = 0; i < urls.length; i++) {
+            int length = min + r.nextInt(max - min + 1);
+            StringBuilder url = new StringBuilder("http://www.example.com/p?");
+            while (url.length() < length) {
+                url.append("utm_").append(r.nextInt(1000)).append('=').append(Long.toHexString(r.nextLong())).append('&');
+            }
+            url.setLength(length);
+            urls[i] = url.toString();
+        }
+        return urls;
+    }
+
+    static double time(ScanKernel kernel, String[] urls) {
+        int sink = 0;
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (String url : urls) {
+                if (kernel.isAscii(url, 0, url.length()) && kernel.allInClass(url, 0, url.length(), QUERY)) {
+                    sink++;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            if (round >= WARMUP_ROUNDS) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        if (sink == 42) {
+            System.out.print("");
+        }
+        return (double) best / urls.length;
+    }
+
+    static double time(UrlValidator urlValidator, String[] urls) {
+        int sink = 0;
+        long best = Long.MAX_VALUE;
+        for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+            long start = System.nanoTime();
+            for (String url : urls) {
+                if (urlValidator.isValid(url)) {
+                    sink++;
+                }
+            }
+            long elapsed = System.nanoTime() - start;
+            if (round >= WARMUP_ROUNDS) {
+                best = Math.min(best, elapsed);
+            }
+        }
+        if (sink == 42) {
+            System.out.print("");
+        }
+        return (double) best / urls.length;
+    }
+}
@@ -0,0 +1,99 @@
+package osu.cs362.URLValidator;
+
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+public class UrlValidatorBuilderTest {
+
+    private static final String[] URLS = {
+        "http://www.google.com",
+        "HTTPS://www.google.com:80/a/b",
+        "ftp://localhost/",
+        "http://machine.localdomain/",
+        "http://www.google.com//a",
+        "http://www.google.com/a#top",
+        "http://www.google.com/../a",
+        "file:///etc/hosts",
+        "gopher://www.google.com/",
+        "mailto:user@example.com",
+        "data:,hello",
+        "x:y"
+    };
+
+    @Test
+    public void testMatchesConstructor() {
+        long[] options = {
+            0,
+            UrlValidator.ALLOW_2_SLASHES,
+            UrlValidator.NO_FRAGMENTS,
+            UrlValidator.ALLOW_LOCAL_URLS,
+            UrlValidator.ALLOW_ALL_SCHEMES + UrlValidator.NO_FRAGMENTS
+        };
+        for (int i = 0; i < options.length; i++) {
+            UrlValidator expected = new UrlValidator(options[i]);
+            UrlValidator actual = UrlValidator.builder().options(options[i]).build();
+            for (int j = 0; j < URLS.length; j++) {
+                assertEquals(URLS[j] + " options " + options[i],
+                        expected.isValid(URLS[j]), actual.isValid(URLS[j]));
+            }
+        }
+    }
+
+    @Test
+    public void testOptions() {
+        UrlValidator urlValidator = UrlValidator.builder()
+                .schemes("http", "file")
+                .allow2Slashes()
+                .noFragments()
+                .allowLocalUrls()
+                .build();
+        assertTrue(urlValidator.isValid("http://www.google.com/a//b"));
+        assertTrue(urlValidator.isValid("file:///etc/hosts"));
+        assertFalse(urlValidator.isValid("http://www.google.com/a#b"));
+        assertFalse(urlValidator.isValid("https://www.google.com"));
+
+        urlValidator = UrlValidator.builder().allowAllSchemes().build();
+        assertTrue(urlValidator.isValid("gopher://www.google.com"));
+        assertFalse(urlValidator.isValid("http://localhost/"));
+    }
+
+    @Test
+    public void testBuiltValidatorIsFrozen() {
+        UrlValidator.Builder builder = UrlValidator.builder().schemes("http");
+        UrlValidator first = builder.build();
+        builder.schemes("ftp").noFragments();
+        UrlValidator second = builder.build();
+
+        assertTrue(first.isValid("http://www.google.com/#a"));
+        assertFalse(first.isValid("ftp://www.google.com/"));
+        assertFalse(second.isValid("http://www.google.com/"));
+        assertFalse(second.isValid("ftp://www.google.com/#a"));
+    }
+
+    @Test
+    public void testAuthorityValidator() {
+        UrlValidator urlValidator = UrlValidator.builder()
+                .authorityValidator(new RegexValidator("^internal$"))
+                .build();
+        assertTrue(urlValidator.isValid("http://internal/a"));
+        assertTrue(urlValidator.isValid("http://www.google.com/a"));
+        assertFalse(urlValidator.isValid("http://intern al/a"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNullHandler() {
+        UrlValidator.builder().schemeHandler("x", null);
+    }
+
+    @Test
+    public void testOverriddenChecksAreCalled() {
+        UrlValidator urlValidator = new UrlValidator() {
+            protected boolean isValidPath(String path) {
+                return !path.contains("secret") && super.isValidPath(path);
+            }
+        };
+        assertTrue(urlValidator.isValid("http://www.google.com/public"));
+        assertFalse(urlValidator.isValid("http://www.google.com/secret"));
+        assertEquals(Verdict.PATH, urlValidator.validate("http://www.google.com/secret"));
+    }
+}
@@ -116,7 +116,8 @@ public class UrlValidatorIDPTest{
             new ResultPair("ftp" + end, true),
             new ResultPair("https" + end, true),
             new ResultPair("http:" + end, false),
-            new ResultPair("mailto" + email, false),
+            //mailto: has a SchemeHandler of its own, so an address is valid
+            new ResultPair("mailto" + email, true),
             new ResultPair("mail" + email, false)
         };
 
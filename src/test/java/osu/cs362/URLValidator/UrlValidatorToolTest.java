@@ -0,0 +1,144 @@
+package osu.cs362.URLValidator;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Test;
+
+public class UrlValidatorToolTest {
+
+    private static final String[] URLS = {
+        "http://www.google.com/",
+        "gopher://www.google.com/",
+        "http://www.google.com/a//b",
+        "",
+        "http://www.göogle.com/",
+        "ftp://255.255.255.255:80/t123",
+        "http:/www.google.com",
+        "http://www.google.com/#top"
+    };
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    private int run(String input, String... args) {
+        return UrlValidatorTool.run(args, new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)),
+                new PrintStream(out), new PrintStream(err));
+    }
+
+    private static String input(int count) {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            input.append(URLS[i % URLS.length]).append(i % 3 == 0 ? "\r\n" : "\n");
+        }
+        return input.toString();
+    }
+
+    private static String verdicts(UrlValidator urlValidator, int count) {
+        StringBuilder verdicts = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            String url = URLS[i % URLS.length];
+            verdicts.append(urlValidator.validate(url)).append('\t').append(url).append('\n');
+        }
+        return verdicts.toString();
+    }
+
+    @Test
+    public void testVerdictColumn() {
+        assertEquals(1, run(input(URLS.length) + "http://www.google.com/last"));
+        assertEquals(verdicts(new UrlValidator(), URLS.length) + "VALID\thttp://www.google.com/last\n",
+                new String(out.toByteArray(), StandardCharsets.UTF_8));
+        String report = err.toString();
+        assertTrue(report, report.startsWith(URLS.length + 1 + " lines"));
+        assertTrue(report, report.contains("rejected at scheme"));
+        assertTrue(report, report.contains("peak heap"));
+    }
+
+    @Test
+    public void testParallelChunksKeepOrder() {
+        int count = 5000;
+        assertEquals(1, run(input(count), "-t", "4", "--chunk-size", "100", "--no-fragments", "-s", "http,ftp"));
+        UrlValidator urlValidator = UrlValidator.builder().schemes("http", "ftp").noFragments().build();
+        assertEquals(verdicts(urlValidator, count), new String(out.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testSplitOutputs() throws IOException {
+        File valid = File.createTempFile("valid", ".txt");
+        File invalid = File.createTempFile("invalid", ".txt");
+        File urls = File.createTempFile("urls", ".txt");
+        try {
+            Files.write(urls.toPath(), input(URLS.length).getBytes(StandardCharsets.UTF_8));
+            assertEquals(1, run("", "-o", "valid", "--valid-file", valid.getPath(),
+                    "--invalid-file", invalid.getPath(), urls.getPath()));
+            String expectedValid = "";
+            String expectedInvalid = "";
+            UrlValidator urlValidator = new UrlValidator();
+            for (String url : URLS) {
+                if (urlValidator.isValid(url)) {
+                    expectedValid += url + "\n";
+                } else {
+                    expectedInvalid += url + "\n";
+                }
+            }
+            assertEquals(expectedValid, new String(out.toByteArray(), StandardCharsets.UTF_8));
+            assertEquals(expectedValid, new String(Files.readAllBytes(valid.toPath()), StandardCharsets.UTF_8));
+            assertEquals(expectedInvalid, new String(Files.readAllBytes(invalid.toPath()), StandardCharsets.UTF_8));
+        } finally {
+            valid.delete();
+            invalid.delete();
+            urls.delete();
+        }
+    }
+
+    @Test
+    public void testGzipInput() throws IOException {
+        File urls = File.createTempFile("urls", ".txt.gz");
+        try {
+            // two members, as written by two writers
+            byte[] text = input(3000).getBytes(StandardCharsets.UTF_8);
+            OutputStream file = new FileOutputStream(urls);
+            for (int part = 0; part < 2; part++) {
+                GZIPOutputStream gzip = new GZIPOutputStream(file) {
+                    public void close() throws IOException {
+                        finish();
+                    }
+                };
+                int from = part * text.length / 2;
+                gzip.write(text, from, (part + 1) * text.length / 2 - from);
+                gzip.close();
+            }
+            file.close();
+            assertEquals(1, run("", "-t", "2", "--chunk-size", "1000", urls.getPath()));
+            assertEquals(verdicts(new UrlValidator(), 3000), new String(out.toByteArray(), StandardCharsets.UTF_8));
+        } finally {
+            urls.delete();
+        }
+    }
+
+    @Test
+    public void testAllValid() {
+        assertEquals(0, run("http://www.google.com/\nftp://www.google.com/\n", "-o", "none"));
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    public void testUsageErrors() {
+        assertEquals(2, run("", "--threads", "0"));
+        assertEquals(2, run("", "-o", "everything"));
+        assertEquals(2, run("", "--bogus"));
+        assertEquals(2, run("", "--schemes"));
+        assertEquals(2, run("", "no-such-file.txt"));
+    }
+}
@@ -0,0 +1,113 @@
+package osu.cs362.URLValidator;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+import org.junit.Test;
+
+public class ValidationEventTest {
+
+    private static List<RecordedEvent> record(Recording recording, Runnable work) throws IOException {
+        recording.start();
+        work.run();
+        recording.stop();
+        File file = File.createTempFile("validation", ".jfr");
+        try {
+            recording.dump(file.toPath());
+            return RecordingFile.readAllEvents(file.toPath());
+        } finally {
+            recording.close();
+            file.delete();
+        }
+    }
+
+    @Test
+    public void testSlowValidationEvents() throws IOException {
+        Recording recording = new Recording();
+        recording.enable(ValidationEvent.NAME).withThreshold(Duration.ZERO);
+        final UrlValidator urlValidator = new UrlValidator();
+        List<RecordedEvent> events = record(recording, new Runnable() {
+            public void run() {
+                assertTrue(urlValidator.isValid("http://www.google.com/a"));
+                assertFalse(urlValidator.isValid("http://www.google.com:99999/"));
+                assertFalse(urlValidator.isValid("gopher://www.google.com/"));
+            }
+        });
+
+        Map<String, Integer> stages = new HashMap<String, Integer>();
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(ValidationEvent.NAME)) {
+                String key = event.getString("validator") + " " + event.getString("stage");
+                stages.put(key, stages.containsKey(key) ? stages.get(key) + 1 : 1);
+                if (event.getString("validator").equals("UrlValidator")
+                        && event.getString("stage").equals("PORT")) {
+                    assertEquals(28, event.getInt("inputLength"));
+                }
+            }
+        }
+        assertEquals(Integer.valueOf(1), stages.get("UrlValidator VALID"));
+        assertEquals(Integer.valueOf(1), stages.get("UrlValidator PORT"));
+        assertEquals(Integer.valueOf(1), stages.get("UrlValidator SCHEME"));
+        assertEquals(Integer.valueOf(2), stages.get("DomainValidator VALID"));
+        assertNotNull(stages.get("RegexValidator VALID"));
+    }
+
+    @Test
+    public void testThresholdFiltersFastValidations() throws IOException {
+        Recording recording = new Recording();
+        recording.enable(ValidationEvent.NAME).withThreshold(Duration.ofHours(1));
+        final UrlValidator urlValidator = new UrlValidator();
+        List<RecordedEvent> events = record(recording, new Runnable() {
+            public void run() {
+                urlValidator.isValid("http://www.google.com/a");
+            }
+        });
+        for (RecordedEvent event : events) {
+            assertFalse(event.getEventType().getName().equals(ValidationEvent.NAME));
+        }
+    }
+
+    @Test
+    public void testStatisticsEvent() throws IOException {
+        Recording recording = new Recording();
+        recording.enable(ValidationEvent.NAME);
+        recording.enable(ValidationStatisticsEvent.NAME).withPeriod(Duration.ofMillis(50));
+        final UrlValidator urlValidator = new UrlValidator();
+        List<RecordedEvent> events = record(recording, new Runnable() {
+            public void run() {
+                for (int i = 0; i < 100; i++) {
+                    urlValidator.isValid(i % 4 == 0 ? "http://www.google.com/a" : "ftp://x.y.invalid/");
+                }
+                try {
+                    Thread.sleep(500);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        long validations = 0;
+        long rejected = 0;
+        for (RecordedEvent event : events) {
+            if (event.getEventType().getName().equals(ValidationStatisticsEvent.NAME)
+                    && event.getString("validator").equals("UrlValidator")) {
+                validations += event.getLong("validations");
+                rejected += event.getLong("rejected");
+                assertTrue(event.getDouble("throughput") > 0);
+            }
+        }
+        // validations of earlier recordings may not have been emitted yet
+        assertTrue(String.valueOf(validations), validations >= 100);
+        assertTrue(String.valueOf(rejected), rejected >= 75);
+    }
+}
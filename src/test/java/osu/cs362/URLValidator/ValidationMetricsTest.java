@@ -0,0 +1,126 @@
+package osu.cs362.URLValidator;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class ValidationMetricsTest {
+
+    private static final Object[][] REJECTS = {
+        {null, ValidationMetrics.Reject.MALFORMED},
+        {"http://www.göogle.com", ValidationMetrics.Reject.NON_ASCII},
+        {"gopher://www.google.com", ValidationMetrics.Reject.SCHEME},
+        {"http:/www.google.com", ValidationMetrics.Reject.AUTHORITY},
+        {"http://go.a1a", ValidationMetrics.Reject.HOST},
+        {"http://1.2.3", ValidationMetrics.Reject.IP},
+        {"http://go.com:65636", ValidationMetrics.Reject.PORT},
+        {"http://go.com@x", ValidationMetrics.Reject.EXTRA},
+        {"http://go.com/a b", ValidationMetrics.Reject.PATH},
+        {"http://go.com/a//b", ValidationMetrics.Reject.DOUBLE_SLASH},
+        {"http://go.com/../b", ValidationMetrics.Reject.DOT_DOT},
+        {"http://go.com/a%zz", ValidationMetrics.Reject.PERCENT_ENCODING},
+        {"http://go.com/a?b=c", ValidationMetrics.Reject.QUERY},
+        {"mailto:a@b.com#x", null}
+    };
+
+    @Test
+    public void testRejectCounts() {
+        ValidationMetrics metrics = new ValidationMetrics();
+        UrlValidator urlValidator = UrlValidator.builder()
+                .schemes("http", "mailto")
+                .noFragments()
+                .metrics(metrics)
+                .build();
+        for (int i = 0; i < REJECTS.length; i++) {
+            assertFalse(String.valueOf(REJECTS[i][0]), urlValidator.isValid((String) REJECTS[i][0]));
+        }
+        assertTrue(urlValidator.isValid("http://go.com/a"));
+
+        assertEquals(REJECTS.length + 1, metrics.getValidationCount());
+        assertEquals(REJECTS.length, metrics.getRejectCount());
+        for (int i = 0; i < REJECTS.length - 1; i++) {
+            ValidationMetrics.Reject reject = (ValidationMetrics.Reject) REJECTS[i][1];
+            assertEquals(reject.toString(), 1, metrics.getRejectCount(reject));
+        }
+        // the mailto handler only reports the component
+        assertEquals(1, metrics.getRejectCount(ValidationMetrics.Reject.FRAGMENT));
+        assertEquals(REJECTS.length + 1, metrics.getLatencyHistogram().getCount());
+
+        metrics.reset();
+        assertEquals(0, metrics.getValidationCount());
+        assertEquals(0, metrics.getRejectCount());
+        assertEquals(0, metrics.getLatencyHistogram().getCount());
+    }
+
+    @Test
+    public void testHostClassification() {
+        String[] hosts = {"1.2.3.4", "1.2.3", "1.2.3.4.5", "1234", "1..2", "3com.com", "1.2.3.com", "go.a1a", ""};
+        Object[] rejects = {null, ValidationMetrics.Reject.IP, ValidationMetrics.Reject.IP,
+            ValidationMetrics.Reject.HOST, ValidationMetrics.Reject.IP, null, null,
+            ValidationMetrics.Reject.HOST, ValidationMetrics.Reject.HOST};
+        for (int i = 0; i < hosts.length; i++) {
+            ValidationMetrics metrics = new ValidationMetrics();
+            UrlValidator urlValidator = UrlValidator.builder().metrics(metrics).build();
+            assertEquals(hosts[i], rejects[i] == null, urlValidator.isValid("http://" + hosts[i] + "/"));
+            if (rejects[i] != null) {
+                assertEquals(hosts[i], 1, metrics.getRejectCount((ValidationMetrics.Reject) rejects[i]));
+            }
+        }
+        for (int i = 0; i < 5; i++) {
+            for (int local = 0; local < 2; local++) {
+                DomainValidator domainValidator = DomainValidator.getInstance(local == 1);
+                assertEquals(hosts[i], domainValidator.isValid(hosts[i]), domainValidator.isValidNumeric(hosts[i]));
+            }
+        }
+    }
+
+    @Test
+    public void testSharedAcrossThreads() throws InterruptedException {
+        final ValidationMetrics metrics = new ValidationMetrics();
+        final UrlValidator urlValidator = UrlValidator.builder().metrics(metrics).compile().build();
+        Thread[] threads = new Thread[4];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread() {
+                public void run() {
+                    for (int i = 0; i < 10000; i++) {
+                        urlValidator.isValid(i % 2 == 0 ? "http://go.com/" : "http://go.com:99999/");
+                    }
+                }
+            };
+            threads[t].start();
+        }
+        for (int t = 0; t < threads.length; t++) {
+            threads[t].join();
+        }
+        assertEquals(40000, metrics.getValidationCount());
+        assertEquals(20000, metrics.getRejectCount(ValidationMetrics.Reject.PORT));
+    }
+
+    @Test
+    public void testHistogramBuckets() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getLowerBound(0));
+        for (int i = 1; i < histogram.size(); i++) {
+            assertEquals(histogram.getUpperBound(i - 1) + 1, histogram.getLowerBound(i));
+            assertEquals(i, LatencyHistogram.indexOf(histogram.getLowerBound(i)));
+            assertEquals(i, LatencyHistogram.indexOf(histogram.getUpperBound(i)));
+        }
+        assertEquals(Long.MAX_VALUE, histogram.getUpperBound(histogram.size() - 1));
+        assertEquals(0, LatencyHistogram.indexOf(-5));
+    }
+
+    @Test
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        for (long nanos = 1; nanos <= 1000; nanos++) {
+            histogram.record(nanos * 1000);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500500000L, histogram.getTotal());
+        long p50 = histogram.getValueAtPercentile(50);
+        assertTrue(String.valueOf(p50), p50 >= 500000 && p50 <= 500000 * 1.125);
+        long p100 = histogram.getValueAtPercentile(100);
+        assertTrue(String.valueOf(p100), p100 >= 1000000 && p100 <= 1000000 * 1.125);
+    }
+}
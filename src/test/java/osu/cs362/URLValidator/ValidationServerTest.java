@@ -0,0 +1,177 @@
+package osu.cs362.URLValidator;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ValidationServerTest {
+
+    private static final String[] URLS = {
+        "http://www.google.com/",
+        "gopher://www.google.com/",
+        "http://www.google.com/a//b",
+        "",
+        "http://www.göogle.com/",
+        "ftp://255.255.255.255:80/t123",
+        "http:/www.google.com"
+    };
+
+    private final UrlValidator urlValidator = new UrlValidator();
+
+    private ValidationServer server;
+
+    @Before
+    public void start() throws IOException {
+        server = ValidationServer.start(urlValidator, new InetSocketAddress("127.0.0.1", 0), 1024);
+    }
+
+    @After
+    public void stop() {
+        server.close();
+    }
+
+    private String expected(List<String> urls) {
+        StringBuilder verdicts = new StringBuilder();
+        for (String url : urls) {
+            verdicts.append(urlValidator.validate(url)).append('\n');
+        }
+        return verdicts.toString();
+    }
+
+    private HttpURLConnection post(String path, byte[] body) throws IOException {
+        URL url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + path);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(body.length);
+        OutputStream out = connection.getOutputStream();
+        out.write(body);
+        out.close();
+        return connection;
+    }
+
+    private static String read(InputStream in) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        for (int n; (n = in.read(buffer)) > 0;) {
+            bytes.write(buffer, 0, n);
+        }
+        in.close();
+        return new String(bytes.toByteArray(), StandardCharsets.ISO_8859_1);
+    }
+
+    @Test
+    public void testValidate() throws IOException {
+        List<String> urls = new ArrayList<String>();
+        StringBuilder body = new StringBuilder();
+        for (String url : URLS) {
+            urls.add(url);
+            body.append(url).append("\r\n");
+        }
+        // the last line needs no newline
+        urls.add("http://www.google.com/last");
+        body.append("http://www.google.com/last");
+
+        HttpURLConnection connection = post(ValidationServer.PATH, body.toString().getBytes(StandardCharsets.UTF_8));
+        assertEquals(200, connection.getResponseCode());
+        assertEquals(expected(urls), read(connection.getInputStream()));
+    }
+
+    @Test
+    public void testLargeBody() throws IOException {
+        // many times the buffer size, and a line longer than it
+        List<String> urls = new ArrayList<String>();
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 20000; i++) {
+            String url = i == 500 ? "http://www.google.com/" + new String(new char[3000]).replace('\0', 'a')
+                    : URLS[i % URLS.length] + (i % 3 == 0 ? "" : Integer.toString(i));
+            urls.add(url);
+            body.append(url).append('\n');
+        }
+        HttpURLConnection connection = post(ValidationServer.PATH, body.toString().getBytes(StandardCharsets.UTF_8));
+        assertEquals(200, connection.getResponseCode());
+        String verdicts = read(connection.getInputStream());
+        urls.set(500, "");
+        assertEquals(expected(urls), verdicts);
+    }
+
+    @Test
+    public void testShortLines() throws IOException {
+        // the verdicts of one read do not fit in the write buffer
+        List<String> urls = new ArrayList<String>();
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 400; i++) {
+            urls.add("x");
+            body.append("x\n");
+        }
+        HttpURLConnection connection = post(ValidationServer.PATH, body.toString().getBytes(StandardCharsets.UTF_8));
+        connection.setReadTimeout(10000);
+        assertEquals(200, connection.getResponseCode());
+        assertEquals(expected(urls), read(connection.getInputStream()));
+    }
+
+    @Test
+    public void testErrors() throws IOException {
+        assertEquals(404, post("/other", new byte[0]).getResponseCode());
+
+        URL url = new URL("http://127.0.0.1:" + server.getAddress().getPort() + ValidationServer.PATH);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        assertEquals(405, connection.getResponseCode());
+    }
+
+    @Test
+    public void testPipelinedRequests() throws IOException {
+        Socket socket = new Socket("127.0.0.1", server.getAddress().getPort());
+        try {
+            String request = "POST /validate HTTP/1.1\r\nHost: x\r\nContent-Length: 23\r\n\r\n"
+                    + "http://www.google.com/\n";
+            OutputStream out = socket.getOutputStream();
+            out.write((request + request + "POST /validate HTTP/1.1\r\nContent-Length: 9\r\n"
+                    + "Connection: close\r\n\r\ngopher://").getBytes(StandardCharsets.US_ASCII));
+            out.flush();
+            String response = read(socket.getInputStream());
+            String ok = "HTTP/1.1 200 OK\r\nContent-Type: text/plain; charset=us-ascii\r\n"
+                    + "Transfer-Encoding: chunked\r\n";
+            assertEquals(ok + "\r\n000006\r\nVALID\n\r\n0\r\n\r\n"
+                    + ok + "\r\n000006\r\nVALID\n\r\n0\r\n\r\n"
+                    + ok + "Connection: close\r\n\r\n000007\r\nSCHEME\n\r\n0\r\n\r\n", response);
+        } finally {
+            socket.close();
+        }
+    }
+
+    @Test
+    public void testLengthRequired() throws IOException {
+        Socket socket = new Socket("127.0.0.1", server.getAddress().getPort());
+        try {
+            socket.getOutputStream().write("POST /validate HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n"
+                    .getBytes(StandardCharsets.US_ASCII));
+            assertTrue(read(socket.getInputStream()).startsWith("HTTP/1.1 411 "));
+        } finally {
+            socket.close();
+        }
+    }
+
+    @Test
+    public void testLoadGenerator() throws InterruptedException, IOException {
+        ValidationLoadGenerator generator = new ValidationLoadGenerator(server.getAddress(), 500);
+        generator.run(3, 20);
+        assertEquals(0, generator.getErrorCount());
+        assertEquals(3 * 20 * 500, generator.getVerdictCount());
+        assertEquals(60, generator.getLatencyHistogram().getCount());
+    }
+}
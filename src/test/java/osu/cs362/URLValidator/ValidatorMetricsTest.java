@@ -0,0 +1,143 @@
+package osu.cs362.URLValidator;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Map;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+
+public class ValidatorMetricsTest {
+
+    @Test
+    public void testMBean() throws Exception {
+        UrlValidator urlValidator = UrlValidator.builder().name("mbean-test").build();
+        assertNotNull(urlValidator.getMetrics());
+        urlValidator.isValid("http://www.google.com/");
+        urlValidator.isValid("http://www.google.com:99999/");
+        urlValidator.isValid("gopher://www.google.com/");
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("osu.cs362.URLValidator:type=ValidatorMetrics,name=\"mbean-test\"");
+        assertTrue(server.isRegistered(name));
+        assertEquals(Long.valueOf(3), server.getAttribute(name, "ValidationCount"));
+        assertEquals(Long.valueOf(2), server.getAttribute(name, "RejectCount"));
+        @SuppressWarnings("unchecked")
+        Map<String, Long> rejects = (Map<String, Long>) server.getAttribute(name, "RejectCounts");
+        assertEquals(Long.valueOf(1), rejects.get("PORT"));
+        assertEquals(Long.valueOf(1), rejects.get("SCHEME"));
+        assertEquals(Long.valueOf(0), rejects.get("QUERY"));
+        long p50 = ((Long) server.getAttribute(name, "LatencyP50")).longValue();
+        long p999 = ((Long) server.getAttribute(name, "LatencyP999")).longValue();
+        assertTrue(p50 > 0 && p50 <= p999);
+        assertTrue(((Double) server.getAttribute(name, "Throughput")).doubleValue() >= 0);
+
+        server.invoke(name, "reset", null, null);
+        assertEquals(0, urlValidator.getMetrics().getValidationCount());
+
+        // a second validator of the same name replaces the first
+        UrlValidator replacement = UrlValidator.builder().name("mbean-test").build();
+        replacement.isValid("http://www.google.com/");
+        urlValidator.isValid("http://www.google.com/");
+        assertEquals(Long.valueOf(1), server.getAttribute(name, "ValidationCount"));
+
+        for (ValidatorMetrics metrics : ValidatorMetrics.getRegistered()) {
+            if (metrics.getName().equals("mbean-test")) {
+                metrics.unregister();
+            }
+        }
+        assertFalse(server.isRegistered(name));
+    }
+
+    @Test
+    public void testThroughputWindow() {
+        ValidationMetrics metrics = new ValidationMetrics();
+        long start = System.nanoTime();
+        ValidatorMetrics mbean = ValidatorMetrics.register("throughput-test", metrics);
+        try {
+            UrlValidator urlValidator = UrlValidator.builder().metrics(metrics).build();
+            for (int i = 0; i < 30; i++) {
+                urlValidator.isValid("http://www.google.com/");
+            }
+            assertEquals(0, mbean.getThroughput(start), 0);
+            // readers within a window all see its rate
+            long end = System.nanoTime() + 2 * ValidatorMetrics.THROUGHPUT_WINDOW;
+            double throughput = mbean.getThroughput(end);
+            assertTrue(String.valueOf(throughput), throughput > 1.0 && throughput <= 1.5);
+            assertEquals(throughput, mbean.getThroughput(end), 0);
+            assertEquals(throughput, mbean.getThroughput(end + ValidatorMetrics.THROUGHPUT_WINDOW - 1), 0);
+            assertEquals(0, mbean.getThroughput(end + ValidatorMetrics.THROUGHPUT_WINDOW), 0);
+        } finally {
+            mbean.unregister();
+        }
+    }
+
+    @Test
+    public void testRender() {
+        ValidationMetrics metrics = new ValidationMetrics();
+        UrlValidator urlValidator = UrlValidator.builder().metrics(metrics).build();
+        urlValidator.isValid("http://www.google.com/");
+        urlValidator.isValid("http://www.google.com/a//b");
+        ValidatorMetrics mbean = ValidatorMetrics.register("render \"test\"", metrics);
+        try {
+            StringBuilder text = new StringBuilder();
+            PrometheusEndpoint.render(Collections.singleton(mbean), text);
+            String rendered = text.toString();
+            String labels = "{validator=\"render \\\"test\\\"\"";
+            assertTrue(rendered, rendered.contains("# TYPE urlvalidator_validations_total counter\n"));
+            assertTrue(rendered, rendered.contains("urlvalidator_validations_total" + labels + "} 2\n"));
+            assertTrue(rendered, rendered.contains("urlvalidator_rejects_total" + labels + ",reason=\"double_slash\"} 1\n"));
+            assertTrue(rendered, rendered.contains("urlvalidator_latency_seconds_bucket" + labels + ",le=\"+Inf\"} 2\n"));
+            assertTrue(rendered, rendered.contains("urlvalidator_latency_seconds_count" + labels + "} 2\n"));
+
+            long previous = 0;
+            for (String line : rendered.split("\n")) {
+                if (line.startsWith("urlvalidator_latency_seconds_bucket")) {
+                    long count = Long.parseLong(line.substring(line.lastIndexOf(' ') + 1));
+                    assertTrue(line, count >= previous);
+                    previous = count;
+                }
+            }
+        } finally {
+            mbean.unregister();
+        }
+    }
+
+    @Test
+    public void testEndpoint() throws IOException {
+        UrlValidator urlValidator = UrlValidator.builder().name("endpoint-test").build();
+        urlValidator.isValid("http://www.google.com/");
+        PrometheusEndpoint endpoint = PrometheusEndpoint.start(new InetSocketAddress("127.0.0.1", 0));
+        try {
+            URL url = new URL("http://127.0.0.1:" + endpoint.getAddress().getPort() + "/metrics");
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            assertEquals(200, connection.getResponseCode());
+            assertEquals(PrometheusEndpoint.CONTENT_TYPE, connection.getContentType());
+            InputStream in = connection.getInputStream();
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            for (int n; (n = in.read(buffer)) > 0;) {
+                body.write(buffer, 0, n);
+            }
+            in.close();
+            assertTrue(body.toString("UTF-8").contains("urlvalidator_validations_total{validator=\"endpoint-test\"} 1\n"));
+        } finally {
+            endpoint.stop();
+            for (ValidatorMetrics metrics : ValidatorMetrics.getRegistered()) {
+                if (metrics.getName().equals("endpoint-test")) {
+                    metrics.unregister();
+                }
+            }
+        }
+    }
+}